@@ -0,0 +1,115 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.async.AsyncEventHandler;
+import ca.ucalgary.seng300.a1.async.BlockingWaitStrategy;
+import ca.ucalgary.seng300.a1.async.BusySpinWaitStrategy;
+import ca.ucalgary.seng300.a1.async.SleepingWaitStrategy;
+import ca.ucalgary.seng300.a1.async.WaitStrategy;
+import ca.ucalgary.seng300.a1.async.YieldingWaitStrategy;
+import ca.ucalgary.seng300.a1.journal.EventJournal;
+
+/**
+ * Time a coin insertion keeps the hardware thread, with the controller called
+ * directly and with each wait strategy of the asynchronous handoff. burst
+ * inserts coins into a ring with room for them, which is the callback latency
+ * a customer sees; sustained keeps inserting, so the ring fills and the
+ * hardware thread waits for the controller thread.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AsyncBenchmark {
+
+	private static final int BURST = 1024;
+
+	@Param({ "sync", "busy-spin", "yielding", "sleeping", "blocking" })
+	public String mode;
+
+	@Param({ "false", "true" })
+	public boolean journaled;
+
+	private MachineFixture machine;
+	private AsyncEventHandler async;
+	private EventJournal journal;
+	private File journalFile;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		machine = new MachineFixture(3, 5, 2 * BURST);
+		if (journaled) {
+			journalFile = File.createTempFile("controller", ".journal");
+			journal = new EventJournal(journalFile, 1 << 20, 64);
+			machine.controller.setJournal(journal);
+		}
+		WaitStrategy strategy = null;
+		if (mode.equals("busy-spin")) {
+			strategy = new BusySpinWaitStrategy();
+		} else if (mode.equals("yielding")) {
+			strategy = new YieldingWaitStrategy();
+		} else if (mode.equals("sleeping")) {
+			strategy = new SleepingWaitStrategy();
+		} else if (mode.equals("blocking")) {
+			strategy = new BlockingWaitStrategy();
+		}
+		if (strategy != null) {
+			async = new AsyncEventHandler(machine.controller, 4 * BURST, strategy, 256);
+			async.start();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException, InterruptedException {
+		if (async != null) {
+			async.stop();
+		}
+		if (journal != null) {
+			journal.close();
+			journalFile.delete();
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void emptyCoinStorage() throws InterruptedException {
+		if (async != null) {
+			async.awaitIdle();
+		}
+		machine.vendingMachine.getCoinReceptacle().unload();
+		for (int i = 0; i < machine.vendingMachine.getNumberOfCoinRacks(); i++) {
+			machine.vendingMachine.getCoinRack(i).unload();
+		}
+		if (async != null) {
+			async.awaitIdle();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public void burst() throws DisabledException {
+		CoinSlot slot = machine.vendingMachine.getCoinSlot();
+		for (int i = 0; i < BURST; i++) {
+			slot.addCoin(machine.smallCoin);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BURST)
+	public void sustained() throws DisabledException, InterruptedException {
+		burst();
+		if (async != null) {
+			async.awaitIdle();
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.change.ChangeMaker;
+
+/**
+ * Cost of working out change for realistic denomination sets and balances.
+ * With well stocked racks change comes straight from the tables; with a few
+ * coins per rack some amounts need the search over exact rack counts.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChangeBenchmark {
+
+	private static final int AMOUNTS = 1024;
+
+	/** Canadian, US and euro coins, in cents */
+	@Param({ "5,10,25,100,200", "1,5,10,25,100", "1,2,5,10,20,50,100,200" })
+	public String denominations;
+
+	/** Coins in each rack */
+	@Param({ "200", "3" })
+	public int coinsPerRack;
+
+	private ChangeMaker changeMaker;
+	private int[] plan;
+	private int[] amounts;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		String[] values = denominations.split(",");
+		int[] coins = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			coins[i] = Integer.parseInt(values[i]);
+		}
+		changeMaker = new ChangeMaker(coins, 2 * MachineFixture.PRICE);
+		for (int i = 0; i < coins.length; i++) {
+			changeMaker.setCount(i, coinsPerRack);
+		}
+		plan = new int[coins.length];
+
+		// balances left after buying a pop, in multiples of the smallest coin
+		Random random = new Random(42);
+		amounts = new int[AMOUNTS];
+		for (int i = 0; i < AMOUNTS; i++) {
+			amounts[i] = coins[0] * (1 + random.nextInt(2 * MachineFixture.PRICE / coins[0]));
+		}
+		changeMaker.makeChange(amounts[0], plan);
+	}
+
+	@Benchmark
+	public boolean makeChange() {
+		int amount = amounts[next];
+		next = (next + 1) & (AMOUNTS - 1);
+		return changeMaker.makeChange(amount, plan);
+	}
+}
@@ -0,0 +1,126 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of the controller hot paths on a machine driven through the real
+ * hardware: coin insertion, a successful purchase, and presses refused for
+ * insufficient funds, an empty rack, a disabled button, a disabled rack and a
+ * full delivery chute, and a purchase held while the chute is full and
+ * delivered once it is emptied.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+	@Param({ "3", "100", "1000" })
+	public int racks;
+
+	@Param({ "2", "5", "10" })
+	public int coinKinds;
+
+	// no credit, all racks loaded
+	private MachineFixture machine;
+
+	// credit for one pop, button 0 disabled, rack 1 disabled, last rack empty
+	private MachineFixture fundedMachine;
+
+	// credit for one pop, delivery chute full, no purchases held
+	private MachineFixture fullChuteMachine;
+
+	// a chute that holds one pop, full
+	private MachineFixture heldMachine;
+
+	private int emptyRack;
+
+	@Setup(Level.Trial)
+	public void setup() throws DisabledException {
+		machine = new MachineFixture(racks, coinKinds, MachineFixture.RECEPTACLE_CAPACITY);
+
+		fundedMachine = new MachineFixture(racks, coinKinds, MachineFixture.RECEPTACLE_CAPACITY);
+		emptyRack = racks - 1;
+		fundedMachine.vendingMachine.getPopCanRack(emptyRack).unload();
+		fundedMachine.vendingMachine.getSelectionButton(0).disable();
+		fundedMachine.vendingMachine.getPopCanRack(1).disable();
+		fundedMachine.insert(fundedMachine.priceCoin);
+
+		// with a receptacle of one coin the second coin is returned to the chute,
+		// which then has no room left
+		fullChuteMachine = new MachineFixture(racks, coinKinds, 1);
+		fullChuteMachine.vendingMachine.getCoinSlot().addCoin(fullChuteMachine.priceCoin);
+		fullChuteMachine.vendingMachine.getCoinSlot().addCoin(fullChuteMachine.priceCoin);
+		// refuse rather than hold, so every press takes the full chute path
+		fullChuteMachine.controller.setPendingDeliveryLimit(0);
+
+		heldMachine = new MachineFixture(racks, coinKinds, 1);
+		heldMachine.vendingMachine.getCoinSlot().addCoin(heldMachine.priceCoin);
+		heldMachine.vendingMachine.getSelectionButton(0).press();
+	}
+
+	@Benchmark
+	public int coinInsertion() throws DisabledException {
+		machine.insert(machine.smallCoin);
+		return machine.controller.getBalance();
+	}
+
+	@Benchmark
+	public int successfulPurchase() throws DisabledException {
+		machine.insert(machine.priceCoin);
+		machine.vendingMachine.getSelectionButton(0).press();
+		machine.vendingMachine.getDeliveryChute().removeItems();
+		machine.refillIfEmpty(0);
+		return machine.controller.getBalance();
+	}
+
+	@Benchmark
+	public int insufficientFundsPress() {
+		machine.vendingMachine.getSelectionButton(0).press();
+		return machine.controller.getLastMessageCode();
+	}
+
+	@Benchmark
+	public int emptyRackPress() {
+		fundedMachine.vendingMachine.getSelectionButton(emptyRack).press();
+		return fundedMachine.controller.getLastMessageCode();
+	}
+
+	@Benchmark
+	public int disabledButtonPress() {
+		fundedMachine.vendingMachine.getSelectionButton(0).press();
+		return fundedMachine.controller.getLastMessageCode();
+	}
+
+	@Benchmark
+	public int disabledRackPress() {
+		fundedMachine.vendingMachine.getSelectionButton(1).press();
+		return fundedMachine.controller.getLastMessageCode();
+	}
+
+	@Benchmark
+	public int chuteFullPress() {
+		fullChuteMachine.vendingMachine.getSelectionButton(0).press();
+		return fullChuteMachine.controller.getLastMessageCode();
+	}
+
+	// pays, has the purchase held behind the pop already in the chute, then
+	// empties the chute so the held pop is delivered and fills it again
+	@Benchmark
+	public int heldPurchase() throws DisabledException {
+		heldMachine.vendingMachine.getCoinReceptacle().unload();
+		heldMachine.vendingMachine.getCoinSlot().addCoin(heldMachine.priceCoin);
+		heldMachine.vendingMachine.getSelectionButton(0).press();
+		heldMachine.vendingMachine.getDeliveryChute().removeItems();
+		heldMachine.refillIfEmpty(0);
+		return heldMachine.controller.getPendingDeliveries();
+	}
+}
@@ -0,0 +1,77 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.ControllerSnapshot;
+
+/**
+ * Monitoring reads while the machine sells: one thread makes purchases while
+ * the others take snapshots, or read the balance, message and chute action
+ * with three separate calls, which may not agree. Readers never write shared
+ * state, so snapshots per second should grow with the reader threads up to the
+ * number of cores, and the purchases should not slow down. The readers in a
+ * group can be changed with -tg, e.g. -tg 1,8.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ControllerSnapshotBenchmark {
+
+	private MachineFixture fixture;
+	private Controller controller;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		fixture = new MachineFixture(6, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		controller = fixture.controller;
+	}
+
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(1)
+	public void snapshotPurchase() throws DisabledException {
+		purchase();
+	}
+
+	@Benchmark
+	@Group("snapshot")
+	@GroupThreads(3)
+	public ControllerSnapshot snapshotRead() {
+		return controller.getSnapshot();
+	}
+
+	@Benchmark
+	@Group("getters")
+	@GroupThreads(1)
+	public void gettersPurchase() throws DisabledException {
+		purchase();
+	}
+
+	@Benchmark
+	@Group("getters")
+	@GroupThreads(3)
+	public void gettersRead(Blackhole blackhole) {
+		blackhole.consume(controller.getBalance());
+		blackhole.consume(controller.getLastMessage());
+		blackhole.consume(controller.getDCLastAction());
+	}
+
+	//one purchase, taking the pop out of the chute and refilling the rack
+	private void purchase() throws DisabledException {
+		fixture.insert(fixture.priceCoin);
+		fixture.vendingMachine.getSelectionButton(0).press();
+		fixture.vendingMachine.getDeliveryChute().removeItems();
+		fixture.refillIfEmpty(0);
+	}
+}
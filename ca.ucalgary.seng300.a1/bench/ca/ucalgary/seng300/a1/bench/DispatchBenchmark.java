@@ -0,0 +1,48 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the cost of delivering one hardware event to the controller for
+ * machines with an increasing number of selections. The per-event cost should
+ * stay flat as the number of selections grows.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+	@Param({ "3", "10", "100", "1000", "10000" })
+	public int selections;
+
+	private SelectionButton lastButton;
+	private CoinSlot coinSlot;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		MachineFixture machine = new MachineFixture(selections, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		lastButton = machine.vendingMachine.getSelectionButton(selections - 1);
+		coinSlot = machine.vendingMachine.getCoinSlot();
+	}
+
+	// no credit, so the controller reports "Not enough money" without touching
+	// the rack
+	@Benchmark
+	public void pressLastButton() {
+		lastButton.press();
+	}
+
+	@Benchmark
+	public void enableCoinSlot() {
+		coinSlot.enable();
+	}
+}
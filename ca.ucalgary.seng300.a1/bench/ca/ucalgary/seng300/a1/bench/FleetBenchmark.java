@@ -0,0 +1,72 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.fleet.FleetHost;
+import ca.ucalgary.seng300.a1.fleet.FleetMachine;
+import ca.ucalgary.seng300.a1.fleet.MachineTask;
+
+/**
+ * Fleet throughput: one purchase (coin, press, collect) on every machine of a
+ * 10,000 machine fleet per invocation, for an increasing number of event loops.
+ * Throughput should grow close to linearly with the loops up to the number of
+ * cores.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetBenchmark {
+
+	private static final int MACHINES = 10000;
+
+	@Param({ "1", "2", "4", "8" })
+	public int loops;
+
+	private FleetHost fleet;
+	private MachineFixture[] fixtures;
+
+	// the same task object is reused for every submission
+	private final MachineTask purchase = new MachineTask() {
+		public void run(FleetMachine machine) throws DisabledException {
+			MachineFixture fixture = fixtures[machine.getID()];
+			fixture.insert(fixture.priceCoin);
+			machine.getVendingMachine().getSelectionButton(0).press();
+			machine.getVendingMachine().getDeliveryChute().removeItems();
+			fixture.refillIfEmpty(0);
+		}
+	};
+
+	@Setup(Level.Trial)
+	public void setup() {
+		fleet = new FleetHost(loops);
+		fixtures = new MachineFixture[MACHINES];
+		for (int i = 0; i < MACHINES; i++) {
+			fixtures[i] = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+			fleet.addMachine(fixtures[i].vendingMachine, fixtures[i].controller);
+		}
+		fleet.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		fleet.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MACHINES)
+	public void purchaseOnEveryMachine() throws InterruptedException {
+		for (int i = 0; i < MACHINES; i++) {
+			fleet.execute(i, purchase);
+		}
+		fleet.awaitQuiescence();
+	}
+}
@@ -0,0 +1,85 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.lsmr.vending.hardware.VendingMachine;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+
+/**
+ * Measures the heap each controller adds to a large fleet, and how long a full
+ * garbage collection takes with the fleet live, for controllers that keep
+ * their own state and for controllers that share one state store. Run with a
+ * large heap, e.g. -Xmx3g. Arguments: machines, "own" or "shared".
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class FleetMemoryTest {
+
+	private static final String[] NAMES = { "pop1", "pop2", "pop3", "pop4", "pop5", "pop6" };
+	private static final int[] COINS = { 5, 10, 25, 100, 200 };
+	private static final int COLLECTIONS = 5;
+
+	public static void main(String[] args) {
+		int machines = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		boolean shared = args.length > 1 && args[1].equals("shared");
+
+		List<String> names = Arrays.asList(NAMES);
+		List<Integer> costs = Arrays.asList(200, 200, 250, 250, 300, 300);
+		VendingMachine[] vendingMachines = new VendingMachine[machines];
+		for (int i = 0; i < machines; i++) {
+			vendingMachines[i] = new VendingMachine(COINS, NAMES.length, 50, 15, 100);
+			vendingMachines[i].configure(new ArrayList<String>(names), new ArrayList<Integer>(costs));
+		}
+		long hardwareHeap = usedHeap();
+		long hardwarePause = fullCollectionMillis();
+
+		MachineStateStore store = shared ? new MachineStateStore(machines, NAMES.length) : null;
+		Controller[] controllers = new Controller[machines];
+		for (int i = 0; i < machines; i++) {
+			controllers[i] = shared ? new Controller(vendingMachines[i], NAMES, store)
+					: new Controller(vendingMachines[i], NAMES);
+		}
+		long fleetHeap = usedHeap();
+		long fleetPause = fullCollectionMillis();
+
+		System.out.printf("%d machines, %s state: %d bytes per controller (%d of them state), "
+				+ "full GC %d ms with hardware only, %d ms with controllers%n", machines,
+				shared ? "shared" : "own", (fleetHeap - hardwareHeap) / machines,
+				new MachineStateStore(1, NAMES.length).getBytesPerMachine(), hardwarePause, fleetPause);
+		// keep the fleet reachable until it has been measured
+		System.out.println(controllers[machines - 1].getBalance() + vendingMachines.length - machines);
+	}
+
+	//the heap in use once garbage has been collected
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	//the average time of a full collection
+	private static long fullCollectionMillis() {
+		long before = collectionMillis();
+		for (int i = 0; i < COLLECTIONS; i++) {
+			System.gc();
+		}
+		return (collectionMillis() - before) / COLLECTIONS;
+	}
+
+	private static long collectionMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += collector.getCollectionTime();
+		}
+		return millis;
+	}
+}
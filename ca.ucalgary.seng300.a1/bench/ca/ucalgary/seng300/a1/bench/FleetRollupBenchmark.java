@@ -0,0 +1,111 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.fleet.FleetHost;
+import ca.ucalgary.seng300.a1.fleet.FleetMachine;
+import ca.ucalgary.seng300.a1.fleet.FleetTotals;
+import ca.ucalgary.seng300.a1.fleet.MachineTask;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+
+/**
+ * Fleet rollup: the time to total a 100,000 machine fleet for an increasing
+ * number of fork-join threads, with the state in one shared store or a store
+ * per controller, and with the fleet idle or selling on every machine while
+ * the totals are worked out. The time should fall close to linearly with the
+ * threads up to the number of cores.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx4g" })
+@State(Scope.Benchmark)
+public class FleetRollupBenchmark {
+
+	private static final int MACHINES = 100000;
+	private static final int RACKS = 6;
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	@Param({ "true", "false" })
+	public boolean sharedStore;
+
+	@Param({ "false", "true" })
+	public boolean selling;
+
+	private FleetHost fleet;
+	private MachineFixture[] fixtures;
+	private ForkJoinPool pool;
+	private Thread customers;
+	private volatile boolean running;
+
+	// the same task object is reused for every submission
+	private final MachineTask purchase = new MachineTask() {
+		public void run(FleetMachine machine) throws DisabledException {
+			MachineFixture fixture = fixtures[machine.getID()];
+			fixture.insert(fixture.priceCoin);
+			machine.getVendingMachine().getSelectionButton(0).press();
+			machine.getVendingMachine().getDeliveryChute().removeItems();
+			fixture.refillIfEmpty(0);
+		}
+	};
+
+	@Setup(Level.Trial)
+	public void setup() {
+		MachineStateStore store = sharedStore ? new MachineStateStore(MACHINES, RACKS) : null;
+		fleet = new FleetHost(Runtime.getRuntime().availableProcessors(), store);
+		fixtures = new MachineFixture[MACHINES];
+		for (int i = 0; i < MACHINES; i++) {
+			fixtures[i] = sharedStore ? new MachineFixture(RACKS, 5, MachineFixture.RECEPTACLE_CAPACITY, store)
+					: new MachineFixture(RACKS, 5, MachineFixture.RECEPTACLE_CAPACITY);
+			fleet.addMachine(fixtures[i].vendingMachine, fixtures[i].controller);
+		}
+		fleet.start();
+		pool = new ForkJoinPool(threads);
+
+		if (selling) {
+			// a purchase on every machine, over and over, until the trial ends
+			running = true;
+			customers = new Thread(new Runnable() {
+				public void run() {
+					try {
+						while (running) {
+							for (int i = 0; i < MACHINES; i++) {
+								fleet.execute(i, purchase);
+							}
+							fleet.awaitQuiescence();
+						}
+					} catch (InterruptedException e) {
+						// stopped
+					}
+				}
+			}, "customers");
+			customers.setDaemon(true);
+			customers.start();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		running = false;
+		if (customers != null) {
+			customers.join();
+		}
+		pool.shutdown();
+		fleet.shutdown();
+	}
+
+	@Benchmark
+	public FleetTotals rollup() {
+		return fleet.rollup(pool);
+	}
+}
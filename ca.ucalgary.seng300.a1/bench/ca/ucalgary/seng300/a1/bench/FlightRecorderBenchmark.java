@@ -0,0 +1,51 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.metrics.FlightRecorder;
+
+/**
+ * Cost of keeping the last events in a flight recorder, on its own and on the
+ * coin path compared with the same path without a recorder. Run with
+ * -prof gc to check that recording does not allocate.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlightRecorderBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean recorded;
+
+	private MachineFixture machine;
+	private final FlightRecorder recorder = new FlightRecorder(1024);
+
+	@Setup(Level.Trial)
+	public void setup() {
+		machine = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		if (recorded) {
+			machine.controller.setFlightRecorder(new FlightRecorder(1024));
+		}
+	}
+
+	@Benchmark
+	public void record() {
+		recorder.record(EventType.COIN_ACCEPTED, 0, 5, 100);
+	}
+
+	@Benchmark
+	public int coinInsertion() throws DisabledException {
+		machine.insert(machine.smallCoin);
+		return machine.controller.getBalance();
+	}
+}
@@ -0,0 +1,69 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.journal.EventJournal;
+
+/**
+ * Cost of journaling on the coin and purchase paths, compared with the same
+ * paths without a journal
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JournalBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean journaled;
+
+	@Param({ "64", "4096" })
+	public int groupCommitSize;
+
+	private MachineFixture machine;
+	private EventJournal journal;
+	private File journalFile;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		machine = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		if (journaled) {
+			journalFile = File.createTempFile("controller", ".journal");
+			journal = new EventJournal(journalFile, 1 << 20, groupCommitSize);
+			machine.controller.setJournal(journal);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		if (journal != null) {
+			journal.close();
+			journalFile.delete();
+		}
+	}
+
+	@Benchmark
+	public int coinInsertion() throws DisabledException {
+		machine.insert(machine.smallCoin);
+		return machine.controller.getBalance();
+	}
+
+	@Benchmark
+	public int successfulPurchase() throws DisabledException {
+		machine.insert(machine.priceCoin);
+		machine.vendingMachine.getSelectionButton(0).press();
+		machine.vendingMachine.getDeliveryChute().removeItems();
+		machine.refillIfEmpty(0);
+		return machine.controller.getBalance();
+	}
+}
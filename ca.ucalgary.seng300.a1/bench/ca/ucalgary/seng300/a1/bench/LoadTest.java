@@ -0,0 +1,38 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import ca.ucalgary.seng300.a1.fleet.FleetHost;
+import ca.ucalgary.seng300.a1.load.LoadGenerator;
+import ca.ucalgary.seng300.a1.load.LoadProfile;
+
+/**
+ * Runs the load generator against a fleet and prints the report. Arguments:
+ * machines, loops, customers, arrivals per second.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class LoadTest {
+
+	public static void main(String[] args) throws InterruptedException {
+		int machines = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int loops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int customers = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+		double rate = args.length > 3 ? Double.parseDouble(args[3]) : 50000;
+
+		FleetHost fleet = new FleetHost(loops);
+		for (int i = 0; i < machines; i++) {
+			MachineFixture fixture = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+			fleet.addMachine(fixture.vendingMachine, fixture.controller);
+		}
+		fleet.start();
+
+		LoadProfile profile = new LoadProfile();
+		profile.setCustomers(customers);
+		profile.setArrivalsPerSecond(rate);
+		profile.setProductWeights(5, 3, 2);
+		profile.setCoins(200, 100, 25, 10, 5);
+
+		System.out.print(new LoadGenerator(profile).run(fleet));
+		fleet.shutdown();
+	}
+}
@@ -0,0 +1,131 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.ArrayList;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+
+/**
+ * Builds vending machines with a controller attached for the benchmarks
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class MachineFixture {
+
+	/** The price of every pop, also the value of the largest coin */
+	public static final int PRICE = 200;
+
+	/** Coin kinds to pick from, largest first so the price is always a coin */
+	private static final int[] DENOMINATIONS = { 200, 100, 25, 10, 5, 1, 2, 50, 500, 1000 };
+
+	public static final int COIN_RACK_CAPACITY = 200;
+	public static final int POP_CAN_RACK_CAPACITY = 10;
+	public static final int RECEPTACLE_CAPACITY = 200;
+
+	public final VendingMachine vendingMachine;
+	public final Controller controller;
+	public final Coin priceCoin = new Coin(PRICE);
+	public final Coin smallCoin;
+
+	private final PopCan[][] cans;
+	private int coinsInReceptacle = 0;
+
+	/**
+	 * Creates a machine with all racks loaded
+	 *
+	 * @param racks
+	 *            the number of selections
+	 * @param coinKinds
+	 *            the number of coin kinds the machine accepts
+	 * @param receptacleCapacity
+	 *            the capacity of the coin receptacle and delivery chute
+	 */
+	public MachineFixture(int racks, int coinKinds, int receptacleCapacity) {
+		this(racks, coinKinds, receptacleCapacity, new MachineStateStore(1, racks));
+	}
+
+	/**
+	 * Creates a machine with all racks loaded, keeping the controller state in
+	 * a shared store
+	 *
+	 * @param racks
+	 *            the number of selections
+	 * @param coinKinds
+	 *            the number of coin kinds the machine accepts
+	 * @param receptacleCapacity
+	 *            the capacity of the coin receptacle and delivery chute
+	 * @param store
+	 *            the store, with a free slot
+	 */
+	public MachineFixture(int racks, int coinKinds, int receptacleCapacity, MachineStateStore store) {
+		int[] validCoins = new int[coinKinds];
+		for (int i = 0; i < coinKinds; i++) {
+			validCoins[i] = DENOMINATIONS[i];
+		}
+		smallCoin = new Coin(validCoins[coinKinds - 1]);
+
+		ArrayList<String> names = new ArrayList<String>();
+		ArrayList<Integer> costs = new ArrayList<Integer>();
+		for (int i = 0; i < racks; i++) {
+			names.add("pop" + i);
+			costs.add(PRICE);
+		}
+
+		vendingMachine = new VendingMachine(validCoins, racks, COIN_RACK_CAPACITY, POP_CAN_RACK_CAPACITY,
+				receptacleCapacity);
+		vendingMachine.configure(names, costs);
+		controller = new Controller(vendingMachine, names.toArray(new String[racks]), store);
+
+		cans = new PopCan[racks][POP_CAN_RACK_CAPACITY];
+		for (int i = 0; i < racks; i++) {
+			for (int j = 0; j < POP_CAN_RACK_CAPACITY; j++) {
+				cans[i][j] = new PopCan(names.get(i));
+			}
+			refill(i);
+		}
+	}
+
+	/**
+	 * Inserts a coin, emptying the coin receptacle first if it would overflow
+	 *
+	 * @param coin
+	 *            the coin to insert
+	 * @throws DisabledException
+	 *             if the coin slot is disabled
+	 */
+	public void insert(Coin coin) throws DisabledException {
+		if (coinsInReceptacle == RECEPTACLE_CAPACITY) {
+			vendingMachine.getCoinReceptacle().unload();
+			coinsInReceptacle = 0;
+		}
+		vendingMachine.getCoinSlot().addCoin(coin);
+		coinsInReceptacle++;
+	}
+
+	/**
+	 * Loads a rack back to capacity once it has run empty
+	 *
+	 * @param rackID
+	 *            the rack to check
+	 */
+	public void refillIfEmpty(int rackID) {
+		if (vendingMachine.getPopCanRack(rackID).size() == 0) {
+			refill(rackID);
+		}
+	}
+
+	/**
+	 * Loads a rack to capacity
+	 *
+	 * @param rackID
+	 *            an empty rack
+	 */
+	public void refill(int rackID) {
+		vendingMachine.getPopCanRack(rackID).load(cans[rackID]);
+	}
+}
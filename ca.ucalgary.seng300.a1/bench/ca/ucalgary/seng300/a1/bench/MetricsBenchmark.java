@@ -0,0 +1,58 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.metrics.LatencyHistogram;
+import ca.ucalgary.seng300.a1.metrics.MetricsRegistry;
+
+/**
+ * Cost of recording metrics, on its own and on the coin and refused purchase
+ * paths compared with the same paths without metrics
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean recorded;
+
+	private MachineFixture machine;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private long latency = 0;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		machine = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		if (recorded) {
+			machine.controller.setMetrics(new MetricsRegistry());
+		}
+	}
+
+	@Benchmark
+	public void histogramRecord() {
+		histogram.record(latency);
+		latency = (latency + 97) & 0xFFFF;
+	}
+
+	@Benchmark
+	public int coinInsertion() throws DisabledException {
+		machine.insert(machine.smallCoin);
+		return machine.controller.getBalance();
+	}
+
+	@Benchmark
+	public int insufficientFundsPress() {
+		machine.vendingMachine.getSelectionButton(0).press();
+		return machine.controller.getLastMessageCode();
+	}
+}
@@ -0,0 +1,67 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.trace.ReplayResult;
+import ca.ucalgary.seng300.a1.trace.TraceReplayer;
+
+/**
+ * Replays a trace several times and prints the events per second of each run.
+ * With no trace file, traces a session of random customers first. Arguments:
+ * trace file, runs, customers.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class ReplayTest {
+
+	public static void main(String[] args) throws IOException {
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		File traceFile;
+		if (args.length > 0 && !args[0].isEmpty()) {
+			traceFile = new File(args[0]);
+		} else {
+			int customers = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+			traceFile = File.createTempFile("controller", ".trace");
+			traceFile.deleteOnExit();
+			traceSession(traceFile, customers);
+		}
+
+		TraceReplayer replayer = new TraceReplayer(traceFile);
+		System.out.println(replayer.getRecords() + " records in " + traceFile);
+		for (int i = 0; i < runs; i++) {
+			ReplayResult result = replayer.replay();
+			System.out.println(result);
+		}
+	}
+
+	//traces customers paying for a pop in small coins and taking it
+	private static void traceSession(File traceFile, int customers) throws IOException {
+		// the receptacle is not emptied, as that is not traced
+		int coins = customers * MachineFixture.PRICE / 25;
+		MachineFixture machine = new MachineFixture(3, 5, coins + 1);
+		Random random = new Random(42);
+		Coin quarter = new Coin(25);
+		machine.controller.startTrace(traceFile);
+		try {
+			for (int i = 0; i < customers; i++) {
+				int rack = random.nextInt(3);
+				for (int paid = 0; paid < MachineFixture.PRICE; paid += 25) {
+					machine.vendingMachine.getCoinSlot().addCoin(quarter);
+				}
+				machine.vendingMachine.getSelectionButton(rack).press();
+				machine.vendingMachine.getDeliveryChute().removeItems();
+				machine.refillIfEmpty(rack);
+			}
+		} catch (DisabledException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			machine.controller.stopTrace();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.journal.EventJournal;
+import ca.ucalgary.seng300.a1.journal.StateSnapshot;
+
+/**
+ * Time to restart a controller after a year of history: roughly 300 sales and
+ * 900 coins a day. With checkpoints only the snapshot and the short journal
+ * tail are read; without them the whole journal is replayed.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RestartBenchmark {
+
+	private static final int DAYS = 365;
+	private static final int SALES_PER_DAY = 300;
+
+	@Param({ "false", "true" })
+	public boolean checkpoints;
+
+	private File directory;
+	private File journalFile;
+	private File snapshotFile;
+
+	@Setup(Level.Trial)
+	public void writeHistory() throws IOException, DisabledException {
+		directory = File.createTempFile("restart", "");
+		directory.delete();
+		directory.mkdir();
+		journalFile = new File(directory, "controller.journal");
+		snapshotFile = new File(directory, "controller.snapshot");
+
+		MachineFixture machine = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		EventJournal journal = new EventJournal(journalFile, 1 << 16, 4096);
+		machine.controller.setJournal(journal);
+		if (checkpoints) {
+			machine.controller.setCheckpoint(snapshotFile, 10000);
+		}
+
+		for (int i = 0; i < DAYS * SALES_PER_DAY; i++) {
+			machine.insert(machine.smallCoin);
+			machine.insert(machine.smallCoin);
+			machine.insert(machine.priceCoin);
+			machine.vendingMachine.getSelectionButton(i % 3).press();
+			machine.vendingMachine.getDeliveryChute().removeItems();
+			machine.refillIfEmpty(i % 3);
+		}
+		journal.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public int restart() throws IOException {
+		MachineFixture machine = new MachineFixture(3, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		EventJournal journal = new EventJournal(journalFile, 1 << 16, 4096);
+		try {
+			if (checkpoints) {
+				machine.controller.recover(StateSnapshot.read(snapshotFile), journal);
+			} else {
+				machine.controller.recover(journal);
+			}
+			return machine.controller.getBalance();
+		} finally {
+			journal.close();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+
+/**
+ * Cost of restocking every rack of an empty machine: cans added one at a time
+ * with each handled by the controller, cans added one at a time and coalesced
+ * by the listeners, and one bulk load per rack
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RestockBenchmark {
+
+	private static final int RACKS = 6;
+
+	@Param({ "10", "100" })
+	public int rackCapacity;
+
+	private VendingMachine vendingMachine;
+	private Controller controller;
+	private PopCan[] cans;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		ArrayList<String> names = new ArrayList<String>();
+		ArrayList<Integer> costs = new ArrayList<Integer>();
+		cans = new PopCan[RACKS];
+		for (int i = 0; i < RACKS; i++) {
+			names.add("pop" + i);
+			costs.add(MachineFixture.PRICE);
+			cans[i] = new PopCan(names.get(i));
+		}
+		vendingMachine = new VendingMachine(new int[] { 200, 100, 25 }, RACKS, 200, rackCapacity, 200);
+		vendingMachine.configure(names, costs);
+		controller = new Controller(vendingMachine, names.toArray(new String[RACKS]));
+	}
+
+	@Setup(Level.Invocation)
+	public void empty() {
+		for (int i = 0; i < RACKS; i++) {
+			vendingMachine.getPopCanRack(i).unload();
+		}
+	}
+
+	@Benchmark
+	public int perCan() throws DisabledException, CapacityExceededException {
+		for (int i = 0; i < RACKS; i++) {
+			PopCanRack rack = vendingMachine.getPopCanRack(i);
+			for (int j = 0; j < rackCapacity; j++) {
+				rack.acceptPopCan(cans[i]);
+			}
+		}
+		return controller.getInventory(0);
+	}
+
+	@Benchmark
+	public int coalesced() throws DisabledException, CapacityExceededException {
+		controller.beginRestock();
+		perCan();
+		controller.endRestock();
+		return controller.getInventory(0);
+	}
+
+	@Benchmark
+	public int bulk() {
+		return controller.restockAll();
+	}
+}
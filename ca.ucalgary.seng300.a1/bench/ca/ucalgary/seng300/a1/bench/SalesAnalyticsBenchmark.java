@@ -0,0 +1,82 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.logic.TimeSource;
+import ca.ucalgary.seng300.a1.metrics.SalesAnalytics;
+
+/**
+ * Cost of counting sales in the sliding windows: recording a sale, querying a
+ * rack and the whole machine, and a purchase with and without the analytics
+ * attached
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SalesAnalyticsBenchmark {
+
+	@Param({ "6", "100" })
+	public int racks;
+
+	@Param({ "false", "true" })
+	public boolean attached;
+
+	// one sale a second of simulated time, so every sale moves the 5 minute
+	// window on a bucket
+	private long now = 0;
+	private final TimeSource clock = new TimeSource() {
+		@Override
+		public long currentTimeMillis() {
+			return now;
+		}
+	};
+
+	private SalesAnalytics sales;
+	private MachineFixture machine;
+	private int rack = 0;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		sales = new SalesAnalytics(racks, clock);
+		machine = new MachineFixture(racks, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		if (attached) {
+			machine.controller.setSalesAnalytics(new SalesAnalytics(racks, clock));
+		}
+	}
+
+	@Benchmark
+	public void recordSale() {
+		now += 1000;
+		sales.recordSale(rack, MachineFixture.PRICE);
+		rack = rack + 1 == racks ? 0 : rack + 1;
+	}
+
+	@Benchmark
+	public long rackQuery() {
+		return sales.getRevenue(1, 0);
+	}
+
+	@Benchmark
+	public long machineQuery() {
+		return sales.getMachineRevenue(2);
+	}
+
+	@Benchmark
+	public int successfulPurchase() throws DisabledException {
+		now += 1000;
+		machine.insert(machine.priceCoin);
+		machine.vendingMachine.getSelectionButton(0).press();
+		machine.vendingMachine.getDeliveryChute().removeItems();
+		machine.refillIfEmpty(0);
+		return machine.controller.getBalance();
+	}
+}
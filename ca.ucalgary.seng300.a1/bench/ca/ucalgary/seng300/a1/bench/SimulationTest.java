@@ -0,0 +1,41 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.List;
+
+import ca.ucalgary.seng300.a1.sim.SimulationProfile;
+import ca.ucalgary.seng300.a1.sim.SimulationReport;
+import ca.ucalgary.seng300.a1.sim.SimulationRunner;
+
+/**
+ * Simulates a machine with several seeds in parallel and prints each report.
+ * Arguments: seeds, days, customers per hour, threads.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class SimulationTest {
+
+	public static void main(String[] args) throws InterruptedException {
+		int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		SimulationProfile profile = new SimulationProfile();
+		profile.setDays(args.length > 1 ? Integer.parseInt(args[1]) : 30);
+		profile.setCustomersPerHour(args.length > 2 ? Double.parseDouble(args[2]) : 3);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		long[] seedList = new long[seeds];
+		for (int i = 0; i < seeds; i++) {
+			seedList[i] = i + 1;
+		}
+		long start = System.nanoTime();
+		List<SimulationReport> reports = new SimulationRunner(threads).run(profile, seedList);
+		long elapsed = System.nanoTime() - start;
+
+		long actions = 0;
+		for (SimulationReport report : reports) {
+			System.out.print(report);
+			actions += report.getActions();
+		}
+		System.out.printf("%d seeds on %d threads in %.1f ms, %.0f actions/s%n", seeds, threads, elapsed / 1e6,
+				actions * 1e9 / elapsed);
+	}
+}
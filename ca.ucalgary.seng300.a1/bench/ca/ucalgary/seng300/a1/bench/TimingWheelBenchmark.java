@@ -0,0 +1,112 @@
+package ca.ucalgary.seng300.a1.bench;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.lsmr.vending.hardware.*;
+import org.openjdk.jmh.annotations.*;
+
+import ca.ucalgary.seng300.a1.timer.Timeout;
+import ca.ucalgary.seng300.a1.timer.TimeoutTask;
+import ca.ucalgary.seng300.a1.timer.TimingWheel;
+
+/**
+ * Cost of putting off one of 100,000 waiting session timeouts, as a controller
+ * does on every coin and press, in the timing wheel and by cancelling and
+ * rescheduling a task on a scheduled executor; cost of a tick of the wheel;
+ * and a coin with and without a session timeout
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimingWheelBenchmark {
+
+	private static final int SESSIONS = 100000;
+	private static final long SESSION_MILLIS = 30000;
+
+	private final Random random = new Random(24);
+	private final TimeoutTask nothing = new TimeoutTask() {
+		public void expired(Timeout timeout) {
+		}
+	};
+	private final Runnable nothingToRun = new Runnable() {
+		public void run() {
+		}
+	};
+
+	private long now = 0;
+	private TimingWheel wheel;
+	private Timeout[] timeouts;
+	private ScheduledThreadPoolExecutor executor;
+	private ScheduledFuture<?>[] futures;
+	private int next = 0;
+
+	private MachineFixture plain;
+	private MachineFixture timed;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		wheel = new TimingWheel(TimingWheel.DEFAULT_TICK_MILLIS, now);
+		timeouts = new Timeout[SESSIONS];
+		executor = new ScheduledThreadPoolExecutor(1);
+		executor.setRemoveOnCancelPolicy(true);
+		futures = new ScheduledFuture<?>[SESSIONS];
+		for (int i = 0; i < SESSIONS; i++) {
+			long delay = 1 + random.nextInt((int) SESSION_MILLIS);
+			timeouts[i] = wheel.schedule(nothing, delay);
+			futures[i] = executor.schedule(nothingToRun, delay + 3600000, TimeUnit.MILLISECONDS);
+		}
+
+		plain = new MachineFixture(6, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		timed = new MachineFixture(6, 5, MachineFixture.RECEPTACLE_CAPACITY);
+		timed.controller.setSessionTimeout(wheel, SESSION_MILLIS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Benchmark
+	public void extendInWheel() {
+		wheel.schedule(timeouts[next], SESSION_MILLIS);
+		next = next + 1 == SESSIONS ? 0 : next + 1;
+	}
+
+	@Benchmark
+	public void extendInExecutor() {
+		futures[next].cancel(false);
+		futures[next] = executor.schedule(nothingToRun, SESSION_MILLIS + 3600000, TimeUnit.MILLISECONDS);
+		next = next + 1 == SESSIONS ? 0 : next + 1;
+	}
+
+	@Benchmark
+	public int tick() {
+		now += TimingWheel.DEFAULT_TICK_MILLIS;
+		int expired = wheel.advance(now);
+		// keep the wheel full
+		for (int i = 0; i < expired; i++) {
+			wheel.schedule(timeouts[next], SESSION_MILLIS);
+			next = next + 1 == SESSIONS ? 0 : next + 1;
+		}
+		return expired;
+	}
+
+	@Benchmark
+	public void coin() throws DisabledException {
+		plain.insert(plain.smallCoin);
+	}
+
+	@Benchmark
+	public void coinWithSession() throws DisabledException {
+		timed.insert(timed.smallCoin);
+	}
+}
@@ -0,0 +1,261 @@
+package ca.ucalgary.seng300.a1.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.HardwareEventHandler;
+
+/**
+ * Hands hardware events from the listeners to a controller thread, so that a
+ * hardware callback such as a coin being inserted returns as soon as the
+ * event is queued instead of waiting for the controller to journal, record
+ * and act on it.
+ *
+ * Events are written into a preallocated ring of primitive slots, so queuing
+ * one allocates nothing and takes no lock. There is a single producer: events
+ * must come from one hardware thread at a time. The controller thread takes
+ * events in batches and only tells the hardware thread which slots are free
+ * once per batch. Events caused by the controller itself, e.g. a can removed
+ * by a purchase, arrive on the controller thread and are handled at once, so
+ * the controller sees them in the same order as when it is called directly.
+ *
+ * While running, the controller acts on the hardware from its own thread, and
+ * its state should only be read after {@link #awaitIdle()}. Calls made
+ * directly on the controller, e.g. {@link Controller#returnChange()}, must not
+ * overlap with queued events.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class AsyncEventHandler implements HardwareEventHandler {
+
+	private static final EventType[] TYPES = EventType.values();
+
+	private final Controller controller;
+	private final WaitStrategy waitStrategy;
+	private final int maxBatch;
+
+	// the ring
+	private final int mask;
+	private final byte[] types;
+	private final int[] ids;
+	private final int[] values;
+
+	// written by the hardware thread
+	private final AtomicLong published = new AtomicLong(-1);
+	private long claimed = -1;
+	private long cachedHandled = -1;
+	private long producerStalls = 0;
+
+	// written by the controller thread
+	private final AtomicLong handled = new AtomicLong(-1);
+	private long batches = 0;
+	private long errors = 0;
+	private volatile RuntimeException lastError;
+
+	private volatile boolean running = false;
+	private Thread thread;
+
+	/**
+	 * @param controller
+	 *            the controller to hand events to
+	 * @param capacity
+	 *            the number of events the ring holds, a power of two
+	 * @param waitStrategy
+	 *            how the controller thread waits for events
+	 * @param maxBatch
+	 *            the most events handled before freeing their slots
+	 */
+	public AsyncEventHandler(Controller controller, int capacity, WaitStrategy waitStrategy, int maxBatch) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		if (maxBatch < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+		}
+		this.controller = controller;
+		this.waitStrategy = waitStrategy;
+		this.maxBatch = maxBatch;
+		mask = capacity - 1;
+		types = new byte[capacity];
+		ids = new int[capacity];
+		values = new int[capacity];
+	}
+
+	/**
+	 * Starts the controller thread and sends the controller's events through
+	 * the ring
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			throw new IllegalStateException("Already started");
+		}
+		running = true;
+		thread = new Thread(new Runnable() {
+			public void run() {
+				consume();
+			}
+		}, "controller-events");
+		thread.setDaemon(true);
+		thread.start();
+		controller.setEventHandler(this);
+	}
+
+	/**
+	 * Handles the events already queued, stops the controller thread and has
+	 * the listeners call the controller directly again
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the controller thread
+	 */
+	public synchronized void stop() throws InterruptedException {
+		if (thread == null) {
+			return;
+		}
+		controller.setEventHandler(null);
+		awaitIdle();
+		running = false;
+		waitStrategy.signal();
+		thread.interrupt();
+		thread.join();
+		thread = null;
+	}
+
+	/**
+	 * Queues an event for the controller thread, or handles it at once if
+	 * called on the controller thread. Waits for a free slot if the ring is
+	 * full.
+	 */
+	public void handleEvent(EventType type, int id, int value) {
+		if (Thread.currentThread() == thread) {
+			controller.handleEvent(type, id, value);
+			return;
+		}
+
+		long next = claimed + 1;
+		long wrapPoint = next - types.length;
+		if (wrapPoint > cachedHandled) {
+			// only look at the controller's progress when the ring might be full
+			cachedHandled = handled.get();
+			while (wrapPoint > cachedHandled) {
+				producerStalls++;
+				LockSupport.parkNanos(1);
+				cachedHandled = handled.get();
+			}
+		}
+
+		int slot = (int) next & mask;
+		types[slot] = (byte) type.ordinal();
+		ids[slot] = id;
+		values[slot] = value;
+		claimed = next;
+		published.set(next);
+		waitStrategy.signal();
+	}
+
+	/**
+	 * Waits until the controller thread has handled every event queued so far
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public void awaitIdle() throws InterruptedException {
+		if (Thread.currentThread() == thread) {
+			return;
+		}
+		long target = published.get();
+		while (handled.get() < target) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			Thread.yield();
+		}
+	}
+
+	// the controller thread: takes events in batches until stopped
+	private void consume() {
+		long next = handled.get() + 1;
+		while (running) {
+			long available = published.get();
+			if (available < next) {
+				try {
+					available = waitStrategy.waitFor(next, published);
+				} catch (InterruptedException e) {
+					continue;
+				}
+				if (available < next) {
+					continue;
+				}
+			}
+
+			long end = Math.min(available, next + maxBatch - 1);
+			for (long sequence = next; sequence <= end; sequence++) {
+				int slot = (int) sequence & mask;
+				try {
+					controller.handleEvent(TYPES[types[slot]], ids[slot], values[slot]);
+				} catch (RuntimeException e) {
+					// the flight recorder has the details; keep handling events
+					errors++;
+					lastError = e;
+				}
+			}
+			batches++;
+			handled.lazySet(end);
+			next = end + 1;
+		}
+	}
+
+	/**
+	 * @return the number of events queued
+	 */
+	public long getPublished() {
+		return published.get() + 1;
+	}
+
+	/**
+	 * @return the number of queued events the controller thread has handled
+	 */
+	public long getHandled() {
+		return handled.get() + 1;
+	}
+
+	/**
+	 * @return the number of batches the controller thread has handled, read
+	 *         after {@link #stop()}
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return the number of times the hardware thread found the ring full,
+	 *         read on the hardware thread
+	 */
+	public long getProducerStalls() {
+		return producerStalls;
+	}
+
+	/**
+	 * @return the number of events whose handling threw, read after
+	 *         {@link #stop()}
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * @return the last exception thrown while handling an event, or null
+	 */
+	public RuntimeException getLastError() {
+		return lastError;
+	}
+
+	/**
+	 * @return the number of events the ring holds
+	 */
+	public int getCapacity() {
+		return types.length;
+	}
+}
@@ -0,0 +1,56 @@
+package ca.ucalgary.seng300.a1.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Parks the controller thread until the hardware thread signals an event.
+ * Uses no CPU while idle. The hardware thread only takes the lock when the
+ * controller thread is actually parked, so a busy machine does not pay for it.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+
+	// the longest wait before looking again, so a stop is never missed
+	private static final long MAX_WAIT_MILLIS = 10;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition published = lock.newCondition();
+	private volatile boolean waiting = false;
+
+	public long waitFor(long sequence, AtomicLong published) throws InterruptedException {
+		long available = published.get();
+		if (available >= sequence) {
+			return available;
+		}
+		lock.lock();
+		try {
+			// set before looking again, so a publish either is seen or signals
+			waiting = true;
+			available = published.get();
+			if (available < sequence) {
+				this.published.await(MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+				available = published.get();
+			}
+		} finally {
+			waiting = false;
+			lock.unlock();
+		}
+		return available;
+	}
+
+	public void signal() {
+		if (waiting) {
+			lock.lock();
+			try {
+				published.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
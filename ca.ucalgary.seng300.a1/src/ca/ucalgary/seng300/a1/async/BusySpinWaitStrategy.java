@@ -0,0 +1,27 @@
+package ca.ucalgary.seng300.a1.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spins on the published sequence. Notices events soonest but keeps a core
+ * busy, so only suits a machine with a core to spare for the controller.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+	private static final int SPINS = 1 << 12;
+
+	public long waitFor(long sequence, AtomicLong published) {
+		long available = published.get();
+		for (int i = 0; i < SPINS && available < sequence; i++) {
+			available = published.get();
+		}
+		return available;
+	}
+
+	public void signal() {
+		// the controller thread is always looking
+	}
+}
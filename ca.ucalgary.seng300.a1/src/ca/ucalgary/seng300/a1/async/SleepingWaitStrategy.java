@@ -0,0 +1,58 @@
+package ca.ucalgary.seng300.a1.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins, then yields, then sleeps for short periods while waiting. Uses
+ * little CPU when the machine is idle at the cost of noticing the first event
+ * after a quiet period later.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class SleepingWaitStrategy implements WaitStrategy {
+
+	private static final int SPINS = 100;
+	private static final int YIELDS = 100;
+
+	private final long sleepNanos;
+
+	/**
+	 * Sleeps for 100 microseconds at a time
+	 */
+	public SleepingWaitStrategy() {
+		this(100000);
+	}
+
+	/**
+	 * @param sleepNanos
+	 *            the time to sleep between looks once spinning and yielding
+	 *            have not found an event
+	 */
+	public SleepingWaitStrategy(long sleepNanos) {
+		this.sleepNanos = sleepNanos;
+	}
+
+	public long waitFor(long sequence, AtomicLong published) throws InterruptedException {
+		long available = published.get();
+		for (int i = 0; i < SPINS + YIELDS && available < sequence; i++) {
+			if (i >= SPINS) {
+				Thread.yield();
+			}
+			available = published.get();
+		}
+		while (available < sequence) {
+			LockSupport.parkNanos(sleepNanos);
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			available = published.get();
+		}
+		return available;
+	}
+
+	public void signal() {
+		// the controller thread wakes up on its own
+	}
+}
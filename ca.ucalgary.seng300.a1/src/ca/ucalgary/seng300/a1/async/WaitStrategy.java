@@ -0,0 +1,33 @@
+package ca.ucalgary.seng300.a1.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How the controller thread waits for the hardware to publish more events.
+ * Strategies trade the latency of noticing a new event against the CPU used
+ * while there is nothing to do.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface WaitStrategy {
+
+	/**
+	 * Waits for an event to be published. May return early, e.g. after a
+	 * timeout, so the caller must check the result.
+	 *
+	 * @param sequence
+	 *            the sequence number of the event wanted
+	 * @param published
+	 *            the sequence number of the last event published
+	 * @return the sequence number of the last event published
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public long waitFor(long sequence, AtomicLong published) throws InterruptedException;
+
+	/**
+	 * Called by the hardware thread after publishing an event
+	 */
+	public void signal();
+}
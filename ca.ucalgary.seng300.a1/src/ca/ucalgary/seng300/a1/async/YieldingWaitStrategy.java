@@ -0,0 +1,31 @@
+package ca.ucalgary.seng300.a1.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spins briefly and then yields the core while waiting, so the hardware
+ * thread can run even when the two share a core
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class YieldingWaitStrategy implements WaitStrategy {
+
+	private static final int SPINS = 100;
+
+	public long waitFor(long sequence, AtomicLong published) {
+		long available = published.get();
+		for (int i = 0; i < SPINS && available < sequence; i++) {
+			available = published.get();
+		}
+		if (available < sequence) {
+			Thread.yield();
+			available = published.get();
+		}
+		return available;
+	}
+
+	public void signal() {
+		// the controller thread is never parked
+	}
+}
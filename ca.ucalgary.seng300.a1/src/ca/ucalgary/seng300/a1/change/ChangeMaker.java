@@ -0,0 +1,283 @@
+package ca.ucalgary.seng300.a1.change;
+
+import java.util.Arrays;
+
+/**
+ * Works out the fewest coins that make up an amount of change, using only the
+ * coins that are in the coin racks.
+ *
+ * For every set of non-empty racks a table is built the first time that set is
+ * seen, giving the first coin of a minimum-coin solution for every amount when
+ * each of those denominations is unlimited. Making change walks that table, so
+ * it takes one step per coin returned. The walk is optimal whenever the racks
+ * hold enough of each coin it picks; only when a rack would run short does it
+ * fall back to a search that respects the exact rack counts.
+ *
+ * The counts are kept up to date by the caller as coins are added and removed,
+ * and a rack only changes which table is used when it runs empty or stops being
+ * empty. Not thread safe; each machine has its own change maker.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class ChangeMaker {
+
+	/** The most denominations supported, one table per subset of them */
+	public static final int MAX_DENOMINATIONS = 16;
+
+	private static final byte NO_COIN = -1;
+
+	private final int[] denominations;
+	private final int[] counts;
+	private final boolean[] disabled;
+
+	// racks that have coins and are enabled, one bit per rack
+	private int available = 0;
+
+	// first coin for each amount, one table per set of available racks
+	private byte[][] tables;
+	private int tableLimit;
+
+	// scratch space for building tables, only allocated once one is built
+	private int[] coinsNeeded;
+
+	/**
+	 * @param denominations
+	 *            the value of the coins in each rack, in rack order
+	 * @param tableLimit
+	 *            the largest amount the tables cover to begin with; they grow
+	 *            when a larger amount is asked for
+	 */
+	public ChangeMaker(int[] denominations, int tableLimit) {
+		if (denominations.length > MAX_DENOMINATIONS) {
+			throw new IllegalArgumentException("At most " + MAX_DENOMINATIONS + " denominations are supported");
+		}
+		for (int value : denominations) {
+			if (value <= 0) {
+				throw new IllegalArgumentException("Coin values must be positive: " + value);
+			}
+		}
+		this.denominations = denominations.clone();
+		counts = new int[denominations.length];
+		disabled = new boolean[denominations.length];
+		resize(Math.max(tableLimit, 1));
+	}
+
+	/**
+	 * Sets the number of coins in a rack
+	 *
+	 * @param rack
+	 *            the rack
+	 * @param count
+	 *            the number of coins in the rack
+	 */
+	public void setCount(int rack, int count) {
+		counts[rack] = count;
+		updateAvailable(rack);
+	}
+
+	/**
+	 * Adds coins to, or removes them from, the count of a rack
+	 *
+	 * @param rack
+	 *            the rack
+	 * @param delta
+	 *            the number of coins added, negative if coins were removed
+	 */
+	public void add(int rack, int delta) {
+		counts[rack] += delta;
+		updateAvailable(rack);
+	}
+
+	/**
+	 * Stops or resumes using a rack to make change
+	 *
+	 * @param rack
+	 *            the rack
+	 * @param isDisabled
+	 *            true if coins cannot be released from the rack
+	 */
+	public void setDisabled(int rack, boolean isDisabled) {
+		disabled[rack] = isDisabled;
+		updateAvailable(rack);
+	}
+
+	private void updateAvailable(int rack) {
+		if (counts[rack] > 0 && !disabled[rack]) {
+			available |= 1 << rack;
+		} else {
+			available &= ~(1 << rack);
+		}
+	}
+
+	/**
+	 * @param rack
+	 *            the rack
+	 * @return the number of coins in the rack
+	 */
+	public int getCount(int rack) {
+		return counts[rack];
+	}
+
+	/**
+	 * @return the number of denominations
+	 */
+	public int getNumberOfDenominations() {
+		return denominations.length;
+	}
+
+	/**
+	 * @param rack
+	 *            the rack
+	 * @return the value of the coins in the rack
+	 */
+	public int getDenomination(int rack) {
+		return denominations[rack];
+	}
+
+	/**
+	 * Works out the fewest coins that make up an amount from the coins in the
+	 * racks. The counts are not changed; they change when the coins are
+	 * released.
+	 *
+	 * @param amount
+	 *            the change owed
+	 * @param plan
+	 *            filled with the number of coins to release from each rack
+	 * @return true if the amount can be made exactly, false if not, in which
+	 *         case the plan is all zeroes
+	 */
+	public boolean makeChange(int amount, int[] plan) {
+		Arrays.fill(plan, 0);
+		if (amount <= 0) {
+			return amount == 0;
+		}
+		if (amount > tableLimit) {
+			resize(Integer.highestOneBit(amount) << 1);
+		}
+
+		byte[] table = tables[available];
+		if (table == null) {
+			table = buildTable(available);
+			tables[available] = table;
+		}
+
+		// the unlimited solution is optimal if the racks can cover it
+		int remaining = amount;
+		while (remaining > 0) {
+			int rack = table[remaining];
+			if (rack == NO_COIN) {
+				Arrays.fill(plan, 0);
+				return false;
+			}
+			if (++plan[rack] > counts[rack]) {
+				return makeChangeFromCounts(amount, plan);
+			}
+			remaining -= denominations[rack];
+		}
+		return true;
+	}
+
+	/**
+	 * Minimum-coin change from exact rack counts, used when the tables pick more
+	 * coins from a rack than it holds. Splits each rack into bundles of 1, 2, 4,
+	 * ... coins and solves it as a 0/1 knapsack.
+	 */
+	private boolean makeChangeFromCounts(int amount, int[] plan) {
+		Arrays.fill(plan, 0);
+
+		int items = 0;
+		int[] itemRack = new int[denominations.length * 32];
+		int[] itemCoins = new int[itemRack.length];
+		for (int rack = 0; rack < denominations.length; rack++) {
+			if ((available & (1 << rack)) == 0) {
+				continue;
+			}
+			int left = Math.min(counts[rack], amount / denominations[rack]);
+			for (int bundle = 1; left > 0; bundle <<= 1) {
+				int coins = Math.min(bundle, left);
+				itemRack[items] = rack;
+				itemCoins[items] = coins;
+				items++;
+				left -= coins;
+			}
+		}
+
+		int[] best = new int[amount + 1];
+		Arrays.fill(best, Integer.MAX_VALUE);
+		best[0] = 0;
+		boolean[][] taken = new boolean[items][amount + 1];
+		for (int item = 0; item < items; item++) {
+			int weight = itemCoins[item] * denominations[itemRack[item]];
+			for (int a = amount; a >= weight; a--) {
+				int from = best[a - weight];
+				if (from != Integer.MAX_VALUE && from + itemCoins[item] < best[a]) {
+					best[a] = from + itemCoins[item];
+					taken[item][a] = true;
+				}
+			}
+		}
+		if (best[amount] == Integer.MAX_VALUE) {
+			return false;
+		}
+
+		int remaining = amount;
+		for (int item = items - 1; item >= 0; item--) {
+			if (taken[item][remaining]) {
+				plan[itemRack[item]] += itemCoins[item];
+				remaining -= itemCoins[item] * denominations[itemRack[item]];
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Builds the first-coin table for a set of racks with an unlimited number
+	 * of each coin
+	 */
+	private byte[] buildTable(int racks) {
+		byte[] table = new byte[tableLimit + 1];
+		Arrays.fill(table, NO_COIN);
+		int[] needed = coinsNeeded;
+		if (needed == null) {
+			needed = new int[tableLimit + 1];
+			coinsNeeded = needed;
+		}
+		Arrays.fill(needed, Integer.MAX_VALUE);
+		needed[0] = 0;
+		for (int a = 1; a <= tableLimit; a++) {
+			for (int rack = 0; rack < denominations.length; rack++) {
+				if ((racks & (1 << rack)) == 0 || denominations[rack] > a) {
+					continue;
+				}
+				int from = needed[a - denominations[rack]];
+				if (from != Integer.MAX_VALUE && from + 1 < needed[a]) {
+					needed[a] = from + 1;
+					table[a] = (byte) rack;
+				}
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Drops the tables so they are rebuilt to cover larger amounts
+	 */
+	private void resize(int limit) {
+		tableLimit = limit;
+		tables = new byte[1 << denominations.length][];
+		coinsNeeded = null;
+	}
+
+	/**
+	 * Builds the tables for every set of racks up front, so that making change
+	 * never has to build one
+	 */
+	public void precompute() {
+		for (int racks = 0; racks < tables.length; racks++) {
+			if (tables[racks] == null) {
+				tables[racks] = buildTable(racks);
+			}
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package ca.ucalgary.seng300.a1.fleet;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.timer.Timeout;
+import ca.ucalgary.seng300.a1.timer.TimeoutTask;
+import ca.ucalgary.seng300.a1.timer.TimingWheel;
+
+/**
+ * A single thread that runs every task for the machines it owns. Because a
+ * machine is only ever touched by its owning loop, the hardware needs no
+ * locking and the controller's own lock is never contended, so taking it is
+ * one compare-and-set per event. Tasks are handed over through a lock-free
+ * queue.
+ *
+ * Each loop also has a timing wheel for the delayed tasks of its machines,
+ * e.g. refunding credit after a session goes quiet. The wheel is advanced
+ * between tasks, so timeouts run on the loop like any other task.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class EventLoop implements Runnable {
+
+	private final ConcurrentLinkedQueue<Submission> queue = new ConcurrentLinkedQueue<Submission>();
+	private final AtomicLong submitted = new AtomicLong();
+	private volatile long completed = 0;
+	private volatile long faults = 0;
+	private volatile RuntimeException lastFailure;
+	private volatile boolean running = true;
+	private volatile boolean idle = false;
+	private final Thread thread;
+
+	// delayed tasks, advanced at least every so many tasks while the loop is busy
+	private static final int TASKS_PER_TIMER_CHECK = 256;
+	private final TimingWheel timers;
+	private final long tickNanos;
+
+	/**
+	 * @param name
+	 *            the name of the loop thread
+	 * @param tickMillis
+	 *            the tick of the timing wheel in milliseconds
+	 */
+	EventLoop(String name, long tickMillis) {
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+		timers = new TimingWheel(tickMillis, now());
+		tickNanos = tickMillis * 1000000;
+	}
+
+	//the time for the timing wheel, which does not jump with the wall clock
+	private static long now() {
+		return System.nanoTime() / 1000000;
+	}
+
+	/**
+	 * Starts the loop thread
+	 */
+	void start() {
+		thread.start();
+	}
+
+	/**
+	 * Queues a task for a machine owned by this loop. May be called from any
+	 * thread.
+	 *
+	 * @param machine
+	 *            the machine
+	 * @param task
+	 *            the task to run
+	 */
+	void submit(FleetMachine machine, MachineTask task) {
+		submitted.incrementAndGet();
+		queue.offer(new Submission(machine, task));
+		if (idle) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Queues a task to run on a machine owned by this loop after a delay. May be
+	 * called from any thread.
+	 *
+	 * @param machine
+	 *            the machine
+	 * @param task
+	 *            the task to run
+	 * @param delayMillis
+	 *            the delay in milliseconds
+	 */
+	void schedule(FleetMachine machine, final MachineTask task, final long delayMillis) {
+		submit(machine, new MachineTask() {
+			public void run(final FleetMachine machine) {
+				timers.schedule(new TimeoutTask() {
+					public void expired(Timeout timeout) {
+						runTask(machine, task);
+					}
+				}, delayMillis);
+			}
+		});
+	}
+
+	/**
+	 * Runs queued tasks and timeouts until the loop is shut down
+	 */
+	public void run() {
+		long done = 0;
+		int sinceTimers = 0;
+		while (running) {
+			Submission submission = queue.poll();
+			if (submission == null) {
+				advanceTimers();
+				sinceTimers = 0;
+				idle = true;
+				// re-check after announcing that we are idle so a submit is not missed
+				if (queue.isEmpty() && running) {
+					if (timers.size() > 0) {
+						// wake for the next tick
+						LockSupport.parkNanos(this, tickNanos);
+					} else {
+						LockSupport.park(this);
+					}
+				}
+				idle = false;
+				continue;
+			}
+
+			// a busy loop still runs its timeouts on time
+			if (++sinceTimers == TASKS_PER_TIMER_CHECK) {
+				advanceTimers();
+				sinceTimers = 0;
+			}
+			runTask(submission.machine, submission.task);
+			done++;
+			completed = done;
+		}
+	}
+
+	//runs a task, counting it as a fault if the hardware refuses it or it
+	//fails, so that one bad task does not stop the loop for every machine
+	private void runTask(FleetMachine machine, MachineTask task) {
+		try {
+			task.run(machine);
+		} catch (DisabledException e) {
+			faults++;
+		} catch (SimulationException e) {
+			faults++;
+		} catch (RuntimeException e) {
+			faults++;
+			lastFailure = e;
+		}
+	}
+
+	//runs the timeouts that are due, counting one that throws as a fault like a
+	//failed task and going on with the rest
+	private void advanceTimers() {
+		while (true) {
+			try {
+				timers.advance(now());
+				return;
+			} catch (SimulationException e) {
+				faults++;
+			} catch (RuntimeException e) {
+				faults++;
+				lastFailure = e;
+			}
+		}
+	}
+
+	/**
+	 * Stops the loop once the current task finishes
+	 */
+	void shutdown() {
+		running = false;
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * @return true if every submitted task has run
+	 */
+	public boolean isQuiescent() {
+		return completed == submitted.get();
+	}
+
+	/**
+	 * @return the number of tasks that have run
+	 */
+	public long getCompleted() {
+		return completed;
+	}
+
+	/**
+	 * @return the number of tasks that failed, with a hardware exception or
+	 *         any other runtime exception
+	 */
+	public long getFaults() {
+		return faults;
+	}
+
+	/**
+	 * @return the last exception other than a hardware exception thrown by a
+	 *         task, or null if there has been none
+	 */
+	public RuntimeException getLastFailure() {
+		return lastFailure;
+	}
+
+	/**
+	 * @return true if the loop thread has been started and has not stopped
+	 */
+	public boolean isAlive() {
+		return thread.isAlive();
+	}
+
+	/**
+	 * Returns the timing wheel of the loop. It may only be used from tasks
+	 * running on the loop.
+	 *
+	 * @return the timing wheel
+	 */
+	public TimingWheel getTimingWheel() {
+		return timers;
+	}
+
+	/**
+	 * @return the loop thread
+	 */
+	public Thread getThread() {
+		return thread;
+	}
+
+	// a task waiting to run on a machine
+	private static final class Submission {
+		final FleetMachine machine;
+		final MachineTask task;
+
+		Submission(FleetMachine machine, MachineTask task) {
+			this.machine = machine;
+			this.task = task;
+		}
+	}
+}
@@ -0,0 +1,317 @@
+package ca.ucalgary.seng300.a1.fleet;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.lsmr.vending.hardware.VendingMachine;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+import ca.ucalgary.seng300.a1.logic.PriceTable;
+import ca.ucalgary.seng300.a1.timer.TimingWheel;
+
+/**
+ * Hosts many vending machines and their controllers in one process. Machines
+ * are sharded across a fixed pool of event loops; each machine is owned by
+ * exactly one loop, which runs every task for it.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class FleetHost {
+
+	private final EventLoop[] loops;
+	private final ArrayList<FleetMachine> machines = new ArrayList<FleetMachine>();
+	private final MachineStateStore store;
+	private volatile boolean started = false;
+
+	/**
+	 * @param loopCount
+	 *            the number of event loop threads, usually the number of cores
+	 */
+	public FleetHost(int loopCount) {
+		this(loopCount, null);
+	}
+
+	/**
+	 * Creates a host whose controllers keep their state in one shared store
+	 * rather than each in their own, which keeps a large fleet compact
+	 *
+	 * @param loopCount
+	 *            the number of event loop threads, usually the number of cores
+	 * @param store
+	 *            the store for the controllers the host creates, or null for
+	 *            each to have its own
+	 */
+	public FleetHost(int loopCount, MachineStateStore store) {
+		this.store = store;
+		if (loopCount <= 0) {
+			throw new IllegalArgumentException("Loop count must be positive: " + loopCount);
+		}
+		loops = new EventLoop[loopCount];
+		for (int i = 0; i < loopCount; i++) {
+			loops[i] = new EventLoop("fleet-loop-" + i, TimingWheel.DEFAULT_TICK_MILLIS);
+		}
+	}
+
+	/**
+	 * Adds a machine to the fleet and attaches a controller to it. Machines
+	 * must be added before the host is started.
+	 *
+	 * @param vendingMachine
+	 *            the hardware
+	 * @param buttonLabel
+	 *            the labels of the selection buttons
+	 * @return the hosted machine
+	 */
+	public FleetMachine addMachine(VendingMachine vendingMachine, String[] buttonLabel) {
+		Controller controller = store == null ? new Controller(vendingMachine, buttonLabel)
+				: new Controller(vendingMachine, buttonLabel, store);
+		return addMachine(vendingMachine, controller);
+	}
+
+	/**
+	 * Adds a machine that already has a controller attached. Machines must be
+	 * added before the host is started.
+	 *
+	 * @param vendingMachine
+	 *            the hardware
+	 * @param controller
+	 *            the controller attached to the hardware
+	 * @return the hosted machine
+	 */
+	public FleetMachine addMachine(VendingMachine vendingMachine, Controller controller) {
+		if (started) {
+			throw new IllegalStateException("Machines must be added before the fleet is started");
+		}
+		int id = machines.size();
+		FleetMachine machine = new FleetMachine(id, vendingMachine, controller, loops[id % loops.length]);
+		machines.add(machine);
+		return machine;
+	}
+
+	/**
+	 * Starts the event loops
+	 */
+	public void start() {
+		started = true;
+		for (EventLoop loop : loops) {
+			loop.start();
+		}
+	}
+
+	/**
+	 * Stops the event loops. Tasks that have not run yet are dropped.
+	 */
+	public void shutdown() {
+		for (EventLoop loop : loops) {
+			loop.shutdown();
+		}
+	}
+
+	/**
+	 * Queues a task on the loop that owns the machine. May be called from any
+	 * thread.
+	 *
+	 * @param machineID
+	 *            the index of the machine
+	 * @param task
+	 *            the task to run
+	 */
+	public void execute(int machineID, MachineTask task) {
+		FleetMachine machine = machines.get(machineID);
+		machine.getOwner().submit(machine, task);
+	}
+
+	/**
+	 * Runs a task on the loop that owns the machine after a delay, e.g. to
+	 * enable a rack again some time after a fault. May be called from any
+	 * thread.
+	 *
+	 * @param machineID
+	 *            the index of the machine
+	 * @param task
+	 *            the task to run
+	 * @param delayMillis
+	 *            the delay in milliseconds, accurate to a tick of the loop's
+	 *            timing wheel
+	 */
+	public void schedule(int machineID, MachineTask task, long delayMillis) {
+		FleetMachine machine = machines.get(machineID);
+		machine.getOwner().schedule(machine, task, delayMillis);
+	}
+
+	/**
+	 * Gives every machine a session timeout: credit left in a machine that
+	 * nobody has used for the timeout is returned as change. Each machine's
+	 * timeout waits in the timing wheel of the loop that owns it. The fleet
+	 * must be started.
+	 *
+	 * @param timeoutMillis
+	 *            the time without a coin or button press before the credit is
+	 *            returned, or 0 to keep credit until it is spent
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for every machine to change
+	 */
+	public void setSessionTimeout(final long timeoutMillis) throws InterruptedException {
+		for (FleetMachine machine : machines) {
+			machine.getOwner().submit(machine, new MachineTask() {
+				public void run(FleetMachine machine) {
+					machine.getController().setSessionTimeout(machine.getOwner().getTimingWheel(), timeoutMillis);
+				}
+			});
+		}
+		awaitQuiescence();
+	}
+
+	/**
+	 * Waits until every task submitted so far has run
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 * @throws IllegalStateException
+	 *             if tasks are waiting on a loop that has not been started or
+	 *             has stopped, so they would never run
+	 */
+	public void awaitQuiescence() throws InterruptedException {
+		for (EventLoop loop : loops) {
+			while (!loop.isQuiescent()) {
+				// the loop may have finished the last task as it stopped
+				if (!loop.isAlive() && !loop.isQuiescent()) {
+					if (!started) {
+						throw new IllegalStateException("Tasks cannot run before the fleet is started");
+					}
+					throw new IllegalStateException("Event loop " + loop.getThread().getName() + " has stopped");
+				}
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * Fills every rack of every machine to capacity. Each machine is restocked
+	 * on the loop that owns it with one load per rack, so the sweep costs one
+	 * event per rack however many cans go in. The fleet must be started.
+	 *
+	 * @return the number of cans loaded across the fleet
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the restock to finish
+	 */
+	public long restockAll() throws InterruptedException {
+		final AtomicLong loaded = new AtomicLong();
+		for (FleetMachine machine : machines) {
+			machine.getOwner().submit(machine, new MachineTask() {
+				public void run(FleetMachine machine) {
+					loaded.addAndGet(machine.getController().restockAll());
+				}
+			});
+		}
+		awaitQuiescence();
+		return loaded.get();
+	}
+
+	/**
+	 * Gives every machine in the fleet a new price table, e.g. for time of day
+	 * pricing. May be called from any thread while the fleet is running. Each
+	 * machine switches atomically, but machines switch one after another. The
+	 * listeners of each machine are renamed afterwards on the loop that owns it.
+	 *
+	 * @param table
+	 *            the table, with an entry for every selection of every machine
+	 */
+	public void setPriceTable(PriceTable table) {
+		MachineTask relabel = new MachineTask() {
+			public void run(FleetMachine machine) {
+				machine.getController().relabel();
+			}
+		};
+		for (FleetMachine machine : machines) {
+			machine.getController().swapPriceTable(table);
+			machine.getOwner().submit(machine, relabel);
+		}
+	}
+
+	/**
+	 * Totals the revenue, credit held, empty racks, disabled buttons and full
+	 * chutes across the fleet on the common fork-join pool. May be called from
+	 * any thread while the fleet is running; the event loops are not paused.
+	 *
+	 * @return the totals
+	 */
+	public FleetTotals rollup() {
+		return rollup(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Totals the revenue, credit held, empty racks, disabled buttons and full
+	 * chutes across the fleet, reading the machines in parallel on a fork-join
+	 * pool. May be called from any thread while the fleet is running; the
+	 * event loops are not paused.
+	 *
+	 * @param pool
+	 *            the pool to read the machines on
+	 * @return the totals
+	 */
+	public FleetTotals rollup(ForkJoinPool pool) {
+		long start = System.nanoTime();
+		FleetTotals totals = pool.invoke(new FleetRollup(machines, 0, machines.size()));
+		totals.setElapsedNanos(System.nanoTime() - start);
+		return totals;
+	}
+
+	/**
+	 * @param machineID
+	 *            the index of the machine
+	 * @return the hosted machine
+	 */
+	public FleetMachine getMachine(int machineID) {
+		return machines.get(machineID);
+	}
+
+	/**
+	 * @return the store shared by the controllers the host creates, or null if
+	 *         each has its own
+	 */
+	public MachineStateStore getStateStore() {
+		return store;
+	}
+
+	/**
+	 * @return the number of machines in the fleet
+	 */
+	public int getNumberOfMachines() {
+		return machines.size();
+	}
+
+	/**
+	 * @return the number of event loops
+	 */
+	public int getNumberOfLoops() {
+		return loops.length;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the loop
+	 * @return the event loop
+	 */
+	public EventLoop getLoop(int index) {
+		return loops[index];
+	}
+
+	/**
+	 * @return the number of tasks that failed, with a hardware exception or
+	 *         any other runtime exception
+	 */
+	public long getFaults() {
+		long faults = 0;
+		for (EventLoop loop : loops) {
+			faults += loop.getFaults();
+		}
+		return faults;
+	}
+}
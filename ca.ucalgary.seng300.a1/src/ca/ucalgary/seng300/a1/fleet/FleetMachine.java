@@ -0,0 +1,64 @@
+package ca.ucalgary.seng300.a1.fleet;
+
+import org.lsmr.vending.hardware.VendingMachine;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+
+/**
+ * A vending machine and its controller as hosted by the fleet
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class FleetMachine {
+
+	private final int id;
+	private final VendingMachine vendingMachine;
+	private final Controller controller;
+	private final EventLoop owner;
+
+	/**
+	 * @param id
+	 *            the index of the machine in the fleet
+	 * @param vendingMachine
+	 *            the hardware
+	 * @param controller
+	 *            the controller attached to the hardware
+	 * @param owner
+	 *            the event loop that runs every task for this machine
+	 */
+	FleetMachine(int id, VendingMachine vendingMachine, Controller controller, EventLoop owner) {
+		this.id = id;
+		this.vendingMachine = vendingMachine;
+		this.controller = controller;
+		this.owner = owner;
+	}
+
+	/**
+	 * @return the index of the machine in the fleet
+	 */
+	public int getID() {
+		return id;
+	}
+
+	/**
+	 * @return the hardware of the machine
+	 */
+	public VendingMachine getVendingMachine() {
+		return vendingMachine;
+	}
+
+	/**
+	 * @return the controller of the machine
+	 */
+	public Controller getController() {
+		return controller;
+	}
+
+	/**
+	 * @return the event loop that owns the machine
+	 */
+	public EventLoop getOwner() {
+		return owner;
+	}
+}
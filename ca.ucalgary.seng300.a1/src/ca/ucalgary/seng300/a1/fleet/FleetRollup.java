@@ -0,0 +1,112 @@
+package ca.ucalgary.seng300.a1.fleet;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.ControllerSnapshot;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+
+/**
+ * Works out the totals for a range of a fleet's machines, splitting the range
+ * in half until it is small enough to read directly so that the halves can
+ * run on other threads of the fork-join pool.
+ *
+ * A machine's state is read from its controller's store without a lock while
+ * its event loop keeps running; if the machine handles an event during the
+ * read, the read is made again, and a machine that keeps spoiling the read is
+ * counted from a snapshot of its controller instead, which may be a little
+ * older than the other machines' state. The loops are never held up.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+class FleetRollup extends RecursiveTask<FleetTotals> {
+
+	/** The most machines read by one task without splitting */
+	static final int THRESHOLD = 1024;
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<FleetMachine> machines;
+	private final int from;
+	private final int to;
+
+	/**
+	 * @param machines
+	 *            the machines of the fleet
+	 * @param from
+	 *            the first machine to count
+	 * @param to
+	 *            the machine after the last one to count
+	 */
+	FleetRollup(List<FleetMachine> machines, int from, int to) {
+		this.machines = machines;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected FleetTotals compute() {
+		if (to - from <= THRESHOLD) {
+			FleetTotals totals = new FleetTotals();
+			for (int i = from; i < to; i++) {
+				read(machines.get(i).getController(), totals);
+			}
+			return totals;
+		}
+
+		int middle = (from + to) >>> 1;
+		FleetRollup upper = new FleetRollup(machines, middle, to);
+		upper.fork();
+		FleetTotals totals = new FleetRollup(machines, from, middle).compute();
+		totals.add(upper.join());
+		return totals;
+	}
+
+	//adds one machine to the totals
+	private static void read(Controller controller, FleetTotals totals) {
+		MachineStateStore store = controller.getStateStore();
+		int slot = controller.getStateSlot();
+		int racks = store.getRacksPerMachine();
+		for (int attempt = 0; attempt < Controller.SNAPSHOT_ATTEMPTS; attempt++) {
+			int stamp = store.startRead(slot);
+			long revenue = store.getRevenue(slot);
+			int credit = store.getBalance(slot);
+			int emptyRacks = 0;
+			int disabledButtons = 0;
+			for (int rack = 0; rack < racks; rack++) {
+				if (store.getInventory(slot, rack) == 0) {
+					emptyRacks++;
+				}
+				if (store.isButtonDisabled(slot, rack)) {
+					disabledButtons++;
+				}
+			}
+			boolean chuteFull = store.isChuteFull(slot);
+			if (store.validate(slot, stamp)) {
+				totals.addMachine(revenue, credit, emptyRacks, disabledButtons, chuteFull);
+				return;
+			}
+			// the loop is part way through an event; let it finish
+			totals.addRetry();
+			Thread.yield();
+		}
+
+		// the snapshot falls back on the newest state read whole rather than
+		// hold up the loop
+		ControllerSnapshot snapshot = controller.getSnapshot();
+		int emptyRacks = 0;
+		int disabledButtons = 0;
+		for (int rack = 0; rack < racks; rack++) {
+			if (snapshot.getInventory(rack) == 0) {
+				emptyRacks++;
+			}
+			if (snapshot.isButtonDisabled(rack)) {
+				disabledButtons++;
+			}
+		}
+		totals.addMachine(snapshot.getRevenue(), snapshot.getBalance(), emptyRacks, disabledButtons,
+				snapshot.isChuteFull());
+	}
+}
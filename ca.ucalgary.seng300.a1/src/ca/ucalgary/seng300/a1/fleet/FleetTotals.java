@@ -0,0 +1,122 @@
+package ca.ucalgary.seng300.a1.fleet;
+
+/**
+ * Totals across the machines of a fleet, as worked out by
+ * {@link FleetHost#rollup()}. Each machine's values come from one consistent
+ * read of its state, but machines are read one after another while the fleet
+ * keeps running.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class FleetTotals {
+
+	private int machines = 0;
+	private long revenue = 0;
+	private long credit = 0;
+	private long emptyRacks = 0;
+	private long disabledButtons = 0;
+	private int fullChutes = 0;
+	private long retries = 0;
+	private long elapsedNanos = 0;
+
+	FleetTotals() {
+	}
+
+	//adds one machine
+	void addMachine(long machineRevenue, int machineCredit, int machineEmptyRacks, int machineDisabledButtons,
+			boolean chuteFull) {
+		machines++;
+		revenue += machineRevenue;
+		credit += machineCredit;
+		emptyRacks += machineEmptyRacks;
+		disabledButtons += machineDisabledButtons;
+		if (chuteFull) {
+			fullChutes++;
+		}
+	}
+
+	//counts a read that was spoiled by an update and made again
+	void addRetry() {
+		retries++;
+	}
+
+	//adds the totals of other machines
+	void add(FleetTotals other) {
+		machines += other.machines;
+		revenue += other.revenue;
+		credit += other.credit;
+		emptyRacks += other.emptyRacks;
+		disabledButtons += other.disabledButtons;
+		fullChutes += other.fullChutes;
+		retries += other.retries;
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of machines counted
+	 */
+	public int getMachines() {
+		return machines;
+	}
+
+	/**
+	 * @return the money taken for pops dispensed
+	 */
+	public long getRevenue() {
+		return revenue;
+	}
+
+	/**
+	 * @return the credit entered by customers and not yet spent or returned
+	 */
+	public long getCredit() {
+		return credit;
+	}
+
+	/**
+	 * @return the number of racks with no pops
+	 */
+	public long getEmptyRacks() {
+		return emptyRacks;
+	}
+
+	/**
+	 * @return the number of disabled selection buttons
+	 */
+	public long getDisabledButtons() {
+		return disabledButtons;
+	}
+
+	/**
+	 * @return the number of machines with a full delivery chute
+	 */
+	public int getFullChutes() {
+		return fullChutes;
+	}
+
+	/**
+	 * @return the number of machine reads made again because the machine
+	 *         handled an event during the read
+	 */
+	public long getRetries() {
+		return retries;
+	}
+
+	/**
+	 * @return the time taken to work out the totals in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"machines: %d  revenue: %d  credit: %d  empty racks: %d  disabled buttons: %d  full chutes: %d  (%.1f ms, %d retries)",
+				machines, revenue, credit, emptyRacks, disabledButtons, fullChutes, elapsedNanos / 1e6, retries);
+	}
+}
@@ -0,0 +1,23 @@
+package ca.ucalgary.seng300.a1.fleet;
+
+import org.lsmr.vending.hardware.*;
+
+/**
+ * An action performed on one machine of the fleet, e.g. a customer inserting a
+ * coin. Tasks always run on the event loop that owns the machine.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface MachineTask {
+
+	/**
+	 * Performs the action
+	 *
+	 * @param machine
+	 *            the machine the task was submitted to
+	 * @throws DisabledException
+	 *             if the hardware used by the task is disabled
+	 */
+	public void run(FleetMachine machine) throws DisabledException;
+}
@@ -0,0 +1,213 @@
+package ca.ucalgary.seng300.a1.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An append-only journal of the events that change controller state, backed
+ * by a memory-mapped file. Appending only writes to mapped memory, so a record
+ * survives the process dying as soon as append returns; the mapping is forced
+ * to disk every few records (group commit) to also survive losing the machine.
+ *
+ * The file is a 16 byte header followed by fixed size records of four ints:
+ * kind, rack ID, value and the balance after the event. Every record has a
+ * sequence number that keeps counting up when the journal is truncated, so a
+ * snapshot can tell which records it already includes.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class EventJournal {
+
+	/** A coin was accepted; the value is the coin value */
+	public static final int COIN = 1;
+	/** A pop was dispensed; the value is the price paid */
+	public static final int DISPENSE = 2;
+	/** A purchase was refused; the value is the message code */
+	public static final int FAILURE = 3;
+	/** Change was returned; the value is the amount returned */
+	public static final int CHANGE = 4;
+	/** A paid purchase was queued for a full chute; the value is the price paid */
+	public static final int PENDING = 5;
+	/** A queued purchase could not be dispensed; the value is the price refunded */
+	public static final int REFUND = 6;
+
+	static final int MAGIC = 0x56454E44;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 16;
+	private static final int BASE_OFFSET = 8;
+	private static final int COUNT_OFFSET = 12;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int groupCommitSize;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int count;
+	private int base;
+	private int unforced = 0;
+
+	/**
+	 * Opens a journal, creating the file if needed. Records already in the file
+	 * are kept and new records are appended after them.
+	 *
+	 * @param journalFile
+	 *            the journal file
+	 * @param initialCapacity
+	 *            the number of records to map before the file has to grow
+	 * @param groupCommitSize
+	 *            the number of records appended between forcing the file to disk
+	 * @throws IOException
+	 *             if the file cannot be opened or is not a journal
+	 */
+	public EventJournal(File journalFile, int initialCapacity, int groupCommitSize) throws IOException {
+		this.groupCommitSize = groupCommitSize;
+		file = new RandomAccessFile(journalFile, "rw");
+		channel = file.getChannel();
+
+		boolean existing = file.length() >= HEADER_SIZE;
+		int existingCount = 0;
+		int existingBase = 0;
+		if (existing) {
+			map(HEADER_SIZE);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				file.close();
+				throw new IOException("Not an event journal: " + journalFile);
+			}
+			existingCount = buffer.getInt(COUNT_OFFSET);
+			existingBase = buffer.getInt(BASE_OFFSET);
+		}
+
+		map(Math.max(initialCapacity, existingCount));
+		count = existingCount;
+		base = existingBase;
+		if (!existing) {
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(COUNT_OFFSET, 0);
+			buffer.putInt(BASE_OFFSET, 0);
+		}
+	}
+
+	/**
+	 * Appends a record
+	 *
+	 * @param kind
+	 *            the kind of record
+	 * @param id
+	 *            the rack ID, 0 for coins
+	 * @param value
+	 *            the coin value, price paid or message code
+	 * @param balance
+	 *            the balance after the event
+	 */
+	public synchronized void append(int kind, int id, int value, int balance) {
+		if (count == capacity) {
+			grow();
+		}
+		int offset = HEADER_SIZE + count * RECORD_SIZE;
+		buffer.putInt(offset, kind);
+		buffer.putInt(offset + 4, id);
+		buffer.putInt(offset + 8, value);
+		buffer.putInt(offset + 12, balance);
+		// the record only counts once the header says so
+		count++;
+		buffer.putInt(COUNT_OFFSET, count);
+
+		if (++unforced >= groupCommitSize) {
+			sync();
+		}
+	}
+
+	/**
+	 * Replays every record, oldest first
+	 *
+	 * @param reader
+	 *            receives the records
+	 */
+	public synchronized void replay(JournalReader reader) {
+		replay(reader, base);
+	}
+
+	/**
+	 * Replays the records from a sequence number on, oldest first
+	 *
+	 * @param reader
+	 *            receives the records
+	 * @param fromSequence
+	 *            the sequence number of the first record to replay, e.g. the
+	 *            sequence saved with a snapshot
+	 */
+	public synchronized void replay(JournalReader reader, int fromSequence) {
+		for (int i = Math.max(0, fromSequence - base); i < count; i++) {
+			int offset = HEADER_SIZE + i * RECORD_SIZE;
+			reader.record(buffer.getInt(offset), buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+					buffer.getInt(offset + 12));
+		}
+	}
+
+	/**
+	 * Forces appended records to disk
+	 */
+	public synchronized void sync() {
+		buffer.force();
+		unforced = 0;
+	}
+
+	/**
+	 * Removes every record, e.g. once the state they describe has been saved
+	 * in a snapshot. Sequence numbers carry on from where they were.
+	 */
+	public synchronized void truncate() {
+		base += count;
+		count = 0;
+		// base and count sit next to each other so one aligned write updates both
+		buffer.putLong(BASE_OFFSET, (long) base << 32);
+		sync();
+	}
+
+	/**
+	 * @return the sequence number the next record will get
+	 */
+	public synchronized int getSequence() {
+		return base + count;
+	}
+
+	/**
+	 * @return the number of records in the journal
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Forces the journal to disk and closes the file
+	 *
+	 * @throws IOException
+	 *             if the file cannot be closed
+	 */
+	public synchronized void close() throws IOException {
+		sync();
+		file.close();
+	}
+
+	// maps room for the header and the given number of records
+	private void map(int records) throws IOException {
+		capacity = records;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+	}
+
+	// doubles the mapped size of the file
+	private void grow() {
+		try {
+			buffer.force();
+			map(Math.max(1, capacity * 2));
+		} catch (IOException e) {
+			throw new JournalException("Unable to grow the journal", e);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package ca.ucalgary.seng300.a1.journal;
+
+/**
+ * Thrown when the journal file cannot be written
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class JournalException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param message
+	 *            what failed
+	 * @param cause
+	 *            the underlying I/O error
+	 */
+	public JournalException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
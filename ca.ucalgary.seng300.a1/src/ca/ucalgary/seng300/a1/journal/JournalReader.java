@@ -0,0 +1,25 @@
+package ca.ucalgary.seng300.a1.journal;
+
+/**
+ * Receives the records of a journal as it is replayed
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface JournalReader {
+
+	/**
+	 * Called once for each record, oldest first
+	 *
+	 * @param kind
+	 *            the kind of record, e.g. {@link EventJournal#COIN}
+	 * @param id
+	 *            the rack ID, 0 for coins
+	 * @param value
+	 *            the coin value, the price paid or refunded, the message code
+	 *            of a failure or the change returned
+	 * @param balance
+	 *            the balance after the event
+	 */
+	public void record(int kind, int id, int value, int balance);
+}
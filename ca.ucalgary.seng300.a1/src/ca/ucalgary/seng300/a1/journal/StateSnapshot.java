@@ -0,0 +1,282 @@
+package ca.ucalgary.seng300.a1.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A compact binary copy of a controller's state and the hardware state it
+ * depends on. Together with the journal records written after it, a snapshot
+ * is enough to restart the controller without replaying its whole history.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class StateSnapshot {
+
+	private static final int MAGIC = 0x534E4150;
+	private static final int VERSION = 1;
+
+	private final int journalSequence;
+	private final int balance;
+	private final int lastMessageCode;
+	private final String lastMessage;
+	private final String chuteLastAction;
+	private final boolean coinSlotDisabled;
+	private final boolean chuteDisabled;
+	private final int[] inventory;
+	private final int[] salesCount;
+	private final boolean[] buttonDisabled;
+	private final boolean[] rackDisabled;
+
+	/**
+	 * @param journalSequence
+	 *            the sequence number of the first journal record not included in
+	 *            the snapshot
+	 * @param balance
+	 *            the credit entered
+	 * @param lastMessageCode
+	 *            the code of the last message
+	 * @param lastMessage
+	 *            the text of the last message
+	 * @param chuteLastAction
+	 *            the last delivery chute action, may be null
+	 * @param coinSlotDisabled
+	 *            whether the coin slot is disabled
+	 * @param chuteDisabled
+	 *            whether the delivery chute is disabled
+	 * @param inventory
+	 *            the number of pops in each rack
+	 * @param salesCount
+	 *            the number of pops sold from each rack
+	 * @param buttonDisabled
+	 *            whether each selection button is disabled
+	 * @param rackDisabled
+	 *            whether each pop can rack is disabled
+	 */
+	public StateSnapshot(int journalSequence, int balance, int lastMessageCode, String lastMessage,
+			String chuteLastAction, boolean coinSlotDisabled, boolean chuteDisabled, int[] inventory,
+			int[] salesCount, boolean[] buttonDisabled, boolean[] rackDisabled) {
+		this.journalSequence = journalSequence;
+		this.balance = balance;
+		this.lastMessageCode = lastMessageCode;
+		this.lastMessage = lastMessage;
+		this.chuteLastAction = chuteLastAction;
+		this.coinSlotDisabled = coinSlotDisabled;
+		this.chuteDisabled = chuteDisabled;
+		this.inventory = inventory;
+		this.salesCount = salesCount;
+		this.buttonDisabled = buttonDisabled;
+		this.rackDisabled = rackDisabled;
+	}
+
+	/**
+	 * Writes the snapshot. The file is replaced in one step, so a crash leaves
+	 * either the old or the new snapshot.
+	 *
+	 * @param snapshotFile
+	 *            the file to write
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void write(File snapshotFile) throws IOException {
+		File temp = new File(snapshotFile.getPath() + ".tmp");
+		FileOutputStream file = new FileOutputStream(temp);
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+			writeTo(out);
+			out.flush();
+			file.getFD().sync();
+		} finally {
+			file.close();
+		}
+		Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Writes the snapshot to a stream, e.g. as part of another file
+	 *
+	 * @param out
+	 *            the stream to write to
+	 * @throws IOException
+	 *             if the snapshot cannot be written
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(journalSequence);
+		out.writeInt(balance);
+		out.writeInt(lastMessageCode);
+		out.writeUTF(lastMessage);
+		out.writeBoolean(chuteLastAction != null);
+		out.writeUTF(chuteLastAction == null ? "" : chuteLastAction);
+		out.writeBoolean(coinSlotDisabled);
+		out.writeBoolean(chuteDisabled);
+		out.writeInt(inventory.length);
+		for (int i = 0; i < inventory.length; i++) {
+			out.writeInt(inventory[i]);
+			out.writeInt(salesCount[i]);
+			out.writeBoolean(buttonDisabled[i]);
+			out.writeBoolean(rackDisabled[i]);
+		}
+	}
+
+	/**
+	 * Reads a snapshot
+	 *
+	 * @param snapshotFile
+	 *            the file to read
+	 * @return the snapshot
+	 * @throws IOException
+	 *             if the file cannot be read or is not a snapshot
+	 */
+	public static StateSnapshot read(File snapshotFile) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+		try {
+			return readFrom(in);
+		} catch (IOException e) {
+			throw new IOException("Unable to read snapshot " + snapshotFile, e);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #writeTo(DataOutput)}
+	 *
+	 * @param in
+	 *            the stream to read from
+	 * @return the snapshot
+	 * @throws IOException
+	 *             if the stream cannot be read or does not hold a snapshot
+	 */
+	public static StateSnapshot readFrom(DataInput in) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Not a controller snapshot");
+		}
+		int journalSequence = in.readInt();
+		int balance = in.readInt();
+		int lastMessageCode = in.readInt();
+		String lastMessage = in.readUTF();
+		boolean hasChuteAction = in.readBoolean();
+		String chuteLastAction = in.readUTF();
+		boolean coinSlotDisabled = in.readBoolean();
+		boolean chuteDisabled = in.readBoolean();
+		int racks = in.readInt();
+		int[] inventory = new int[racks];
+		int[] salesCount = new int[racks];
+		boolean[] buttonDisabled = new boolean[racks];
+		boolean[] rackDisabled = new boolean[racks];
+		for (int i = 0; i < racks; i++) {
+			inventory[i] = in.readInt();
+			salesCount[i] = in.readInt();
+			buttonDisabled[i] = in.readBoolean();
+			rackDisabled[i] = in.readBoolean();
+		}
+		return new StateSnapshot(journalSequence, balance, lastMessageCode, lastMessage,
+				hasChuteAction ? chuteLastAction : null, coinSlotDisabled, chuteDisabled, inventory, salesCount,
+				buttonDisabled, rackDisabled);
+	}
+
+	/**
+	 * @return the sequence number of the first journal record not included
+	 */
+	public int getJournalSequence() {
+		return journalSequence;
+	}
+
+	/**
+	 * @return the credit entered
+	 */
+	public int getBalance() {
+		return balance;
+	}
+
+	/**
+	 * @return the code of the last message
+	 */
+	public int getLastMessageCode() {
+		return lastMessageCode;
+	}
+
+	/**
+	 * @return the text of the last message
+	 */
+	public String getLastMessage() {
+		return lastMessage;
+	}
+
+	/**
+	 * @return the last delivery chute action, or null if there was none
+	 */
+	public String getChuteLastAction() {
+		return chuteLastAction;
+	}
+
+	/**
+	 * @return whether the coin slot is disabled
+	 */
+	public boolean isCoinSlotDisabled() {
+		return coinSlotDisabled;
+	}
+
+	/**
+	 * @return whether the delivery chute is disabled
+	 */
+	public boolean isChuteDisabled() {
+		return chuteDisabled;
+	}
+
+	/**
+	 * @return the number of racks in the snapshot
+	 */
+	public int getNumberOfRacks() {
+		return inventory.length;
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of pops in the rack
+	 */
+	public int getInventory(int rackID) {
+		return inventory[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of pops sold from the rack
+	 */
+	public int getSalesCount(int rackID) {
+		return salesCount[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return whether the selection button of the rack is disabled
+	 */
+	public boolean isButtonDisabled(int rackID) {
+		return buttonDisabled[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return whether the rack is disabled
+	 */
+	public boolean isRackDisabled(int rackID) {
+		return rackDisabled[rackID];
+	}
+}
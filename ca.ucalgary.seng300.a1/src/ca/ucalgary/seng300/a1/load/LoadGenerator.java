@@ -0,0 +1,198 @@
+package ca.ucalgary.seng300.a1.load;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.fleet.FleetHost;
+import ca.ucalgary.seng300.a1.fleet.FleetMachine;
+import ca.ucalgary.seng300.a1.fleet.MachineTask;
+import ca.ucalgary.seng300.a1.logic.Controller;
+
+/**
+ * Sends simulated customers to the machines of a fleet. Customers arrive as a
+ * Poisson process; each one picks a machine and a selection, inserts coins,
+ * presses the button and usually opens the delivery chute. The outcome is read
+ * from the controller's last message.
+ *
+ * Each customer runs as a task on the event loop that owns its machine, so
+ * thousands of customers share the loop threads instead of needing a thread
+ * each.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class LoadGenerator {
+
+	private static final int MESSAGE_CODES = 32;
+
+	private final LoadProfile profile;
+
+	/**
+	 * @param profile
+	 *            the customers to send
+	 */
+	public LoadGenerator(LoadProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * Sends every customer in the profile to the fleet and waits for them to
+	 * finish. The fleet must be started.
+	 *
+	 * @param fleet
+	 *            the fleet to load
+	 * @return the results of the run
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the customers
+	 */
+	public LoadReport run(FleetHost fleet) throws InterruptedException {
+		Random random = new Random(profile.getSeed());
+		double[] cumulativeWeights = cumulative(profile.getProductWeights());
+		double meanGapNanos = 1e9 / profile.getArrivalsPerSecond();
+
+		final long[] latencies = new long[profile.getCustomers()];
+		final AtomicLong purchases = new AtomicLong();
+		final AtomicLongArray failures = new AtomicLongArray(MESSAGE_CODES);
+		final AtomicLong faults = new AtomicLong();
+
+		long start = System.nanoTime();
+		long arrival = start;
+		for (int i = 0; i < latencies.length; i++) {
+			// exponential gaps between arrivals
+			arrival += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+			long wait = arrival - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+
+			int machineID = random.nextInt(fleet.getNumberOfMachines());
+			int rackID = pick(cumulativeWeights, random.nextDouble());
+			boolean payInFull = random.nextDouble() < profile.getPayInFullProbability();
+			boolean collect = random.nextDouble() < profile.getCollectProbability();
+			fleet.execute(machineID, new Customer(i, arrival, rackID, payInFull, collect, latencies, purchases,
+					failures, faults));
+		}
+		fleet.awaitQuiescence();
+		long elapsed = System.nanoTime() - start;
+
+		long[] failureCounts = new long[MESSAGE_CODES];
+		for (int code = 0; code < MESSAGE_CODES; code++) {
+			failureCounts[code] = failures.get(code);
+		}
+		return new LoadReport(latencies, elapsed, purchases.get(), failureCounts, faults.get());
+	}
+
+	// running totals of the weights, normalised to end at 1
+	private static double[] cumulative(double[] weights) {
+		double[] cumulative = new double[weights.length];
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		double sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i];
+			cumulative[i] = sum / total;
+		}
+		return cumulative;
+	}
+
+	// the first selection whose cumulative weight reaches the sample
+	private static int pick(double[] cumulativeWeights, double sample) {
+		for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+			if (sample < cumulativeWeights[i]) {
+				return i;
+			}
+		}
+		return cumulativeWeights.length - 1;
+	}
+
+	/**
+	 * One customer's visit to a machine
+	 */
+	private class Customer implements MachineTask {
+
+		private final int index;
+		private final long arrival;
+		private final int rackID;
+		private final boolean payInFull;
+		private final boolean collect;
+		private final long[] latencies;
+		private final AtomicLong purchases;
+		private final AtomicLongArray failures;
+		private final AtomicLong faults;
+
+		Customer(int index, long arrival, int rackID, boolean payInFull, boolean collect, long[] latencies,
+				AtomicLong purchases, AtomicLongArray failures, AtomicLong faults) {
+			this.index = index;
+			this.arrival = arrival;
+			this.rackID = rackID;
+			this.payInFull = payInFull;
+			this.collect = collect;
+			this.latencies = latencies;
+			this.purchases = purchases;
+			this.failures = failures;
+			this.faults = faults;
+		}
+
+		public void run(FleetMachine machine) {
+			VendingMachine vendingMachine = machine.getVendingMachine();
+			Controller controller = machine.getController();
+			try {
+				int rack = Math.min(rackID, vendingMachine.getNumberOfSelectionButtons() - 1);
+				pay(vendingMachine, controller, controller.getPriceTable().getCost(rack));
+				int salesBefore = controller.getSalesCount(rack);
+				int pendingBefore = controller.getPendingDeliveries();
+				vendingMachine.getSelectionButton(rack).press();
+
+				// a purchase is dispensed or held for the chute; the last message
+				// may come from something the press set off afterwards, e.g. the
+				// coin slot being disabled, so it only says why a press failed
+				if (controller.getSalesCount(rack) > salesBefore
+						|| controller.getPendingDeliveries() > pendingBefore) {
+					purchases.incrementAndGet();
+				} else {
+					failures.incrementAndGet(controller.getLastMessageCode());
+				}
+
+				if (collect) {
+					vendingMachine.getDeliveryChute().removeItems();
+				}
+			} catch (DisabledException e) {
+				faults.incrementAndGet();
+			} catch (SimulationException e) {
+				// e.g. coin storage and the chute are both full
+				faults.incrementAndGet();
+			} finally {
+				latencies[index] = System.nanoTime() - arrival;
+			}
+		}
+
+		// inserts coins, largest first, until the cost is covered; customers who
+		// do not pay in full stop one coin short
+		private void pay(VendingMachine vendingMachine, Controller controller, int cost)
+				throws DisabledException {
+			int[] coins = profile.getCoins();
+			int owed = cost - controller.getBalance();
+			while (owed > 0) {
+				int coin = coins[coins.length - 1];
+				for (int value : coins) {
+					if (value <= owed) {
+						coin = value;
+						break;
+					}
+				}
+				if (!payInFull && owed <= coin) {
+					return;
+				}
+				vendingMachine.getCoinSlot().addCoin(new Coin(coin));
+				owed -= coin;
+			}
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package ca.ucalgary.seng300.a1.load;
+
+/**
+ * Describes the simulated customers sent by the load generator: how many
+ * arrive, how quickly, what they buy and how they behave at the machine.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class LoadProfile {
+
+	private int customers = 10000;
+	private double arrivalsPerSecond = 10000;
+	private double[] productWeights = { 1 };
+	private int[] coins = { 200, 100, 25, 10, 5 };
+	private double payInFullProbability = 0.95;
+	private double collectProbability = 0.98;
+	private long seed = 1;
+
+	/**
+	 * @return the number of customers to send
+	 */
+	public int getCustomers() {
+		return customers;
+	}
+
+	/**
+	 * @param customers
+	 *            the number of customers to send
+	 */
+	public void setCustomers(int customers) {
+		this.customers = customers;
+	}
+
+	/**
+	 * @return the mean arrival rate across the fleet; arrivals are a Poisson
+	 *         process
+	 */
+	public double getArrivalsPerSecond() {
+		return arrivalsPerSecond;
+	}
+
+	/**
+	 * @param arrivalsPerSecond
+	 *            the mean arrival rate across the fleet
+	 */
+	public void setArrivalsPerSecond(double arrivalsPerSecond) {
+		this.arrivalsPerSecond = arrivalsPerSecond;
+	}
+
+	/**
+	 * @return the relative popularity of each selection
+	 */
+	public double[] getProductWeights() {
+		return productWeights;
+	}
+
+	/**
+	 * @param productWeights
+	 *            the relative popularity of each selection, one weight per rack
+	 */
+	public void setProductWeights(double... productWeights) {
+		this.productWeights = productWeights;
+	}
+
+	/**
+	 * @return the coins customers pay with, largest first
+	 */
+	public int[] getCoins() {
+		return coins;
+	}
+
+	/**
+	 * @param coins
+	 *            the coins customers pay with, largest first; must be valid for
+	 *            the machines
+	 */
+	public void setCoins(int... coins) {
+		this.coins = coins;
+	}
+
+	/**
+	 * @return the chance a customer inserts enough money for the selection
+	 */
+	public double getPayInFullProbability() {
+		return payInFullProbability;
+	}
+
+	/**
+	 * @param payInFullProbability
+	 *            the chance a customer inserts enough money for the selection
+	 */
+	public void setPayInFullProbability(double payInFullProbability) {
+		this.payInFullProbability = payInFullProbability;
+	}
+
+	/**
+	 * @return the chance a customer opens the delivery chute afterwards
+	 */
+	public double getCollectProbability() {
+		return collectProbability;
+	}
+
+	/**
+	 * @param collectProbability
+	 *            the chance a customer opens the delivery chute afterwards
+	 */
+	public void setCollectProbability(double collectProbability) {
+		this.collectProbability = collectProbability;
+	}
+
+	/**
+	 * @return the random seed for arrivals and customer choices
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed
+	 *            the random seed for arrivals and customer choices
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+}
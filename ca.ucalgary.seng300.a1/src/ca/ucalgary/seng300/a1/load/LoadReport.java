@@ -0,0 +1,126 @@
+package ca.ucalgary.seng300.a1.load;
+
+import java.util.Arrays;
+
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+
+/**
+ * The results of a load generator run
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class LoadReport {
+
+	private final int transactions;
+	private final long elapsedNanos;
+	private final long[] sortedLatencies;
+	private final long purchases;
+	private final long[] failures;
+	private final long faults;
+
+	/**
+	 * @param latencies
+	 *            the latency of each customer in nanoseconds, from the scheduled
+	 *            arrival to leaving the machine
+	 * @param elapsedNanos
+	 *            the length of the run
+	 * @param purchases
+	 *            the number of customers who got a pop
+	 * @param failures
+	 *            the number of refused purchases, indexed by message code
+	 * @param faults
+	 *            the number of customers stopped by a hardware exception
+	 */
+	LoadReport(long[] latencies, long elapsedNanos, long purchases, long[] failures, long faults) {
+		this.transactions = latencies.length;
+		this.elapsedNanos = elapsedNanos;
+		this.sortedLatencies = latencies.clone();
+		Arrays.sort(sortedLatencies);
+		this.purchases = purchases;
+		this.failures = failures;
+		this.faults = faults;
+	}
+
+	/**
+	 * @return the number of customers served
+	 */
+	public int getTransactions() {
+		return transactions;
+	}
+
+	/**
+	 * @return the customers served per second
+	 */
+	public double getTransactionsPerSecond() {
+		return transactions / (elapsedNanos / 1e9);
+	}
+
+	/**
+	 * @param percentile
+	 *            a percentile between 0 and 100
+	 * @return the latency at the percentile in nanoseconds
+	 */
+	public long getLatencyPercentile(double percentile) {
+		if (transactions == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile / 100.0 * transactions) - 1;
+		return sortedLatencies[Math.max(0, Math.min(transactions - 1, index))];
+	}
+
+	/**
+	 * @return the number of customers who got a pop
+	 */
+	public long getPurchases() {
+		return purchases;
+	}
+
+	/**
+	 * @param messageCode
+	 *            the controller message that refused the purchase, see
+	 *            {@link MessageCode}
+	 * @return the number of purchases refused with that message
+	 */
+	public long getFailures(int messageCode) {
+		return failures[messageCode];
+	}
+
+	/**
+	 * @return the number of refused purchases
+	 */
+	public long getTotalFailures() {
+		long total = 0;
+		for (long count : failures) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @return the number of customers stopped by a hardware exception, e.g. a
+	 *         disabled coin slot
+	 */
+	public long getFaults() {
+		return faults;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("transactions: %d (%.0f/s)%n", transactions, getTransactionsPerSecond()));
+		report.append(String.format("latency us: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+				getLatencyPercentile(50) / 1e3, getLatencyPercentile(90) / 1e3, getLatencyPercentile(99) / 1e3,
+				getLatencyPercentile(99.9) / 1e3, getLatencyPercentile(100) / 1e3));
+		report.append(String.format("purchases: %d%n", purchases));
+		for (int code = 0; code < failures.length; code++) {
+			if (failures[code] > 0) {
+				report.append(String.format("failed (%s): %d%n", MessageCode.getText(code), failures[code]));
+			}
+		}
+		if (faults > 0) {
+			report.append(String.format("hardware faults: %d%n", faults));
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,45 @@
+package ca.ucalgary.seng300.a1.logic;
+
+/**
+ * Base class for the listeners that forward hardware events to a handler
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public abstract class AbstractEventListener {
+
+	private HardwareEventHandler handler;
+
+	/**
+	 * Sets the handler that events are delivered to
+	 *
+	 * @param handler
+	 *            the handler, usually the controller
+	 */
+	public void setHandler(HardwareEventHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * @return the handler events are delivered to
+	 */
+	public HardwareEventHandler getHandler() {
+		return handler;
+	}
+
+	/**
+	 * Delivers an event to the handler if one is set
+	 *
+	 * @param type
+	 *            the kind of event
+	 * @param id
+	 *            the ID of the hardware the event came from
+	 * @param value
+	 *            the value associated with the event
+	 */
+	protected void notifyHandler(EventType type, int id, int value) {
+		if (handler != null) {
+			handler.handleEvent(type, id, value);
+		}
+	}
+}
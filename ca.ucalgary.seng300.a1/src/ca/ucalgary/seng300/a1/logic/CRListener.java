@@ -0,0 +1,110 @@
+package ca.ucalgary.seng300.a1.logic;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+/**
+ * Coin Rack Listener
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class CRListener extends AbstractEventListener implements CoinRackListener {
+
+	private String lastAction = "Waiting";
+	private int rackID;
+
+	/**
+	 * @param rackID
+	 *            An integer identifying the associated coin rack
+	 */
+	public CRListener(int rackID) {
+		this.rackID = rackID;
+	}
+
+	/**
+	 * An event is announced when the coin rack is enabled.
+	 */
+	@Override
+	public void enabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
+		lastAction = "Enabled";
+		notifyHandler(EventType.COIN_RACK_ENABLED, rackID, 0);
+	}
+
+	/**
+	 * An event is announced when the coin rack is disabled.
+	 */
+	@Override
+	public void disabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
+		lastAction = "Disabled";
+		notifyHandler(EventType.COIN_RACK_DISABLED, rackID, 0);
+	}
+
+	/**
+	 * An event is announced when a coin is stored in the rack.
+	 */
+	@Override
+	public void coinAdded(CoinRack rack, Coin coin) {
+		lastAction = "Coin Added";
+		notifyHandler(EventType.COIN_ADDED, rackID, 1);
+	}
+
+	/**
+	 * An event is announced when a coin is released from the rack.
+	 */
+	@Override
+	public void coinRemoved(CoinRack rack, Coin coin) {
+		lastAction = "Coin Removed";
+		notifyHandler(EventType.COIN_REMOVED, rackID, 1);
+	}
+
+	/**
+	 * An event is announced when the rack is full.
+	 */
+	@Override
+	public void coinsFull(CoinRack rack) {
+		lastAction = "Full Rack";
+		notifyHandler(EventType.COIN_RACK_FULL, rackID, 0);
+	}
+
+	/**
+	 * An event is announced when the last coin has been released.
+	 */
+	@Override
+	public void coinsEmpty(CoinRack rack) {
+		lastAction = "Empty Rack";
+		notifyHandler(EventType.COIN_RACK_EMPTY, rackID, 0);
+	}
+
+	/**
+	 * An event is announced when coins are loaded into the rack directly.
+	 */
+	@Override
+	public void coinsLoaded(CoinRack rack, Coin... coins) {
+		lastAction = "Coins Loaded";
+		notifyHandler(EventType.COINS_LOADED, rackID, coins.length);
+	}
+
+	/**
+	 * An event is announced when the rack is emptied directly.
+	 */
+	@Override
+	public void coinsUnloaded(CoinRack rack, Coin... coins) {
+		lastAction = "Coins Unloaded";
+		notifyHandler(EventType.COINS_UNLOADED, rackID, coins.length);
+	}
+
+	/**
+	 * @return the status of the coin rack
+	 */
+	public String getLastAction() {
+		return lastAction;
+	}
+
+	/**
+	 * @return the id of the coin rack
+	 */
+	public int getID() {
+		return rackID;
+	}
+}
@@ -0,0 +1,88 @@
+package ca.ucalgary.seng300.a1.logic;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+/**
+ * Coin Receptacle Listener. Only announces the receptacle being emptied or
+ * loaded, which the coin slot does not see.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class CRecListener extends AbstractEventListener implements CoinReceptacleListener {
+
+	private String lastAction = "Waiting";
+
+	/**
+	 * An event is announced when the receptacle is enabled.
+	 */
+	@Override
+	public void enabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
+		lastAction = "Enabled";
+	}
+
+	/**
+	 * An event is announced when the receptacle is disabled.
+	 */
+	@Override
+	public void disabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
+		lastAction = "Disabled";
+	}
+
+	/**
+	 * A coin from the coin slot is held in the receptacle. The coin slot
+	 * announces it as an accepted coin, so no event is announced here.
+	 */
+	@Override
+	public void coinAdded(CoinReceptacle receptacle, Coin coin) {
+		lastAction = "Coin Added";
+	}
+
+	/**
+	 * An event is announced when the coins are stored in the coin racks or
+	 * returned.
+	 */
+	@Override
+	public void coinsRemoved(CoinReceptacle receptacle) {
+		lastAction = "Coins Removed";
+		notifyHandler(EventType.RECEPTACLE_EMPTIED, 0, 0);
+	}
+
+	/**
+	 * The receptacle is full. The controller counts the accepted coins, so no
+	 * event is announced here.
+	 */
+	@Override
+	public void coinsFull(CoinReceptacle receptacle) {
+		lastAction = "Full Receptacle";
+	}
+
+	/**
+	 * An event is announced for each coin loaded into the receptacle directly,
+	 * so that the controller knows the denominations it holds.
+	 */
+	@Override
+	public void coinsLoaded(CoinReceptacle receptacle, Coin... coins) {
+		lastAction = "Coins Loaded";
+		for (Coin coin : coins) {
+			notifyHandler(EventType.RECEPTACLE_LOADED, 0, coin.getValue());
+		}
+	}
+
+	/**
+	 * An event is announced when the receptacle is emptied directly.
+	 */
+	@Override
+	public void coinsUnloaded(CoinReceptacle receptacle, Coin... coins) {
+		lastAction = "Coins Unloaded";
+		notifyHandler(EventType.RECEPTACLE_UNLOADED, 0, coins.length);
+	}
+
+	/**
+	 * @return the status of the coin receptacle
+	 */
+	public String getLastAction() {
+		return lastAction;
+	}
+}
@@ -1,7 +1,5 @@
 package ca.ucalgary.seng300.a1.logic;
 
-import java.util.Observable;
-
 import org.lsmr.vending.Coin;
 import org.lsmr.vending.hardware.*;
 
@@ -9,7 +7,7 @@ import org.lsmr.vending.hardware.*;
  * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
  *
  */
-public class CSListener extends Observable implements CoinSlotListener {
+public class CSListener extends AbstractEventListener implements CoinSlotListener {
 
 	private String state = "";
 	private String status = "Listening";
@@ -20,8 +18,7 @@ public class CSListener extends Observable implements CoinSlotListener {
 	 */
 	public void enabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		status = "Enabled";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.COIN_SLOT_ENABLED, 0, 0);
 	}
 
 	/* (non-Javadoc)
@@ -29,8 +26,7 @@ public class CSListener extends Observable implements CoinSlotListener {
 	 */
 	public void disabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		status = "Disabled";
-	      setChanged();
-	      notifyObservers();
+	    notifyHandler(EventType.COIN_SLOT_DISABLED, 0, 0);
 	}
 
 	/* (non-Javadoc)
@@ -39,8 +35,7 @@ public class CSListener extends Observable implements CoinSlotListener {
 	public void validCoinInserted(CoinSlot slot, Coin coin) {
 		status = "Accepted";
 		lastCoinValue = coin.getValue();
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.COIN_ACCEPTED, 0, lastCoinValue);
 	}
 
 	/* (non-Javadoc)
@@ -48,8 +43,7 @@ public class CSListener extends Observable implements CoinSlotListener {
 	 */
 	public void coinRejected(CoinSlot slot, Coin coin) {
 		status = "Rejected";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.COIN_REJECTED, 0, coin.getValue());
 	}
 
 	/**
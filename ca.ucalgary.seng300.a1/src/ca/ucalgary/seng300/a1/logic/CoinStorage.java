@@ -0,0 +1,285 @@
+package ca.ucalgary.seng300.a1.logic;
+
+/**
+ * Tracks how full the coin receptacle and coin racks are for each
+ * denomination and forecasts how long they will take to fill at the recent
+ * rate of coins entered.
+ *
+ * The rate is a moving average of the time between coins, so a burst of
+ * customers shortens the forecast quickly and a quiet spell lengthens it. A
+ * rack fills when the receptacle is stored into it, so the space left in a
+ * rack counts the coins of its denomination waiting in the receptacle.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class CoinStorage {
+
+	/** The forecast when no coins have been entered to estimate a rate from */
+	public static final long NO_FORECAST = Long.MAX_VALUE;
+	/** The weight given to the newest time between coins in the average */
+	public static final double DEFAULT_SMOOTHING = 0.2;
+
+	private final int[] denominations;
+	private final int[] rackCapacity;
+	private final int receptacleCapacity;
+	private final double smoothing;
+
+	private final int[] rackCount;
+	private final int[] receptacleCount;
+	private int receptacleSize = 0;
+
+	// average milliseconds between coins, negative until two coins have been seen
+	private double gap = -1;
+	private long lastCoin = -1;
+	private final double[] denominationGap;
+	private final long[] lastDenominationCoin;
+
+	/**
+	 * @param denominations
+	 *            the coin kind of each coin rack
+	 * @param rackCapacity
+	 *            the capacity of each coin rack
+	 * @param receptacleCapacity
+	 *            the capacity of the coin receptacle
+	 */
+	public CoinStorage(int[] denominations, int[] rackCapacity, int receptacleCapacity) {
+		this(denominations, rackCapacity, receptacleCapacity, DEFAULT_SMOOTHING);
+	}
+
+	/**
+	 * @param denominations
+	 *            the coin kind of each coin rack
+	 * @param rackCapacity
+	 *            the capacity of each coin rack
+	 * @param receptacleCapacity
+	 *            the capacity of the coin receptacle
+	 * @param smoothing
+	 *            the weight given to the newest time between coins, between 0
+	 *            and 1
+	 */
+	public CoinStorage(int[] denominations, int[] rackCapacity, int receptacleCapacity, double smoothing) {
+		if (denominations.length != rackCapacity.length) {
+			throw new IllegalArgumentException("Expected a capacity for each of the " + denominations.length + " racks");
+		}
+		if (smoothing <= 0 || smoothing > 1) {
+			throw new IllegalArgumentException("Smoothing must be in (0, 1]: " + smoothing);
+		}
+		this.denominations = denominations.clone();
+		this.rackCapacity = rackCapacity.clone();
+		this.receptacleCapacity = receptacleCapacity;
+		this.smoothing = smoothing;
+		rackCount = new int[denominations.length];
+		receptacleCount = new int[denominations.length];
+		denominationGap = new double[denominations.length];
+		lastDenominationCoin = new long[denominations.length];
+		for (int i = 0; i < denominations.length; i++) {
+			denominationGap[i] = -1;
+			lastDenominationCoin[i] = -1;
+		}
+	}
+
+	/**
+	 * Counts a coin entered through the coin slot and updates the rates
+	 *
+	 * @param value
+	 *            the value of the coin
+	 * @param now
+	 *            the time the coin was entered, in milliseconds
+	 */
+	public void coinEntered(int value, long now) {
+		coinLoaded(value);
+		if (lastCoin >= 0) {
+			gap = average(gap, now - lastCoin);
+		}
+		lastCoin = now;
+
+		int rack = rackFor(value);
+		if (rack >= 0) {
+			if (lastDenominationCoin[rack] >= 0) {
+				denominationGap[rack] = average(denominationGap[rack], now - lastDenominationCoin[rack]);
+			}
+			lastDenominationCoin[rack] = now;
+		}
+	}
+
+	//folds the newest time between coins into an average, which starts at the first one
+	private double average(double average, long newest) {
+		return average < 0 ? newest : smoothing * newest + (1 - smoothing) * average;
+	}
+
+	/**
+	 * Counts a coin put in the receptacle without changing the rates
+	 *
+	 * @param value
+	 *            the value of the coin
+	 */
+	public void coinLoaded(int value) {
+		receptacleSize++;
+		int rack = rackFor(value);
+		if (rack >= 0) {
+			receptacleCount[rack]++;
+		}
+	}
+
+	/**
+	 * Sets the number of coins in the receptacle, e.g. when starting with a
+	 * receptacle whose denominations are not known
+	 *
+	 * @param size
+	 *            the number of coins
+	 */
+	public void setReceptacleSize(int size) {
+		receptacleSize = size;
+	}
+
+	/**
+	 * Counts the receptacle as empty, after its coins were stored, returned or
+	 * unloaded
+	 */
+	public void receptacleEmptied() {
+		receptacleSize = 0;
+		for (int i = 0; i < receptacleCount.length; i++) {
+			receptacleCount[i] = 0;
+		}
+	}
+
+	/**
+	 * @param rack
+	 *            the coin rack
+	 * @param delta
+	 *            the number of coins added, negative if removed
+	 */
+	public void addToRack(int rack, int delta) {
+		rackCount[rack] += delta;
+	}
+
+	/**
+	 * @param rack
+	 *            the coin rack
+	 * @param count
+	 *            the number of coins in the rack
+	 */
+	public void setRackCount(int rack, int count) {
+		rackCount[rack] = count;
+	}
+
+	//finds the rack for a coin value, or -1 if there is none
+	private int rackFor(int value) {
+		for (int i = 0; i < denominations.length; i++) {
+			if (denominations[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the number of coins in the receptacle
+	 */
+	public int getReceptacleSize() {
+		return receptacleSize;
+	}
+
+	/**
+	 * @return the number of coins the receptacle can hold
+	 */
+	public int getReceptacleCapacity() {
+		return receptacleCapacity;
+	}
+
+	/**
+	 * @return the number of coins that can be entered before the receptacle is
+	 *         full
+	 */
+	public int getReceptacleSpace() {
+		return Math.max(0, receptacleCapacity - receptacleSize);
+	}
+
+	/**
+	 * @param rack
+	 *            the coin rack
+	 * @return the number of coins of the rack's denomination in the receptacle
+	 */
+	public int getReceptacleCount(int rack) {
+		return receptacleCount[rack];
+	}
+
+	/**
+	 * @param rack
+	 *            the coin rack
+	 * @return the number of coins in the rack
+	 */
+	public int getRackCount(int rack) {
+		return rackCount[rack];
+	}
+
+	/**
+	 * @param rack
+	 *            the coin rack
+	 * @return the number of coins the rack can still take once the receptacle
+	 *         is stored, negative if storing would overflow it
+	 */
+	public int getRackSpace(int rack) {
+		return rackCapacity[rack] - rackCount[rack] - receptacleCount[rack];
+	}
+
+	/**
+	 * @param now
+	 *            the current time in milliseconds
+	 * @return the recent rate of coins entered per hour, 0 if unknown
+	 */
+	public double getCoinsPerHour(long now) {
+		double gap = currentGap(this.gap, lastCoin, now);
+		return gap <= 0 ? 0 : 3600000 / gap;
+	}
+
+	/**
+	 * @param now
+	 *            the current time in milliseconds
+	 * @return the forecast milliseconds until the receptacle is full, or
+	 *         {@link #NO_FORECAST}
+	 */
+	public long getReceptacleTimeToFull(long now) {
+		return forecast(getReceptacleSpace(), currentGap(gap, lastCoin, now));
+	}
+
+	/**
+	 * @param rack
+	 *            the coin rack
+	 * @param now
+	 *            the current time in milliseconds
+	 * @return the forecast milliseconds until the rack is full once the
+	 *         receptacle is stored, or {@link #NO_FORECAST}
+	 */
+	public long getRackTimeToFull(int rack, long now) {
+		return forecast(getRackSpace(rack), currentGap(denominationGap[rack], lastDenominationCoin[rack], now));
+	}
+
+	/**
+	 * @param now
+	 *            the current time in milliseconds
+	 * @return the forecast milliseconds until the receptacle or any rack is
+	 *         full, i.e. until the coins need to be emptied, or
+	 *         {@link #NO_FORECAST}
+	 */
+	public long getTimeToFull(long now) {
+		long earliest = getReceptacleTimeToFull(now);
+		for (int i = 0; i < rackCount.length; i++) {
+			earliest = Math.min(earliest, getRackTimeToFull(i, now));
+		}
+		return earliest;
+	}
+
+	//the average time between coins, stretched by a quiet spell longer than it
+	private static double currentGap(double gap, long lastCoin, long now) {
+		return gap < 0 ? gap : Math.max(gap, now - lastCoin);
+	}
+
+	private static long forecast(int space, double gap) {
+		if (space <= 0) {
+			return 0;
+		}
+		return gap < 0 ? NO_FORECAST : (long) Math.min(space * gap, NO_FORECAST);
+	}
+}
@@ -1,10 +1,27 @@
 package ca.ucalgary.seng300.a1.logic;
 
-import java.util.Observable;
-import java.util.Observer;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.lsmr.vending.PopCan;
 import org.lsmr.vending.hardware.*;
 
+import ca.ucalgary.seng300.a1.change.ChangeMaker;
+import ca.ucalgary.seng300.a1.journal.EventJournal;
+import ca.ucalgary.seng300.a1.journal.JournalException;
+import ca.ucalgary.seng300.a1.journal.JournalReader;
+import ca.ucalgary.seng300.a1.journal.StateSnapshot;
+import ca.ucalgary.seng300.a1.metrics.FlightRecorder;
+import ca.ucalgary.seng300.a1.metrics.MetricsRegistry;
+import ca.ucalgary.seng300.a1.metrics.SalesAnalytics;
+import ca.ucalgary.seng300.a1.timer.Timeout;
+import ca.ucalgary.seng300.a1.timer.TimeoutTask;
+import ca.ucalgary.seng300.a1.timer.TimingWheel;
+import ca.ucalgary.seng300.a1.trace.TraceWriter;
+
 /**
  * The controller class that initializes the implemented hardware and handles
  * events
@@ -12,11 +29,99 @@ import org.lsmr.vending.hardware.*;
  * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
  *
  */
-public class Controller implements Observer {
+public class Controller implements HardwareEventHandler {
+
+	/** The number of purchases held for a full chute unless changed */
+	public static final int DEFAULT_PENDING_LIMIT = 4;
+
+	/**
+	 * The number of times a snapshot is read before the newest one read whole
+	 * is returned instead
+	 */
+	public static final int SNAPSHOT_ATTEMPTS = 64;
+
+	// state is published to other threads, e.g. for monitoring, and only
+	// changed inside an update to the store so that it can be read together
+	// with the store, see getSnapshot. The balance is kept in the store.
+	private volatile String lastMessage = "";
+	private volatile int lastMessageCode = MessageCode.NONE;
+	private volatile String dclLastAction;
+
+	// names, prices and availability, swapped whole by operators at runtime
+	private final AtomicReference<PriceTable> priceTable;
+
+	// the pops in and sold from each rack, the enabled state of the hardware and
+	// the items in the chute, kept up to date from the events so that a purchase
+	// can be refused without touching the hardware. They live in this machine's
+	// slot of a store that may hold a whole fleet. Events may arrive from
+	// several threads, so they are handled one at a time under the state lock,
+	// and the state is then written with plain stores rather than atomic
+	// read-modify-writes. From one thread, e.g. a fleet loop, the lock costs an
+	// uncontended compare-and-set per event; threads that contend for it park
+	// and allocate a queue node each time, so drivers on several threads
+	// should expect that latency and garbage. Readers never take the lock.
+	// Events nest, so only the outermost one is marked as an update in the store.
+	private final MachineStateStore store;
+	private final int slot;
+	private final ReentrantLock stateLock = new ReentrantLock();
+
+	// the newest snapshot read whole, for readers that keep being interrupted
+	private final AtomicReference<ControllerSnapshot> lastSnapshot = new AtomicReference<ControllerSnapshot>();
+
+	// paid purchases waiting for the chute to be emptied, oldest first
+	private int[] pendingRack;
+	private int[] pendingCost;
+	private int pendingHead = 0;
+	private int pendingSize = 0;
+	private final int[] pendingPerRack;
+
+	// coins in each coin rack, used to work out change
+	private final ChangeMaker changeMaker;
+	private final int[] changePlan;
+
+	// coins in the receptacle and racks, and whether the coin slot was disabled
+	// to keep the receptacle from overflowing
+	private final CoinStorage coinStorage;
+	private int coinStorageReserve = 0;
+	private boolean slotDisabledForStorage = false;
+	private volatile TimeSource timeSource = TimeSource.SYSTEM;
+
+	// optional return of credit left after a time without a coin or press. The
+	// timeout is put off in place on every coin and press, which is cheap.
+	private TimingWheel sessionTimers;
+	private long sessionTimeoutMillis;
+	private final Timeout sessionTimeout = new Timeout(new TimeoutTask() {
+		public void expired(Timeout timeout) {
+			expireSession();
+		}
+	});
 
-	private int balance = 0;
-	private String lastMessage = "";
-	private String dclLastAction;
+	// optional record of every coin, dispense and failure
+	private EventJournal journal;
+
+	// optional periodic snapshot that lets the journal be truncated
+	private File snapshotFile;
+	private int checkpointInterval;
+
+	// optional event counts and latencies
+	private volatile MetricsRegistry metrics;
+	private int eventsSinceTimed = 0;
+
+	// optional record of the last events handled
+	private volatile FlightRecorder recorder;
+
+	// optional sales counts over sliding windows
+	private volatile SalesAnalytics sales;
+
+	// optional trace of every event, and how deeply the current one is nested
+	private TraceWriter trace;
+	private int depth = 0;
+
+	// messages built once so that events do not allocate strings
+	private String[] rackDisabledMessage;
+	private String[] rackEmptyMessage;
+	private String[] buttonDisabledMessage;
+	private String[] notAvailableMessage;
 
 	// hardware
 	private VendingMachine vendingMachine;
@@ -25,6 +130,8 @@ public class Controller implements Observer {
 	private CSListener csListener = new CSListener();
 	private SBListener[] sbListener;
 	private PCRListener[] pcrListener;
+	private CRListener[] crListener;
+	private CRecListener crecListener = new CRecListener();
 	private DCListener dcListener = new DCListener();
 
 	/**
@@ -35,162 +142,1342 @@ public class Controller implements Observer {
 	 * @param buttonLabel Button Labels
 	 */
 	public Controller(VendingMachine vendingMachine, String[] buttonLabel) {
+		this(vendingMachine, buttonLabel, new MachineStateStore(1, vendingMachine.getNumberOfSelectionButtons()));
+	}
+
+	/**
+	 * Constructor that keeps the controller state in the next free slot of a
+	 * store shared with other machines
+	 *
+	 * @param vendingMachine The vending machine hardware the controller is being run on
+	 * @param buttonLabel Button Labels
+	 * @param store The store, with as many racks per machine as the hardware has
+	 */
+	public Controller(VendingMachine vendingMachine, String[] buttonLabel, MachineStateStore store) {
 
 		this.vendingMachine = vendingMachine;
 
+		int selections = vendingMachine.getNumberOfSelectionButtons();
+		if (store.getRacksPerMachine() != selections) {
+			throw new IllegalArgumentException(
+					"Store has " + store.getRacksPerMachine() + " racks per machine, machine has " + selections);
+		}
+		this.store = store;
+		slot = store.allocate();
+		rackDisabledMessage = MessageCode.buildRackMessages("Rack ", " is disabled", selections);
+		rackEmptyMessage = MessageCode.buildRackMessages("Rack ", " is empty", selections);
+		buttonDisabledMessage = MessageCode.buildRackMessages("Button ", " is disabled", selections);
+		notAvailableMessage = MessageCode.buildRackMessages("Rack ", " is not available", selections);
+		priceTable = new AtomicReference<PriceTable>(PriceTable.fromMachine(vendingMachine));
+		for (int i = 0; i < selections; i++) {
+			store.setInventory(slot, i, vendingMachine.getPopCanRack(i).size());
+			store.setButtonDisabled(slot, i, vendingMachine.getSelectionButton(i).isDisabled());
+			store.setRackDisabled(slot, i, vendingMachine.getPopCanRack(i).isDisabled());
+		}
+		store.setChuteDisabled(slot, vendingMachine.getDeliveryChute().isDisabled());
+		store.setChuteFull(slot, !vendingMachine.getDeliveryChute().hasSpace());
+		store.setChuteOccupancy(slot, vendingMachine.getDeliveryChute().size());
+		pendingRack = new int[DEFAULT_PENDING_LIMIT];
+		pendingCost = new int[DEFAULT_PENDING_LIMIT];
+		pendingPerRack = new int[selections];
+
+		int coinRacks = vendingMachine.getNumberOfCoinRacks();
+		int[] denominations = new int[coinRacks];
+		int largestCoin = 0;
+		for (int i = 0; i < coinRacks; i++) {
+			denominations[i] = vendingMachine.getCoinKindForCoinRack(i);
+			largestCoin = Math.max(largestCoin, denominations[i]);
+		}
+		int largestCost = priceTable.get().getLargestCost();
+		// change is usually less than a pop and a coin; larger amounts grow the tables
+		changeMaker = new ChangeMaker(denominations, largestCost + largestCoin);
+		changePlan = new int[coinRacks];
+		for (int i = 0; i < coinRacks; i++) {
+			changeMaker.setCount(i, vendingMachine.getCoinRack(i).size());
+			changeMaker.setDisabled(i, vendingMachine.getCoinRack(i).isDisabled());
+		}
+		int[] coinRackCapacity = new int[coinRacks];
+		for (int i = 0; i < coinRacks; i++) {
+			coinRackCapacity[i] = vendingMachine.getCoinRack(i).getCapacity();
+		}
+		// the machine builds its delivery chute with the receptacle capacity
+		coinStorage = new CoinStorage(denominations, coinRackCapacity, vendingMachine.getDeliveryChute().getCapacity());
+		for (int i = 0; i < coinRacks; i++) {
+			coinStorage.setRackCount(i, vendingMachine.getCoinRack(i).size());
+		}
+		coinStorage.setReceptacleSize(vendingMachine.getCoinReceptacle().size());
+
 		// register coinslot listener
 		vendingMachine.getCoinSlot().register(csListener);
-		csListener.addObserver(this);
+		csListener.setHandler(this);
 
 		// register button listeners
 		sbListener = new SBListener[vendingMachine.getNumberOfSelectionButtons()];
 		for (int i = 0; i < vendingMachine.getNumberOfSelectionButtons(); i++) {
 			// register and bind each button to the observer with the name of the popkind
-			sbListener[i] = new SBListener(i, vendingMachine.getPopKindName(i));
+			sbListener[i] = new SBListener(i, priceTable.get().getName(i));
 			vendingMachine.getSelectionButton(i).register(sbListener[i]);
-			sbListener[i].addObserver(this);
+			sbListener[i].setHandler(this);
 		}
 
 		// register pop can rack listeners
 		pcrListener = new PCRListener[vendingMachine.getNumberOfPopCanRacks()];
 		for (int i = 0; i < vendingMachine.getNumberOfPopCanRacks(); i++) {
 			// register and bind each button to the observer with the name of the popkind
-			pcrListener[i] = new PCRListener(i, vendingMachine.getPopKindName(i));
+			pcrListener[i] = new PCRListener(i, priceTable.get().getName(i));
 			vendingMachine.getPopCanRack(i).register(pcrListener[i]);
-			(pcrListener[i]).addObserver(this);
+			pcrListener[i].setHandler(this);
 		}
 
+		// register coin rack listeners
+		crListener = new CRListener[coinRacks];
+		for (int i = 0; i < coinRacks; i++) {
+			crListener[i] = new CRListener(i);
+			vendingMachine.getCoinRack(i).register(crListener[i]);
+			crListener[i].setHandler(this);
+		}
+
+		// register coin receptacle listener
+		vendingMachine.getCoinReceptacle().register(crecListener);
+		crecListener.setHandler(this);
+
 		// register delivery chute listener
 		vendingMachine.getDeliveryChute().register(dcListener);
-		dcListener.addObserver(this);
-	}
-
-	/**
-	 * Handles the event when a listener detects an event
-	 *
-	 * @param listener
-	 *            the listener object
-	 * @param obj
-	 *            the object in this class that
-	 */
-	public void update(Observable listener, Object obj) {
-		// Coin Slot Event
-		if (listener == csListener) {
-			lastMessage = csListener.getStatus();
-			switch (lastMessage) {
-			case "Enabled":
-				break;
-			case "Disabled":
-				break;
-			case "Accepted":
-				balance += csListener.getLastCoinValue();
-				break;
-			case "Rejected":
-				break;
-			default:
-				throw new SimulationException("Unknown Coin Slot Event");
+		dcListener.setHandler(this);
+
+		// no event can be under way yet, so this read is whole
+		getSnapshot();
+	}
+
+	/**
+	 * Handles an event delivered by one of the listeners. Events are routed on
+	 * their type and ID, so the cost does not depend on the number of racks.
+	 * May be called from several threads; events are handled one at a time
+	 * under a lock held for the whole event, so callers on other threads wait.
+	 *
+	 * @param type
+	 *            the kind of event
+	 * @param id
+	 *            the ID of the rack or button that the event came from
+	 * @param value
+	 *            the value of the event (e.g. the value of an accepted coin)
+	 */
+	public void handleEvent(EventType type, int id, int value) {
+		beginUpdate();
+		try {
+			trace(type, id, value);
+		} finally {
+			endUpdate();
+		}
+	}
+
+	//marks the start of a change to the state in the store, so readers on
+	//other threads do not see the state part way through an event, and keeps
+	//events on other threads out until it ends
+	private void beginUpdate() {
+		stateLock.lock();
+		if (stateLock.getHoldCount() == 1) {
+			store.beginUpdate(slot);
+		}
+	}
+
+	//marks the end of a change to the state in the store
+	private void endUpdate() {
+		if (stateLock.getHoldCount() == 1) {
+			store.endUpdate(slot);
+		}
+		stateLock.unlock();
+	}
+
+	//handles an event, writing it to the trace if one is attached
+	private void trace(EventType type, int id, int value) {
+		TraceWriter trace = this.trace;
+		if (trace == null) {
+			record(type, id, value);
+			return;
+		}
+
+		trace.event(type, depth, id, value);
+		depth++;
+		try {
+			record(type, id, value);
+		} finally {
+			depth--;
+		}
+	}
+
+	//handles an event, keeping it in the flight recorder if one is attached
+	private void record(EventType type, int id, int value) {
+		FlightRecorder recorder = this.recorder;
+		if (recorder == null) {
+			measure(type, id, value);
+			return;
+		}
+
+		try {
+			measure(type, id, value);
+		} catch (RuntimeException e) {
+			recorder.record(type, id, value, store.getBalance(slot));
+			recorder.dumpOnException(e);
+			throw e;
+		}
+		recorder.record(type, id, value, store.getBalance(slot));
+	}
+
+	//handles an event, counting and timing it if metrics are attached
+	private void measure(EventType type, int id, int value) {
+		MetricsRegistry metrics = this.metrics;
+		if (metrics == null) {
+			dispatch(type, id, value);
+			return;
+		}
+
+		// reading the clock costs more than most events, so only time a sample
+		metrics.count(type);
+		if ((++eventsSinceTimed & metrics.getSampleMask()) != 0) {
+			dispatch(type, id, value);
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			dispatch(type, id, value);
+		} finally {
+			metrics.recordLatency(type, System.nanoTime() - start);
+		}
+	}
+
+	//handles an event
+	private void dispatch(EventType type, int id, int value) {
+		switch (type) {
+
+		// Coin Slot Events
+		case COIN_SLOT_ENABLED:
+			slotDisabledForStorage = false;
+			setMessage(MessageCode.ENABLED);
+			break;
+
+		case COIN_SLOT_DISABLED:
+			setMessage(MessageCode.DISABLED);
+			break;
+
+		case COIN_ACCEPTED:
+			// an accepted coin is held in the receptacle
+			coinStorage.coinEntered(value, timeSource.currentTimeMillis());
+			checkCoinStorage();
+			setMessage(MessageCode.ACCEPTED);
+			journal(EventJournal.COIN, 0, value, store.addBalance(slot, value));
+			extendSession();
+			break;
+
+		case COIN_REJECTED:
+			setMessage(MessageCode.REJECTED);
+			extendSession();
+			break;
+
+		// Selection Button Events
+		case BUTTON_PRESSED:
+			purchase(id);
+			extendSession();
+			break;
+
+		case BUTTON_DISABLED:
+			store.setButtonDisabled(slot, id, true);
+			break;
+
+		case BUTTON_ENABLED:
+			store.setButtonDisabled(slot, id, false);
+			break;
+
+		// Pop Can Rack Events
+		case CAN_REMOVED:
+			store.addInventory(slot, id, -1);
+			setMessage(MessageCode.CAN_REMOVED);
+			break;
+
+		case CAN_ADDED:
+			store.addInventory(slot, id, 1);
+			setMessage(MessageCode.CAN_ADDED);
+			break;
+
+		case CANS_LOADED:
+			store.addInventory(slot, id, value);
+			break;
+
+		case CANS_UNLOADED:
+			store.addInventory(slot, id, -value);
+			break;
+
+		case RACK_FULL:
+			setMessage(MessageCode.FULL_RACK);
+			break;
+
+		case RACK_EMPTY:
+			store.setInventory(slot, id, 0);
+			setMessage(MessageCode.EMPTY_RACK);
+			break;
+
+		case RACK_ENABLED:
+			store.setRackDisabled(slot, id, false);
+			setMessage(MessageCode.ENABLED);
+			break;
+
+		case RACK_DISABLED:
+			store.setRackDisabled(slot, id, true);
+			setMessage(MessageCode.DISABLED);
+			break;
+
+		// Delivery Chute Events
+		case CHUTE_ENABLED:
+			store.setChuteDisabled(slot, false);
+			dclLastAction = "Enabled";
+			deliverPending();
+			break;
+
+		case CHUTE_DISABLED:
+			store.setChuteDisabled(slot, true);
+			dclLastAction = "Disabled";
+			break;
+
+		case ITEM_DELIVERED:
+			store.addChuteOccupancy(slot, 1);
+			dclLastAction = "Item Delivered";
+			break;
+
+		case CHUTE_FULL:
+			store.setChuteFull(slot, true);
+			dclLastAction = "Chute Full";
+			checkCoinStorage();
+			break;
+
+		case DOOR_OPENED:
+			dclLastAction = "Door Opened";
+			break;
+
+		case DOOR_CLOSED:
+			// everything in the chute has been taken out
+			store.setChuteFull(slot, false);
+			store.setChuteOccupancy(slot, 0);
+			dclLastAction = "Door Closed";
+			checkCoinStorage();
+			deliverPending();
+			break;
+
+		// Coin Rack Events
+		case COIN_RACK_ENABLED:
+			changeMaker.setDisabled(id, false);
+			break;
+
+		case COIN_RACK_DISABLED:
+			changeMaker.setDisabled(id, true);
+			break;
+
+		case COIN_ADDED:
+		case COINS_LOADED:
+			changeMaker.add(id, value);
+			coinStorage.addToRack(id, value);
+			break;
+
+		case COIN_REMOVED:
+		case COINS_UNLOADED:
+			changeMaker.add(id, -value);
+			coinStorage.addToRack(id, -value);
+			break;
+
+		case COIN_RACK_EMPTY:
+			changeMaker.setCount(id, 0);
+			coinStorage.setRackCount(id, 0);
+			break;
+
+		case COIN_RACK_FULL:
+			break;
+
+		// Coin Receptacle Events
+		case RECEPTACLE_LOADED:
+			coinStorage.coinLoaded(value);
+			checkCoinStorage();
+			break;
+
+		case RECEPTACLE_EMPTIED:
+		case RECEPTACLE_UNLOADED:
+			coinStorage.receptacleEmptied();
+			checkCoinStorage();
+			break;
+
+		default:
+			throw new SimulationException("Unknown Hardware Event");
+		}
+	}
+
+	/**
+	 * Dispenses a pop from a rack if enough money has been entered. The
+	 * purchase is checked against the state kept from the hardware events first,
+	 * so a refused purchase never touches the hardware or throws. The cost is
+	 * debited before dispensing so that concurrent presses cannot spend the same
+	 * credit twice, and refunded if the hardware still fails to dispense.
+	 *
+	 * @param rackID
+	 *            the rack associated with the pressed button
+	 */
+	private void purchase(int rackID) {
+		if (store.isButtonDisabled(slot, rackID)) {
+			refuse(rackID, MessageCode.BUTTON_DISABLED, buttonDisabledMessage[rackID]);
+			return;
+		}
+
+		// one read, so the cost and availability come from the same table
+		PriceTable prices = priceTable.get();
+		if (!prices.isAvailable(rackID)) {
+			refuse(rackID, MessageCode.NOT_AVAILABLE, notAvailableMessage[rackID]);
+			return;
+		}
+
+		int cost = prices.getCost(rackID);
+		// do nothing if not enough change
+		if (store.getBalance(slot) < cost) {
+			refuse(rackID, MessageCode.NOT_ENOUGH_MONEY, MessageCode.getText(MessageCode.NOT_ENOUGH_MONEY));
+			return;
+		}
+
+		if (store.isRackDisabled(slot, rackID)) {
+			refuse(rackID, MessageCode.RACK_DISABLED, rackDisabledMessage[rackID]);
+			return;
+		}
+		// count the cans added to the rack so far if a restock is under way
+		pcrListener[rackID].flushPending();
+		// pops already sold to queued purchases are spoken for
+		if (store.getInventory(slot, rackID) - pendingPerRack[rackID] <= 0) {
+			refuse(rackID, MessageCode.RACK_IS_EMPTY, rackEmptyMessage[rackID]);
+			return;
+		}
+		if (store.isChuteDisabled(slot)) {
+			refuse(rackID, MessageCode.CHUTE_DISABLED, MessageCode.getText(MessageCode.CHUTE_DISABLED));
+			return;
+		}
+		// wait behind earlier purchases so pops are delivered in the order paid for
+		if (store.isChuteFull(slot) || pendingSize > 0) {
+			holdForChute(rackID, cost);
+			return;
+		}
+
+		// the credit was checked above and no other event can run in between
+		store.addBalance(slot, -cost);
+
+		// the hardware should not fail here, but refund the customer if it does
+		try {
+			vendingMachine.getPopCanRack(rackID).dispensePopCan();
+			sold(rackID, cost);
+			journal(EventJournal.DISPENSE, rackID, cost, store.getBalance(slot));
+		} catch (DisabledException e) {
+			store.addBalance(slot, cost);
+			refuse(rackID, MessageCode.RACK_DISABLED, rackDisabledMessage[rackID]);
+		} catch (EmptyException e) {
+			store.setInventory(slot, rackID, 0);
+			store.addBalance(slot, cost);
+			refuse(rackID, MessageCode.RACK_IS_EMPTY, rackEmptyMessage[rackID]);
+		} catch (CapacityExceededException e) {
+			store.setChuteFull(slot, true);
+			store.addBalance(slot, cost);
+			refuse(rackID, MessageCode.DISPENSE_FAILED, e.getMessage());
+		} catch (SimulationException e) {
+			store.addBalance(slot, cost);
+			throw e;
+		}
+	}
+
+	//counts a pop dispensed, and adds it to the sales analytics if attached
+	private void sold(int rackID, int cost) {
+		store.addSale(slot, rackID);
+		store.addRevenue(slot, cost);
+		SalesAnalytics sales = this.sales;
+		if (sales != null) {
+			sales.recordSale(rackID, cost);
+		}
+	}
+
+	/**
+	 * Takes payment for a purchase that cannot be delivered until the chute is
+	 * emptied, and queues it. Refused if the queue is full.
+	 */
+	private void holdForChute(int rackID, int cost) {
+		if (pendingSize == pendingRack.length) {
+			refuse(rackID, MessageCode.CHUTE_FULL, MessageCode.getText(MessageCode.CHUTE_FULL));
+			return;
+		}
+		store.addBalance(slot, -cost);
+		int tail = (pendingHead + pendingSize) % pendingRack.length;
+		pendingRack[tail] = rackID;
+		pendingCost[tail] = cost;
+		pendingSize++;
+		pendingPerRack[rackID]++;
+		journal(EventJournal.PENDING, rackID, cost, store.getBalance(slot));
+		setMessage(MessageCode.DELIVERY_PENDING);
+	}
+
+	/**
+	 * Dispenses the queued purchases, oldest first, until the queue is empty
+	 * or the chute fills up again. A purchase whose rack can no longer
+	 * dispense is refunded.
+	 */
+	private void deliverPending() {
+		while (pendingSize > 0 && !store.isChuteFull(slot) && !store.isChuteDisabled(slot)) {
+			int rackID = pendingRack[pendingHead];
+			int cost = pendingCost[pendingHead];
+			pendingHead = (pendingHead + 1) % pendingRack.length;
+			pendingSize--;
+			pendingPerRack[rackID]--;
+			try {
+				vendingMachine.getPopCanRack(rackID).dispensePopCan();
+				sold(rackID, cost);
+				journal(EventJournal.DISPENSE, rackID, cost, store.getBalance(slot));
+			} catch (CapacityExceededException e) {
+				// the chute filled up without saying so; try again when it is emptied
+				store.setChuteFull(slot, true);
+				pendingHead = (pendingHead + pendingRack.length - 1) % pendingRack.length;
+				pendingSize++;
+				pendingPerRack[rackID]++;
+			} catch (DisabledException e) {
+				refund(rackID, cost, MessageCode.RACK_DISABLED, rackDisabledMessage[rackID]);
+			} catch (EmptyException e) {
+				store.setInventory(slot, rackID, 0);
+				refund(rackID, cost, MessageCode.RACK_IS_EMPTY, rackEmptyMessage[rackID]);
 			}
 		}
+	}
 
-		// Selection Button Event
-		for (SBListener activatedButton : sbListener) {
-			if (listener == activatedButton) {
-				switch (activatedButton.getStatus()) {
-				case "Pressed":
-					int rackID = activatedButton.getID();
-
-					// dispense pop if enough money
-					if (balance >= vendingMachine.getPopKindCost(rackID) &&
-									!vendingMachine.getSelectionButton(rackID).isDisabled()) {
-						try {
-							vendingMachine.getPopCanRack(rackID).dispensePopCan();
-							// adjust balance
-							balance -= vendingMachine.getPopKindCost(rackID);
-						} catch (DisabledException e) {
-							lastMessage = "Rack " + rackID + " is disabled";
-						}catch (EmptyException e) {
-							lastMessage = "Rack " + rackID + " is empty";
-						}catch (CapacityExceededException e) {
-							lastMessage = e.getMessage();
-						}
-					} else if (vendingMachine.getSelectionButton(rackID).isDisabled()) {
-						lastMessage = "Button " + rackID + " is disabled";
-					} else {
-						lastMessage = "Not enough money";
-					}
-					// do nothing if not enough change
-					break;
+	//gives back the price of a queued purchase that could not be dispensed
+	private void refund(int rackID, int cost, int code, String text) {
+		store.addBalance(slot, cost);
+		journal(EventJournal.REFUND, rackID, cost, store.getBalance(slot));
+		setMessage(code, text);
+	}
 
-				case "Disabled":
-					// Thinking of adding something so it know's that it is disabled TODO
-					break;
+	/**
+	 * Sets the most purchases held while the delivery chute is full. Extra
+	 * purchases are refused. Can only be changed while none are held.
+	 *
+	 * @param limit
+	 *            the number of purchases to hold, 0 to refuse them all
+	 */
+	public void setPendingDeliveryLimit(int limit) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit must not be negative: " + limit);
+		}
+		if (pendingSize > 0) {
+			throw new IllegalStateException("Purchases are waiting for the chute");
+		}
+		pendingRack = new int[limit];
+		pendingCost = new int[limit];
+		pendingHead = 0;
+	}
 
-				case "Enabled":
-					break;
+	/**
+	 * @return the number of paid purchases waiting for the chute to be emptied
+	 */
+	public int getPendingDeliveries() {
+		return pendingSize;
+	}
 
-				default:
-					throw new SimulationException("Unknown Button Action");
+	/**
+	 * @return the number of items in the delivery chute
+	 */
+	public int getChuteOccupancy() {
+		return store.getChuteOccupancy(slot);
+	}
+
+	//disables the coin slot before a coin has nowhere to go, and enables it
+	//again once the receptacle or chute has been emptied. Coins that do not fit
+	//in the receptacle are returned through the delivery chute.
+	private void checkCoinStorage() {
+		CoinSlot coinSlot = vendingMachine.getCoinSlot();
+		int chuteSpace = store.isChuteFull(slot) ? 0
+				: Math.max(0, vendingMachine.getDeliveryChute().getCapacity() - store.getChuteOccupancy(slot));
+		if (coinStorage.getReceptacleSpace() + chuteSpace <= coinStorageReserve) {
+			if (!coinSlot.isDisabled()) {
+				slotDisabledForStorage = true;
+				coinSlot.disable();
+			}
+		} else if (slotDisabledForStorage) {
+			coinSlot.enable();
+		}
+	}
+
+	/**
+	 * Sets the number of places kept free in the coin receptacle and delivery
+	 * chute when the coin slot is disabled, e.g. for coins entered before an
+	 * event handler on another thread disables it. The slot is disabled when
+	 * both are full unless changed.
+	 *
+	 * @param reserve
+	 *            the number of places kept free
+	 */
+	public void setCoinStorageReserve(int reserve) {
+		if (reserve < 0) {
+			throw new IllegalArgumentException("Reserve cannot be negative: " + reserve);
+		}
+		coinStorageReserve = reserve;
+		checkCoinStorage();
+	}
+
+	/**
+	 * @return true if the coin slot is disabled because the receptacle and
+	 *         chute are full
+	 */
+	public boolean isCoinStorageFull() {
+		return slotDisabledForStorage;
+	}
+
+	/**
+	 * @return the fill levels of the coin receptacle and racks
+	 */
+	public CoinStorage getCoinStorage() {
+		return coinStorage;
+	}
+
+	/**
+	 * @return the forecast milliseconds until the coin receptacle or a coin rack
+	 *         is full and the coins need emptying, or
+	 *         {@link CoinStorage#NO_FORECAST} if no coins have been entered
+	 */
+	public long getCoinStorageTimeToFull() {
+		return coinStorage.getTimeToFull(timeSource.currentTimeMillis());
+	}
+
+	/**
+	 * Sets the clock used to measure the rate coins are entered, e.g. the
+	 * simulated time in a simulation
+	 *
+	 * @param timeSource
+	 *            the clock
+	 */
+	public void setTimeSource(TimeSource timeSource) {
+		this.timeSource = timeSource;
+	}
+
+	/**
+	 * Returns credit to the customer once the machine has gone unused for a
+	 * time, measured from the last coin or button press. The timeout waits in a
+	 * timing wheel, which must be advanced on the thread that handles this
+	 * machine's events, e.g. the wheel of the fleet event loop that owns it.
+	 * If the change cannot be made, the credit is kept and returning it is
+	 * tried again after another timeout.
+	 *
+	 * @param timers
+	 *            the timing wheel, or null to keep credit until it is spent
+	 * @param timeoutMillis
+	 *            the time without a coin or press before the credit is
+	 *            returned, or 0 to keep credit until it is spent
+	 */
+	public void setSessionTimeout(TimingWheel timers, long timeoutMillis) {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException("Timeout cannot be negative: " + timeoutMillis);
+		}
+		sessionTimeout.cancel();
+		sessionTimers = timeoutMillis == 0 ? null : timers;
+		sessionTimeoutMillis = timeoutMillis;
+		extendSession();
+	}
+
+	/**
+	 * @return true if credit is waiting to be returned when the session times
+	 *         out
+	 */
+	public boolean isSessionPending() {
+		return sessionTimeout.isPending();
+	}
+
+	//starts the session timeout again while there is credit, and stops it once
+	//there is none
+	private void extendSession() {
+		TimingWheel timers = sessionTimers;
+		if (timers == null) {
+			return;
+		}
+		if (store.getBalance(slot) > 0) {
+			timers.schedule(sessionTimeout, sessionTimeoutMillis);
+		} else {
+			sessionTimeout.cancel();
+		}
+	}
+
+	//returns the credit of a session that has gone quiet
+	private void expireSession() {
+		returnChange();
+		// e.g. no change or a full chute; try again later
+		if (store.getBalance(slot) > 0 && sessionTimers != null) {
+			sessionTimers.schedule(sessionTimeout, sessionTimeoutMillis);
+		}
+	}
+
+	/**
+	 * Returns the whole balance to the customer through the delivery chute,
+	 * using the fewest coins that the coin racks can make it up with. Nothing is
+	 * returned if the racks cannot make the exact amount.
+	 *
+	 * @return the value of the coins returned
+	 */
+	public int returnChange() {
+		beginUpdate();
+		try {
+			TraceWriter trace = this.trace;
+			if (trace == null) {
+				return releaseChange();
+			}
+
+			// the coin rack events are caused by the request, not by the customer
+			trace.returnChange(depth);
+			depth++;
+			try {
+				return releaseChange();
+			} finally {
+				depth--;
+			}
+		} finally {
+			endUpdate();
+		}
+	}
+
+	//returns the balance as change
+	private int releaseChange() {
+		int owed = store.getBalance(slot);
+		if (owed == 0) {
+			return 0;
+		}
+		if (store.isChuteDisabled(slot)) {
+			refuse(0, MessageCode.CHUTE_DISABLED, MessageCode.getText(MessageCode.CHUTE_DISABLED));
+			return 0;
+		}
+		if (store.isChuteFull(slot)) {
+			refuse(0, MessageCode.CHUTE_FULL, MessageCode.getText(MessageCode.CHUTE_FULL));
+			return 0;
+		}
+		if (!changeMaker.makeChange(owed, changePlan)) {
+			refuse(0, MessageCode.NO_CHANGE, MessageCode.getText(MessageCode.NO_CHANGE));
+			return 0;
+		}
+		store.addBalance(slot, -owed);
+
+		// credit back whatever the hardware fails to release
+		int returned = 0;
+		try {
+			for (int i = 0; i < changePlan.length; i++) {
+				CoinRack rack = vendingMachine.getCoinRack(i);
+				for (int j = 0; j < changePlan[i]; j++) {
+					rack.releaseCoin();
+					returned += changeMaker.getDenomination(i);
 				}
 			}
+		} catch (CapacityExceededException e) {
+			store.setChuteFull(slot, true);
+		} catch (DisabledException e) {
+			// the rack was disabled without an event
+		} catch (EmptyException e) {
+			// the rack count was wrong
+		} finally {
+			if (returned < owed) {
+				store.addBalance(slot, owed - returned);
+			}
 		}
 
-		// Pop Can Rack Event
-		for (PCRListener activatedRack : pcrListener) {
-			if (listener == activatedRack) {
-				switch (activatedRack.getLastAction()) {
+		if (returned > 0) {
+			journal(EventJournal.CHANGE, 0, returned, store.getBalance(slot));
+		}
+		if (returned < owed) {
+			refuse(0, MessageCode.NO_CHANGE, MessageCode.getText(MessageCode.NO_CHANGE));
+		} else {
+			setMessage(MessageCode.CHANGE_RETURNED);
+		}
+		return returned;
+	}
 
-				case "Can Removed":
-					lastMessage = "Can Removed";
-					break;
+	/**
+	 * Reports a purchase that could not be completed
+	 *
+	 * @param rackID
+	 *            the rack of the purchase
+	 * @param code
+	 *            the message code
+	 * @param text
+	 *            the message text
+	 */
+	private void refuse(int rackID, int code, String text) {
+		setMessage(code, text);
+		journal(EventJournal.FAILURE, rackID, code, store.getBalance(slot));
+	}
 
-				case "Can Added":
-					lastMessage = "Can Added";
-					break;
+	/**
+	 * Appends a record to the journal if one is attached
+	 */
+	private void journal(int kind, int id, int value, int newBalance) {
+		if (journal != null) {
+			journal.append(kind, id, value, newBalance);
+			// a snapshot does not hold queued purchases, so wait until there are none
+			if (snapshotFile != null && journal.size() >= checkpointInterval && pendingSize == 0) {
+				try {
+					checkpoint(snapshotFile);
+				} catch (IOException e) {
+					throw new JournalException("Unable to write snapshot " + snapshotFile, e);
+				}
+			}
+		}
+	}
 
-				case "Full Rack":
-					lastMessage = "Full Rack";
-					break;
+	/**
+	 * Fills a rack to capacity with a single load, so the controller handles
+	 * one event however many cans go in
+	 *
+	 * @param rackID
+	 *            the rack
+	 * @return the number of cans loaded
+	 */
+	public int restock(int rackID) {
+		return fillRack(rackID);
+	}
 
-				case "Empty Rack":
-					lastMessage = "Empty Rack";
-					break;
+	/**
+	 * Fills every rack to capacity with one load each, so a restock costs one
+	 * event per rack rather than one per can
+	 *
+	 * @return the number of cans loaded
+	 */
+	public int restockAll() {
+		int loaded = 0;
+		for (int i = 0; i < getNumberOfRacks(); i++) {
+			loaded += fillRack(i);
+		}
+		return loaded;
+	}
 
-				case "Enabled":
-					lastMessage = "Enabled";
-					break;
+	//tops a rack up to capacity
+	private int fillRack(int rackID) {
+		PopCanRack rack = vendingMachine.getPopCanRack(rackID);
+		int missing = rack.getCapacity() - rack.size();
+		if (missing <= 0) {
+			return 0;
+		}
+		PopCan[] cans = new PopCan[missing];
+		for (int i = 0; i < missing; i++) {
+			cans[i] = new PopCan(priceTable.get().getName(rackID));
+		}
+		rack.load(cans);
+		return missing;
+	}
 
-				case "Disabled":
-					lastMessage = "Disabled";
-					break;
+	/**
+	 * Starts a restock where a technician adds cans one at a time. Until
+	 * {@link #endRestock()}, the cans added to each rack are counted by its
+	 * listener instead of being handled one by one. A purchase from a rack
+	 * first handles the cans added to it so far as one load, so the machine
+	 * can stay in service during a restock.
+	 */
+	public void beginRestock() {
+		for (PCRListener listener : pcrListener) {
+			listener.setCoalescing(true);
+		}
+	}
+
+	/**
+	 * Ends a restock, handling the cans added to each rack as one load
+	 */
+	public void endRestock() {
+		for (PCRListener listener : pcrListener) {
+			listener.setCoalescing(false);
+		}
+	}
+
+	/**
+	 * @return the names, prices and availability of the selections
+	 */
+	public PriceTable getPriceTable() {
+		return priceTable.get();
+	}
+
+	/**
+	 * Replaces the names, prices and availability of the selections. May be
+	 * called from any thread while events are being handled; each purchase
+	 * uses either the old table or the new one, never a mix. The hardware
+	 * configuration is left alone.
+	 *
+	 * @param table
+	 *            the new table, with an entry for every selection
+	 */
+	public void setPriceTable(PriceTable table) {
+		checkSize(table);
+		priceTable.set(table);
+		relabel(table);
+	}
+
+	/**
+	 * Replaces the table only if it has not changed since it was read, so that
+	 * operators changing different selections at once do not undo each other
+	 *
+	 * @param expected
+	 *            the table the change was based on
+	 * @param table
+	 *            the new table, with an entry for every selection
+	 * @return true if the table was replaced
+	 */
+	public boolean compareAndSetPriceTable(PriceTable expected, PriceTable table) {
+		checkSize(table);
+		if (!priceTable.compareAndSet(expected, table)) {
+			return false;
+		}
+		relabel(table);
+		return true;
+	}
+
+	/**
+	 * Replaces the names, prices and availability of the selections without
+	 * renaming the listeners, for a caller on another thread than the one
+	 * handling the events. Purchases use the new table at once; relabel must
+	 * then be called on the thread handling the events.
+	 *
+	 * @param table
+	 *            the new table, with an entry for every selection
+	 */
+	public void swapPriceTable(PriceTable table) {
+		checkSize(table);
+		priceTable.set(table);
+	}
+
+	/**
+	 * Renames the button and rack listeners after the current price table.
+	 * Must be called on the thread handling the events.
+	 */
+	public void relabel() {
+		relabel(priceTable.get());
+	}
+
+	private void checkSize(PriceTable table) {
+		if (table.size() != getNumberOfRacks()) {
+			throw new IllegalArgumentException(
+					"Price table has " + table.size() + " selections, machine has " + getNumberOfRacks());
+		}
+	}
+
+	//renames the listeners in place, so nothing is registered again
+	private void relabel(PriceTable table) {
+		for (int i = 0; i < sbListener.length; i++) {
+			sbListener[i].setLabel(table.getName(i));
+			pcrListener[i].setLabel(table.getName(i));
+		}
+	}
+
+	/**
+	 * Sends the events from every listener to another handler, e.g. one that
+	 * queues them for a controller thread. The handler must pass them on to
+	 * this controller.
+	 *
+	 * @param handler
+	 *            the handler, or null to have the listeners call this
+	 *            controller directly again
+	 */
+	public void setEventHandler(HardwareEventHandler handler) {
+		HardwareEventHandler target = handler == null ? this : handler;
+		csListener.setHandler(target);
+		for (SBListener listener : sbListener) {
+			listener.setHandler(target);
+		}
+		for (PCRListener listener : pcrListener) {
+			listener.setHandler(target);
+		}
+		for (CRListener listener : crListener) {
+			listener.setHandler(target);
+		}
+		crecListener.setHandler(target);
+		dcListener.setHandler(target);
+	}
+
+	/**
+	 * Counts every event handled from now on and times a sample of them.
+	 * Events that a handler causes, e.g. a can removed by a purchase, are timed
+	 * on their own and also as part of the event that caused them.
+	 *
+	 * @param metrics
+	 *            the registry to record into, or null to stop recording
+	 */
+	public void setMetrics(MetricsRegistry metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Keeps the last events handled from now on, with the balance each one
+	 * left. If the recorder has a dump file, the events are dumped to it when
+	 * handling an event throws.
+	 *
+	 * @param recorder
+	 *            the flight recorder, or null to stop recording
+	 */
+	public void setFlightRecorder(FlightRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Counts every pop dispensed from now on, with the price paid, in the
+	 * sliding windows of the analytics. Sales recovered from a journal are not
+	 * counted, since the journal does not record when they happened.
+	 *
+	 * @param sales
+	 *            the analytics, or null to stop counting
+	 */
+	public void setSalesAnalytics(SalesAnalytics sales) {
+		if (sales != null && sales.getNumberOfRacks() != getNumberOfRacks()) {
+			throw new IllegalArgumentException("Expected analytics for " + getNumberOfRacks() + " racks");
+		}
+		this.sales = sales;
+	}
+
+	/**
+	 * @return the sales analytics, or null if none are attached
+	 */
+	public SalesAnalytics getSalesAnalytics() {
+		return sales;
+	}
+
+	/**
+	 * @return the flight recorder, or null if none is attached
+	 */
+	public FlightRecorder getFlightRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Starts recording every event to a trace file that can be replayed with
+	 * {@link ca.ucalgary.seng300.a1.trace.TraceReplayer}. Events must come from
+	 * one thread at a time while tracing.
+	 *
+	 * @param traceFile
+	 *            the trace file, replaced if it exists
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	public void startTrace(File traceFile) throws IOException {
+		if (trace != null) {
+			throw new IllegalStateException("Already tracing");
+		}
+		trace = new TraceWriter(traceFile, vendingMachine, priceTable.get(), createSnapshot());
+	}
+
+	/**
+	 * Stops tracing and closes the trace file, writing the final state to it
+	 *
+	 * @throws IOException
+	 *             if the trace could not be written
+	 */
+	public void stopTrace() throws IOException {
+		TraceWriter finished = trace;
+		if (finished == null) {
+			return;
+		}
+		trace = null;
+		finished.close(store.getBalance(slot), lastMessageCode, lastMessage, dclLastAction);
+	}
+
+	/**
+	 * Attaches a journal that records every accepted coin, dispense and failure
+	 * from now on
+	 *
+	 * @param journal
+	 *            the journal, or null to stop journaling
+	 */
+	public void setJournal(EventJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Writes a snapshot every time the journal reaches the given number of
+	 * records, then truncates the journal
+	 *
+	 * @param snapshotFile
+	 *            the snapshot file, replaced by each checkpoint
+	 * @param interval
+	 *            the number of journal records between checkpoints
+	 */
+	public void setCheckpoint(File snapshotFile, int interval) {
+		this.snapshotFile = snapshotFile;
+		this.checkpointInterval = interval;
+	}
 
+	/**
+	 * Writes a snapshot of the current state and truncates the journal behind
+	 * it
+	 *
+	 * @param snapshotFile
+	 *            the snapshot file
+	 * @throws IOException
+	 *             if the snapshot cannot be written
+	 */
+	public void checkpoint(File snapshotFile) throws IOException {
+		createSnapshot().write(snapshotFile);
+		if (journal != null) {
+			journal.truncate();
+		}
+	}
+
+	/**
+	 * Captures the controller state together with the rack contents and the
+	 * enabled state of the hardware
+	 *
+	 * @return the snapshot
+	 */
+	public StateSnapshot createSnapshot() {
+		int racks = getNumberOfRacks();
+		int[] inventory = new int[racks];
+		int[] sales = new int[racks];
+		boolean[] buttons = new boolean[racks];
+		boolean[] rackStates = new boolean[racks];
+		for (int i = 0; i < racks; i++) {
+			inventory[i] = store.getInventory(slot, i);
+			sales[i] = store.getSalesCount(slot, i);
+			buttons[i] = vendingMachine.getSelectionButton(i).isDisabled();
+			rackStates[i] = vendingMachine.getPopCanRack(i).isDisabled();
+		}
+		return new StateSnapshot(journal == null ? 0 : journal.getSequence(), store.getBalance(slot), lastMessageCode,
+				lastMessage, dclLastAction, vendingMachine.getCoinSlot().isDisabled(),
+				vendingMachine.getDeliveryChute().isDisabled(), inventory, sales, buttons, rackStates);
+	}
+
+	/**
+	 * Restores the state in a snapshot, loading the racks and enabling or
+	 * disabling the hardware to match
+	 *
+	 * @param snapshot
+	 *            the snapshot to restore
+	 */
+	public void restore(StateSnapshot snapshot) {
+		beginUpdate();
+		try {
+			restoreState(snapshot);
+		} finally {
+			endUpdate();
+		}
+	}
+
+	//restores a snapshot
+	private void restoreState(StateSnapshot snapshot) {
+		for (int i = 0; i < snapshot.getNumberOfRacks(); i++) {
+			loadRack(i, snapshot.getInventory(i));
+			setDisabled(vendingMachine.getPopCanRack(i), snapshot.isRackDisabled(i));
+			setDisabled(vendingMachine.getSelectionButton(i), snapshot.isButtonDisabled(i));
+			store.setSalesCount(slot, i, snapshot.getSalesCount(i));
+		}
+		setDisabled(vendingMachine.getCoinSlot(), snapshot.isCoinSlotDisabled());
+		setDisabled(vendingMachine.getDeliveryChute(), snapshot.isChuteDisabled());
+
+		// the hardware events above change the messages, so restore them last
+		store.setBalance(slot, snapshot.getBalance());
+		setMessage(snapshot.getLastMessageCode(), snapshot.getLastMessage());
+		dclLastAction = snapshot.getChuteLastAction();
+	}
+
+	//replaces the contents of a rack with the given number of pops
+	private void loadRack(int rackID, int count) {
+		PopCanRack rack = vendingMachine.getPopCanRack(rackID);
+		rack.unload();
+		PopCan[] cans = new PopCan[count];
+		for (int i = 0; i < count; i++) {
+			cans[i] = new PopCan(priceTable.get().getName(rackID));
+		}
+		rack.load(cans);
+	}
+
+	//enables or disables a piece of hardware
+	private static void setDisabled(AbstractHardware<?> hardware, boolean disabled) {
+		if (disabled) {
+			hardware.disable();
+		} else {
+			hardware.enable();
+		}
+	}
+
+	/**
+	 * Rebuilds the balance, last message and sales counts by replaying a
+	 * journal, then keeps appending to it. Used at startup after the process
+	 * has died.
+	 *
+	 * @param journal
+	 *            the journal written before the restart
+	 */
+	public void recover(EventJournal journal) {
+		replay(journal, 0);
+	}
+
+	/**
+	 * Restores a snapshot and replays the journal records written after it,
+	 * then keeps appending to the journal. This is the fast restart path.
+	 *
+	 * @param snapshot
+	 *            the last snapshot written before the restart
+	 * @param journal
+	 *            the journal written before the restart
+	 */
+	public void recover(StateSnapshot snapshot, EventJournal journal) {
+		restore(snapshot);
+		replay(journal, snapshot.getJournalSequence());
+
+		// take the pops sold after the snapshot back out of the racks
+		for (int i = 0; i < snapshot.getNumberOfRacks(); i++) {
+			int soldSince = store.getSalesCount(slot, i) - snapshot.getSalesCount(i);
+			if (soldSince > 0) {
+				loadRack(i, Math.max(0, snapshot.getInventory(i) - soldSince));
+			}
+		}
+	}
+
+	//replays journal records from a sequence number on
+	private void replay(EventJournal journal, int fromSequence) {
+		beginUpdate();
+		try {
+			replayRecords(journal, fromSequence);
+		} finally {
+			endUpdate();
+		}
+	}
+
+	//replays journal records, refunding purchases that were still queued
+	private void replayRecords(EventJournal journal, int fromSequence) {
+		// purchases queued for the chute and not yet dispensed or refunded
+		final QueuedPurchases unfinished = new QueuedPurchases();
+		journal.replay(new JournalReader() {
+			public void record(int kind, int id, int value, int newBalance) {
+				switch (kind) {
+				case EventJournal.PENDING:
+					unfinished.add(id, value);
+					setMessage(MessageCode.DELIVERY_PENDING);
+					break;
+				case EventJournal.REFUND:
+					// the oldest queued purchase could not be dispensed
+					unfinished.removeOldest();
+					break;
+				case EventJournal.COIN:
+					setMessage(MessageCode.ACCEPTED);
+					break;
+				case EventJournal.DISPENSE:
+					// queued purchases are dispensed before any new one
+					unfinished.removeOldest();
+					store.addSale(slot, id);
+					store.addRevenue(slot, value);
+					setMessage(MessageCode.CAN_REMOVED);
+					break;
+				case EventJournal.FAILURE:
+					setMessage(value, messageText(value, id));
+					break;
+				case EventJournal.CHANGE:
+					setMessage(MessageCode.CHANGE_RETURNED);
+					break;
 				default:
-					throw new SimulationException("Unknown Rack Action");
+					throw new SimulationException("Unknown Journal Record");
 				}
+				store.setBalance(slot, newBalance);
 			}
+		}, fromSequence);
+
+		// the queue did not survive the restart, so give the customers their
+		// money back, one refund per purchase as the queue itself would
+		for (int i = 0; i < unfinished.size; i++) {
+			store.addBalance(slot, unfinished.cost[i]);
+			journal.append(EventJournal.REFUND, unfinished.rack[i], unfinished.cost[i], store.getBalance(slot));
 		}
+		this.journal = journal;
+	}
 
-		// Delivery Chute Event
-		if(listener == dcListener) {
-			switch(dcListener.getState()) {
+	/**
+	 * Returns the text of a message code, including the rack ID for messages
+	 * about a rack
+	 */
+	private String messageText(int code, int rackID) {
+		switch (code) {
+		case MessageCode.RACK_DISABLED:
+			return rackDisabledMessage[rackID];
+		case MessageCode.RACK_IS_EMPTY:
+			return rackEmptyMessage[rackID];
+		case MessageCode.BUTTON_DISABLED:
+			return buttonDisabledMessage[rackID];
+		case MessageCode.NOT_AVAILABLE:
+			return notAvailableMessage[rackID];
+		default:
+			return MessageCode.getText(code);
+		}
+	}
 
-			case "Enabled":
-				dclLastAction = "Enabled";
-				break;
+	/**
+	 * Sets the last message to the text of a message code
+	 *
+	 * @param code
+	 *            the message code
+	 */
+	private void setMessage(int code) {
+		lastMessageCode = code;
+		lastMessage = MessageCode.getText(code);
+	}
 
-			case "Disabled":
-				dclLastAction = "Disabled";
-				break;
+	/**
+	 * Sets the last message to a message code with its own text
+	 *
+	 * @param code
+	 *            the message code
+	 * @param text
+	 *            the message text
+	 */
+	private void setMessage(int code, String text) {
+		lastMessageCode = code;
+		lastMessage = text;
+	}
 
-			case "Item Delivered":
-				dclLastAction = "Item Delivered";
-				break;
+	/**
+	 * Reads the balance, last message, chute state and each rack's inventory and
+	 * button state as of one moment between events, without holding up the
+	 * thread handling the events. The state is read again if an event is
+	 * handled during the read, so the values always agree with each other.
+	 * After SNAPSHOT_ATTEMPTS spoiled reads, the newest snapshot read whole so
+	 * far is returned instead, which may be some events old. May be called from
+	 * any thread; called from inside the controller's own event handling, it
+	 * returns a snapshot from before the event.
+	 *
+	 * @return the snapshot
+	 */
+	public ControllerSnapshot getSnapshot() {
+		int racks = getNumberOfRacks();
+		int[] inventory = new int[racks];
+		boolean[] buttonDisabled = new boolean[racks];
+		for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+			int stamp = store.startRead(slot);
+			int credit = store.getBalance(slot);
+			long revenue = store.getRevenue(slot);
+			int messageCode = lastMessageCode;
+			String message = lastMessage;
+			String chuteAction = dclLastAction;
+			boolean chuteDisabled = store.isChuteDisabled(slot);
+			boolean chuteFull = store.isChuteFull(slot);
+			int chuteOccupancy = store.getChuteOccupancy(slot);
+			for (int i = 0; i < racks; i++) {
+				inventory[i] = store.getInventory(slot, i);
+				buttonDisabled[i] = store.isButtonDisabled(slot, i);
+			}
+			if (store.validate(slot, stamp)) {
+				ControllerSnapshot snapshot = new ControllerSnapshot(stamp, credit, revenue, messageCode, message,
+						chuteAction, chuteDisabled, chuteFull, chuteOccupancy, inventory, buttonDisabled);
+				publish(snapshot);
+				return snapshot;
+			}
+			// an event is being handled; let it finish
+			Thread.yield();
+		}
 
-			case "Full":
-				dclLastAction = "Chute Full";
-				break;
+		// events keep spoiling the read; rather than hold them up, give the
+		// newest state that was read whole
+		return lastSnapshot.get();
+	}
 
-			default:
-				throw new SimulationException("Unknown Delivery Chute Event");
+	//keeps a snapshot as the newest read whole, unless a newer one already is
+	private void publish(ControllerSnapshot snapshot) {
+		while (true) {
+			ControllerSnapshot last = lastSnapshot.get();
+			if (last != null && snapshot.getSequence() - last.getSequence() <= 0) {
+				return;
+			}
+			if (lastSnapshot.compareAndSet(last, snapshot)) {
+				return;
 			}
 		}
 	}
@@ -201,15 +1488,101 @@ public class Controller implements Observer {
 	 * @return balance
 	 */
 	public int getBalance() {
-		return balance;
+		return store.getBalance(slot);
 	}
 
 	public String getLastMessage() {
 		return lastMessage;
 	}
 
+	/**
+	 * Returns the code of the last message, see {@link MessageCode}
+	 *
+	 * @return the last message code
+	 */
+	public int getLastMessageCode() {
+		return lastMessageCode;
+	}
+
 	public String getDCLastAction() {
 		return dclLastAction;
 	}
 
+	/**
+	 * Returns the number of pops sold from a rack
+	 *
+	 * @param rackID
+	 *            the rack
+	 * @return the number of pops dispensed from the rack
+	 */
+	public int getSalesCount(int rackID) {
+		return store.getSalesCount(slot, rackID);
+	}
+
+	/**
+	 * @return the money taken for pops dispensed, including those in a
+	 *         journal the controller recovered from
+	 */
+	public long getRevenue() {
+		return store.getRevenue(slot);
+	}
+
+	/**
+	 * Returns the number of pops in a rack without asking the hardware
+	 *
+	 * @param rackID
+	 *            the rack
+	 * @return the number of pops in the rack
+	 */
+	public int getInventory(int rackID) {
+		return store.getInventory(slot, rackID);
+	}
+
+	/**
+	 * @return the store the controller state is kept in
+	 */
+	public MachineStateStore getStateStore() {
+		return store;
+	}
+
+	/**
+	 * @return the slot of the store the controller state is kept in
+	 */
+	public int getStateSlot() {
+		return slot;
+	}
+
+	/**
+	 * @return the number of racks the controller manages
+	 */
+	public int getNumberOfRacks() {
+		return store.getRacksPerMachine();
+	}
+
+
+	// purchases queued before a restart, found while replaying the journal.
+	// They leave the queue oldest first, whether dispensed or refunded.
+	private static final class QueuedPurchases {
+		int[] rack = new int[DEFAULT_PENDING_LIMIT];
+		int[] cost = new int[DEFAULT_PENDING_LIMIT];
+		int size = 0;
+
+		void add(int rackID, int price) {
+			if (size == rack.length) {
+				rack = Arrays.copyOf(rack, size * 2);
+				cost = Arrays.copyOf(cost, size * 2);
+			}
+			rack[size] = rackID;
+			cost[size] = price;
+			size++;
+		}
+
+		void removeOldest() {
+			if (size > 0) {
+				size--;
+				System.arraycopy(rack, 1, rack, 0, size);
+				System.arraycopy(cost, 1, cost, 0, size);
+			}
+		}
+	}
 }
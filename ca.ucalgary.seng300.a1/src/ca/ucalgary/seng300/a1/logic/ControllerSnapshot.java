@@ -0,0 +1,155 @@
+package ca.ucalgary.seng300.a1.logic;
+
+/**
+ * The state of a controller as of one moment between two events, for showing
+ * on dashboards and other monitoring from threads other than the one handling
+ * the events. Unlike calls to the controller's getters one after another, the
+ * values of a snapshot always agree with each other, e.g. the balance is never
+ * already debited while the message is still the one from before the
+ * purchase. A snapshot does not change once taken.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class ControllerSnapshot {
+
+	private final int sequence;
+	private final int balance;
+	private final long revenue;
+	private final int lastMessageCode;
+	private final String lastMessage;
+	private final String chuteLastAction;
+	private final boolean chuteDisabled;
+	private final boolean chuteFull;
+	private final int chuteOccupancy;
+	private final int[] inventory;
+	private final boolean[] buttonDisabled;
+
+	/**
+	 * @param sequence
+	 *            the update sequence number of the machine when read
+	 * @param balance
+	 *            the credit entered
+	 * @param revenue
+	 *            the money taken for pops dispensed
+	 * @param lastMessageCode
+	 *            the code of the last message
+	 * @param lastMessage
+	 *            the text of the last message
+	 * @param chuteLastAction
+	 *            the last delivery chute action, may be null
+	 * @param chuteDisabled
+	 *            whether the delivery chute is disabled
+	 * @param chuteFull
+	 *            whether the delivery chute is full
+	 * @param chuteOccupancy
+	 *            the number of items in the delivery chute
+	 * @param inventory
+	 *            the number of pops in each rack, owned by the snapshot
+	 * @param buttonDisabled
+	 *            whether each selection button is disabled, owned by the
+	 *            snapshot
+	 */
+	ControllerSnapshot(int sequence, int balance, long revenue, int lastMessageCode, String lastMessage,
+			String chuteLastAction, boolean chuteDisabled, boolean chuteFull, int chuteOccupancy, int[] inventory,
+			boolean[] buttonDisabled) {
+		this.sequence = sequence;
+		this.balance = balance;
+		this.revenue = revenue;
+		this.lastMessageCode = lastMessageCode;
+		this.lastMessage = lastMessage;
+		this.chuteLastAction = chuteLastAction;
+		this.chuteDisabled = chuteDisabled;
+		this.chuteFull = chuteFull;
+		this.chuteOccupancy = chuteOccupancy;
+		this.inventory = inventory;
+		this.buttonDisabled = buttonDisabled;
+	}
+
+	// the update sequence number of the machine when read, to tell which of
+	// two snapshots is newer
+	int getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return the credit entered
+	 */
+	public int getBalance() {
+		return balance;
+	}
+
+	/**
+	 * @return the money taken for pops dispensed
+	 */
+	public long getRevenue() {
+		return revenue;
+	}
+
+	/**
+	 * @return the code of the last message, see {@link MessageCode}
+	 */
+	public int getLastMessageCode() {
+		return lastMessageCode;
+	}
+
+	/**
+	 * @return the text of the last message
+	 */
+	public String getLastMessage() {
+		return lastMessage;
+	}
+
+	/**
+	 * @return the last delivery chute action, or null if there has not been one
+	 */
+	public String getChuteLastAction() {
+		return chuteLastAction;
+	}
+
+	/**
+	 * @return true if the delivery chute is disabled
+	 */
+	public boolean isChuteDisabled() {
+		return chuteDisabled;
+	}
+
+	/**
+	 * @return true if the delivery chute is full
+	 */
+	public boolean isChuteFull() {
+		return chuteFull;
+	}
+
+	/**
+	 * @return the number of items in the delivery chute
+	 */
+	public int getChuteOccupancy() {
+		return chuteOccupancy;
+	}
+
+	/**
+	 * @return the number of racks
+	 */
+	public int getNumberOfRacks() {
+		return inventory.length;
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of pops in the rack
+	 */
+	public int getInventory(int rackID) {
+		return inventory[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return true if the selection button of the rack is disabled
+	 */
+	public boolean isButtonDisabled(int rackID) {
+		return buttonDisabled[rackID];
+	}
+}
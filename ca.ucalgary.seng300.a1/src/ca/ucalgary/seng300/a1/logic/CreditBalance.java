@@ -0,0 +1,65 @@
+package ca.ucalgary.seng300.a1.logic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The credit entered by the customer. Credits and debits are atomic, so coin
+ * and button events may arrive from different threads without losing credit
+ * or spending it twice.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class CreditBalance {
+
+	private final AtomicInteger balance = new AtomicInteger();
+
+	/**
+	 * @return the current balance
+	 */
+	public int get() {
+		return balance.get();
+	}
+
+	/**
+	 * Adds credit to the balance
+	 *
+	 * @param amount
+	 *            the amount to add
+	 * @return the new balance
+	 */
+	public int credit(int amount) {
+		return balance.addAndGet(amount);
+	}
+
+	/**
+	 * Removes an amount from the balance if there is enough credit. The check
+	 * and the debit are one atomic step.
+	 *
+	 * @param amount
+	 *            the amount to remove
+	 * @return true if the amount was debited, false if there was not enough
+	 *         credit
+	 */
+	public boolean tryDebit(int amount) {
+		while (true) {
+			int current = balance.get();
+			if (current < amount) {
+				return false;
+			}
+			if (balance.compareAndSet(current, current - amount)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Replaces the balance, e.g. when restoring saved state
+	 *
+	 * @param amount
+	 *            the new balance
+	 */
+	public void set(int amount) {
+		balance.set(amount);
+	}
+}
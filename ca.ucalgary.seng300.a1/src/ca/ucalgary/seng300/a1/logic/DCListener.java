@@ -1,14 +1,12 @@
 package ca.ucalgary.seng300.a1.logic;
 
-import java.util.Observable;
-
 import org.lsmr.vending.hardware.*;
 
 /**
  * @author Brian Hoang, Jaskaran Sidhu, Jason De Boer
  *
  */
-public class DCListener extends Observable implements DeliveryChuteListener {
+public class DCListener extends AbstractEventListener implements DeliveryChuteListener {
 
 	private String state = "Idle";
 
@@ -17,45 +15,43 @@ public class DCListener extends Observable implements DeliveryChuteListener {
 	public void enabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		// TODO Auto-generated method stub
 		state = "Enabled";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.CHUTE_ENABLED, 0, 0);
 	}
 
 	@Override
 	public void disabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		// TODO Auto-generated method stub
 		state = "Disabled";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.CHUTE_DISABLED, 0, 0);
 	}
 
 	@Override
 	public void itemDelivered(DeliveryChute chute) {
 		// TODO Auto-generated method stub
 		state = "Item Delivered";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.ITEM_DELIVERED, 0, 0);
 	}
 
 	// For when door is opened, all deliverables are about to be removed
 	@Override
 	public void doorOpened(DeliveryChute chute) {
-		// TODO Auto-generated method stub
+		state = "Door Opened";
+		notifyHandler(EventType.DOOR_OPENED, 0, 0);
 	}
 
 	// For when door is closed, delivery chute returned deliverable items removed from chute
 	//
 	@Override
 	public void doorClosed(DeliveryChute chute) {
-		// TODO Auto-generated method stub
+		state = "Door Closed";
+		notifyHandler(EventType.DOOR_CLOSED, 0, 0);
 	}
 
 	@Override
 	public void chuteFull(DeliveryChute chute) {
 		// TODO Auto-generated method stub
 		state = "Full";
-		setChanged();
-		notifyObservers();
+		notifyHandler(EventType.CHUTE_FULL, 0, 0);
 	}
 
 	public String getState() {
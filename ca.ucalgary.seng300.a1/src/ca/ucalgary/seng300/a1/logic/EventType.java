@@ -0,0 +1,54 @@
+package ca.ucalgary.seng300.a1.logic;
+
+/**
+ * The kinds of hardware events that the listeners deliver to the controller
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public enum EventType {
+
+	// coin slot events
+	COIN_SLOT_ENABLED,
+	COIN_SLOT_DISABLED,
+	COIN_ACCEPTED,
+	COIN_REJECTED,
+
+	// selection button events
+	BUTTON_ENABLED,
+	BUTTON_DISABLED,
+	BUTTON_PRESSED,
+
+	// pop can rack events
+	RACK_ENABLED,
+	RACK_DISABLED,
+	CAN_ADDED,
+	CAN_REMOVED,
+	RACK_FULL,
+	RACK_EMPTY,
+	CANS_LOADED,
+	CANS_UNLOADED,
+
+	// delivery chute events
+	CHUTE_ENABLED,
+	CHUTE_DISABLED,
+	ITEM_DELIVERED,
+	CHUTE_FULL,
+	DOOR_OPENED,
+	DOOR_CLOSED,
+
+	// coin rack events
+	COIN_RACK_ENABLED,
+	COIN_RACK_DISABLED,
+	COIN_ADDED,
+	COIN_REMOVED,
+	COIN_RACK_FULL,
+	COIN_RACK_EMPTY,
+	COINS_LOADED,
+	COINS_UNLOADED,
+
+	// coin receptacle events, other than coins entered through the coin slot
+	RECEPTACLE_EMPTIED,
+	RECEPTACLE_LOADED,
+	RECEPTACLE_UNLOADED
+}
@@ -0,0 +1,26 @@
+package ca.ucalgary.seng300.a1.logic;
+
+/**
+ * Receives the events announced by the listeners. Each event carries its kind
+ * and the ID of the hardware it came from, so the handler can route it without
+ * searching through the listeners.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface HardwareEventHandler {
+
+	/**
+	 * Handles a single hardware event
+	 *
+	 * @param type
+	 *            the kind of event
+	 * @param id
+	 *            the ID of the rack or button the event came from (0 for the coin
+	 *            slot and delivery chute)
+	 * @param value
+	 *            the value associated with the event (e.g. the value of an
+	 *            accepted coin), 0 if there is none
+	 */
+	public void handleEvent(EventType type, int id, int value);
+}
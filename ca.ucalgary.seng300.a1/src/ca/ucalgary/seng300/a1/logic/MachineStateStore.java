@@ -0,0 +1,333 @@
+package ca.ucalgary.seng300.a1.logic;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds the state that controllers keep from the hardware events for many
+ * machines at once: the balance and revenue, the pops in and sold from each
+ * rack, whether each button and rack is disabled, and the state of the
+ * delivery chute.
+ *
+ * The state is laid out as one primitive array per field rather than as
+ * objects per machine, so a fleet of a million machines is a handful of large
+ * arrays that the garbage collector does not have to trace. Each controller
+ * created on a store is a view of one slot. A machine's racks are next to
+ * each other, so a controller touches one or two cache lines per event.
+ *
+ * Each slot is written only by its controller, which marks each event as an
+ * update and holds its own lock for the update, so a slot has one writer at a
+ * time even when events arrive from several threads. The values may be read
+ * from any thread, e.g. for monitoring, without taking that lock. A reader that needs several values of one machine to agree, e.g.
+ * the balance and revenue either side of a purchase, reads them between
+ * {@link #startRead(int)} and {@link #validate(int, int)} and tries again if
+ * an update got in the way, so readers never hold up the controller.
+ * A reader that needs to make progress however often the machine is updated
+ * should give up after a few tries, as {@link Controller#getSnapshot()} does:
+ *
+ * <pre>
+ * int stamp;
+ * do {
+ * 	stamp = store.startRead(slot);
+ * 	credit = store.getBalance(slot);
+ * 	revenue = store.getRevenue(slot);
+ * } while (!store.validate(slot, stamp));
+ * </pre>
+ *
+ * Updates count a sequence number up once when they start and once when they
+ * end, so it is odd while one is under way. As there is only one writer at a
+ * time, the values are written with ordered stores rather than atomic
+ * read-modify-writes, and read with volatile loads, which keeps each read
+ * between the two reads of the sequence number.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class MachineStateStore {
+
+	// flags kept for each rack
+	private static final int BUTTON_DISABLED = 1;
+	private static final int RACK_DISABLED = 2;
+
+	// flags kept for each machine
+	private static final int CHUTE_DISABLED = 1;
+	private static final int CHUTE_FULL = 2;
+
+	private final int capacity;
+	private final int racks;
+	private int allocated = 0;
+
+	// one entry per machine
+	private final AtomicIntegerArray sequence;
+	private final AtomicIntegerArray balance;
+	private final AtomicLongArray revenue;
+	private final AtomicIntegerArray chuteFlags;
+	private final AtomicIntegerArray chuteOccupancy;
+
+	// one entry per rack, machine by machine
+	private final AtomicIntegerArray inventory;
+	private final AtomicIntegerArray salesCount;
+	private final AtomicIntegerArray rackFlags;
+
+	/**
+	 * @param capacity
+	 *            the number of machines the store can hold
+	 * @param racks
+	 *            the number of racks in each machine
+	 */
+	public MachineStateStore(int capacity, int racks) {
+		if (capacity <= 0 || racks <= 0) {
+			throw new IllegalArgumentException("Capacity and racks must be positive: " + capacity + ", " + racks);
+		}
+		if ((long) capacity * racks > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many racks for one store: " + capacity + " x " + racks);
+		}
+		this.capacity = capacity;
+		this.racks = racks;
+		sequence = new AtomicIntegerArray(capacity);
+		balance = new AtomicIntegerArray(capacity);
+		revenue = new AtomicLongArray(capacity);
+		chuteFlags = new AtomicIntegerArray(capacity);
+		chuteOccupancy = new AtomicIntegerArray(capacity);
+		inventory = new AtomicIntegerArray(capacity * racks);
+		salesCount = new AtomicIntegerArray(capacity * racks);
+		rackFlags = new AtomicIntegerArray(capacity * racks);
+	}
+
+	/**
+	 * Reserves the slot for the next machine
+	 *
+	 * @return the slot
+	 * @throws IllegalStateException
+	 *             if the store is full
+	 */
+	public synchronized int allocate() {
+		if (allocated == capacity) {
+			throw new IllegalStateException("The store is full at " + capacity + " machines");
+		}
+		return allocated++;
+	}
+
+	/**
+	 * @return the number of machines the store can hold
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the number of slots given to machines
+	 */
+	public synchronized int getAllocated() {
+		return allocated;
+	}
+
+	/**
+	 * @return the number of racks in each machine
+	 */
+	public int getRacksPerMachine() {
+		return racks;
+	}
+
+	/**
+	 * @return the bytes of state kept for each machine
+	 */
+	public int getBytesPerMachine() {
+		// sequence, balance, revenue, chute flags and occupancy, then inventory,
+		// sales and flags per rack
+		return 4 + 4 + 8 + 4 + 4 + racks * (4 + 4 + 4);
+	}
+
+	// marks the start of an update to a machine, called by its controller
+	// with no other update to the machine under way. The values written
+	// afterwards are ordered after the odd sequence number.
+	void beginUpdate(int slot) {
+		sequence.lazySet(slot, sequence.get(slot) + 1);
+	}
+
+	// marks the end of an update to a machine
+	void endUpdate(int slot) {
+		sequence.lazySet(slot, sequence.get(slot) + 1);
+	}
+
+	/**
+	 * Starts reading values of a machine that need to agree with each other
+	 *
+	 * @param slot
+	 *            the machine
+	 * @return the stamp to validate the read with
+	 */
+	public int startRead(int slot) {
+		return sequence.get(slot);
+	}
+
+	/**
+	 * Checks that the values of a machine read since
+	 * {@link #startRead(int)} came from between the same two updates
+	 *
+	 * @param slot
+	 *            the machine
+	 * @param stamp
+	 *            the stamp returned by {@link #startRead(int)}
+	 * @return true if the values agree, false if they need reading again
+	 */
+	public boolean validate(int slot, int stamp) {
+		return (stamp & 1) == 0 && sequence.get(slot) == stamp;
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @return the credit entered
+	 */
+	public int getBalance(int slot) {
+		return balance.get(slot);
+	}
+
+	void setBalance(int slot, int amount) {
+		balance.lazySet(slot, amount);
+	}
+
+	// returns the new balance
+	int addBalance(int slot, int amount) {
+		int updated = balance.get(slot) + amount;
+		balance.lazySet(slot, updated);
+		return updated;
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @param rack
+	 *            the rack
+	 * @return the number of pops in the rack
+	 */
+	public int getInventory(int slot, int rack) {
+		return inventory.get(slot * racks + rack);
+	}
+
+	void setInventory(int slot, int rack, int count) {
+		inventory.lazySet(slot * racks + rack, count);
+	}
+
+	void addInventory(int slot, int rack, int delta) {
+		int index = slot * racks + rack;
+		inventory.lazySet(index, inventory.get(index) + delta);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @param rack
+	 *            the rack
+	 * @return the number of pops sold from the rack
+	 */
+	public int getSalesCount(int slot, int rack) {
+		return salesCount.get(slot * racks + rack);
+	}
+
+	void setSalesCount(int slot, int rack, int count) {
+		salesCount.lazySet(slot * racks + rack, count);
+	}
+
+	void addSale(int slot, int rack) {
+		int index = slot * racks + rack;
+		salesCount.lazySet(index, salesCount.get(index) + 1);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @return the money taken for pops dispensed
+	 */
+	public long getRevenue(int slot) {
+		return revenue.get(slot);
+	}
+
+	void addRevenue(int slot, int amount) {
+		revenue.lazySet(slot, revenue.get(slot) + amount);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @param rack
+	 *            the rack
+	 * @return true if the selection button of the rack is disabled
+	 */
+	public boolean isButtonDisabled(int slot, int rack) {
+		return (rackFlags.get(slot * racks + rack) & BUTTON_DISABLED) != 0;
+	}
+
+	void setButtonDisabled(int slot, int rack, boolean disabled) {
+		setRackFlag(slot * racks + rack, BUTTON_DISABLED, disabled);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @param rack
+	 *            the rack
+	 * @return true if the rack is disabled
+	 */
+	public boolean isRackDisabled(int slot, int rack) {
+		return (rackFlags.get(slot * racks + rack) & RACK_DISABLED) != 0;
+	}
+
+	void setRackDisabled(int slot, int rack, boolean disabled) {
+		setRackFlag(slot * racks + rack, RACK_DISABLED, disabled);
+	}
+
+	private void setRackFlag(int index, int flag, boolean set) {
+		int flags = rackFlags.get(index);
+		rackFlags.lazySet(index, set ? flags | flag : flags & ~flag);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @return true if the delivery chute is disabled
+	 */
+	public boolean isChuteDisabled(int slot) {
+		return (chuteFlags.get(slot) & CHUTE_DISABLED) != 0;
+	}
+
+	void setChuteDisabled(int slot, boolean disabled) {
+		setChuteFlag(slot, CHUTE_DISABLED, disabled);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @return true if the delivery chute is full
+	 */
+	public boolean isChuteFull(int slot) {
+		return (chuteFlags.get(slot) & CHUTE_FULL) != 0;
+	}
+
+	void setChuteFull(int slot, boolean full) {
+		setChuteFlag(slot, CHUTE_FULL, full);
+	}
+
+	private void setChuteFlag(int slot, int flag, boolean set) {
+		int flags = chuteFlags.get(slot);
+		chuteFlags.lazySet(slot, set ? flags | flag : flags & ~flag);
+	}
+
+	/**
+	 * @param slot
+	 *            the machine
+	 * @return the number of items in the delivery chute
+	 */
+	public int getChuteOccupancy(int slot) {
+		return chuteOccupancy.get(slot);
+	}
+
+	void setChuteOccupancy(int slot, int items) {
+		chuteOccupancy.lazySet(slot, items);
+	}
+
+	void addChuteOccupancy(int slot, int items) {
+		chuteOccupancy.lazySet(slot, chuteOccupancy.get(slot) + items);
+	}
+}
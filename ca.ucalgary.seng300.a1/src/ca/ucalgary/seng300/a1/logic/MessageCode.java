@@ -0,0 +1,88 @@
+package ca.ucalgary.seng300.a1.logic;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Status codes for the messages reported by the controller. The text for each
+ * code is built once so reporting a message never allocates.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public final class MessageCode {
+
+	public static final int NONE = 0;
+	public static final int ENABLED = 1;
+	public static final int DISABLED = 2;
+	public static final int ACCEPTED = 3;
+	public static final int REJECTED = 4;
+	public static final int CAN_REMOVED = 5;
+	public static final int CAN_ADDED = 6;
+	public static final int FULL_RACK = 7;
+	public static final int EMPTY_RACK = 8;
+	public static final int NOT_ENOUGH_MONEY = 9;
+	public static final int RACK_DISABLED = 10;
+	public static final int RACK_IS_EMPTY = 11;
+	public static final int BUTTON_DISABLED = 12;
+	public static final int DISPENSE_FAILED = 13;
+	public static final int CHUTE_DISABLED = 14;
+	public static final int CHUTE_FULL = 15;
+	public static final int CHANGE_RETURNED = 16;
+	public static final int NO_CHANGE = 17;
+	public static final int NOT_AVAILABLE = 18;
+	public static final int DELIVERY_PENDING = 19;
+
+	// rack messages by prefix and suffix, grown to the most racks asked for
+	private static final Map<String, String[]> RACK_MESSAGES = new HashMap<String, String[]>();
+
+	private static final String[] TEXT = { "", "Enabled", "Disabled", "Accepted", "Rejected", "Can Removed",
+			"Can Added", "Full Rack", "Empty Rack", "Not enough money", "Rack is disabled", "Rack is empty",
+			"Button is disabled", "Dispense failed", "Delivery chute is disabled", "Delivery chute is full", "Change returned", "Unable to make change",
+			"Not available", "Delivery pending" };
+
+	private MessageCode() {
+	}
+
+	/**
+	 * Returns the text of a message code. Messages that refer to a rack are
+	 * returned without the rack ID.
+	 *
+	 * @param code
+	 *            the message code
+	 * @return the text of the message
+	 */
+	public static String getText(int code) {
+		if (code < 0 || code >= TEXT.length) {
+			return "";
+		}
+		return TEXT[code];
+	}
+
+	/**
+	 * Builds the message text for each rack, e.g. "Rack 2 is empty". Called when
+	 * the controller is created so the strings are not built on every event.
+	 * The messages are shared by every controller, so a fleet keeps one copy.
+	 *
+	 * @param prefix
+	 *            the text before the rack ID
+	 * @param suffix
+	 *            the text after the rack ID
+	 * @param count
+	 *            the number of racks
+	 * @return the message for each rack
+	 */
+	static synchronized String[] buildRackMessages(String prefix, String suffix, int count) {
+		String key = prefix + '#' + suffix;
+		String[] messages = RACK_MESSAGES.get(key);
+		if (messages != null && messages.length >= count) {
+			return messages;
+		}
+		messages = new String[count];
+		for (int i = 0; i < count; i++) {
+			messages[i] = prefix + i + suffix;
+		}
+		RACK_MESSAGES.put(key, messages);
+		return messages;
+	}
+}
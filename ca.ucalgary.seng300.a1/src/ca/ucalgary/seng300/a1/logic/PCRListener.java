@@ -1,7 +1,5 @@
 package ca.ucalgary.seng300.a1.logic;
 
-import java.util.Observable;
-
 import org.lsmr.vending.PopCan;
 import org.lsmr.vending.hardware.*;
 
@@ -9,12 +7,16 @@ import org.lsmr.vending.hardware.*;
  * @authorBrian Hoang, Jaskaran Sidhu, Jason De Boer 
  *
  */
-public class PCRListener extends Observable implements PopCanRackListener {
+public class PCRListener extends AbstractEventListener implements PopCanRackListener {
 	
 	private String lastAction = "Waiting";
-	private String label;
+	private volatile String label;
 	private int rackID;
 
+	// cans added one at a time while restocking, announced together at the end
+	private boolean coalescing = false;
+	private int pendingCans = 0;
+
 	/**
 	 * @param rackID
 	 *            An integer identifying the associated rack
@@ -32,8 +34,7 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	@Override
 	public void enabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		lastAction = "Enabled";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.RACK_ENABLED, rackID, 0);
 
 	}
 
@@ -44,8 +45,7 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	@Override
 	public void disabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		lastAction = "Disabled";
-	    setChanged();
-	    notifyObservers();
+	    notifyHandler(EventType.RACK_DISABLED, rackID, 0);
 
 	}
 
@@ -56,8 +56,11 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	@Override
 	public void popCanAdded(PopCanRack popCanRack, PopCan popCan) {
 		lastAction = "Can Added";
-		setChanged();
-	    notifyObservers();
+		if (coalescing) {
+			pendingCans++;
+			return;
+		}
+	    notifyHandler(EventType.CAN_ADDED, rackID, 1);
 	}
 	
 	
@@ -67,8 +70,8 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	@Override
 	public void popCanRemoved(PopCanRack popCanRack, PopCan popCan) {
 		lastAction = "Can Removed";
-	    setChanged();
-	    notifyObservers();
+		flushPending();
+	    notifyHandler(EventType.CAN_REMOVED, rackID, 1);
 	}
 
 	
@@ -78,8 +81,11 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	@Override
 	public void popCansFull(PopCanRack popCanRack) {
 		lastAction = "Full Rack";
-		setChanged();
-	    notifyObservers();
+		if (coalescing) {
+			// the end of the restock announces the rack instead
+			return;
+		}
+	    notifyHandler(EventType.RACK_FULL, rackID, 0);
 
 	}
 
@@ -89,8 +95,8 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	@Override
 	public void popCansEmpty(PopCanRack popCanRack) {
 		lastAction = "Empty Rack";
-		setChanged();
-	    notifyObservers();
+		flushPending();
+	    notifyHandler(EventType.RACK_EMPTY, rackID, 0);
 
 	}
 
@@ -99,7 +105,9 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	 */
 	@Override
 	public void popCansLoaded(PopCanRack rack, PopCan... popCans) {
-
+		lastAction = "Cans Loaded";
+		flushPending();
+		notifyHandler(EventType.CANS_LOADED, rackID, popCans.length);
 	}
 
 	
@@ -108,7 +116,38 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	 */
 	@Override
 	public void popCansUnloaded(PopCanRack rack, PopCan... popCans) {
+		lastAction = "Cans Unloaded";
+		flushPending();
+		notifyHandler(EventType.CANS_UNLOADED, rackID, popCans.length);
+	}
 
+	/**
+	 * Starts or stops coalescing cans added one at a time. While coalescing,
+	 * each can only adds to a count, and the count is announced as a single
+	 * load when coalescing stops or another rack event needs the inventory to
+	 * be up to date.
+	 *
+	 * @param coalescing
+	 *            true to start coalescing, false to announce the cans and stop
+	 */
+	public void setCoalescing(boolean coalescing) {
+		this.coalescing = coalescing;
+		if (!coalescing) {
+			flushPending();
+		}
+	}
+
+	/**
+	 * Announces the cans added since coalescing started as one load, e.g.
+	 * before a purchase from the rack during a restock. Does nothing if no cans
+	 * are waiting.
+	 */
+	public void flushPending() {
+		if (pendingCans > 0) {
+			int cans = pendingCans;
+			pendingCans = 0;
+			notifyHandler(EventType.CANS_LOADED, rackID, cans);
+		}
 	}
 
 	/**
@@ -133,4 +172,14 @@ public class PCRListener extends Observable implements PopCanRackListener {
 	public String getLabel() {
 		return label;
 	}
+
+	/**
+	 * Changes the label of the rack, e.g. when the selection is renamed
+	 *
+	 * @param label
+	 *            the new label
+	 */
+	public void setLabel(String label) {
+		this.label = label;
+	}
 }
@@ -0,0 +1,167 @@
+package ca.ucalgary.seng300.a1.logic;
+
+import org.lsmr.vending.hardware.VendingMachine;
+
+/**
+ * The name, price and availability of each selection. A table never changes
+ * once built; the with methods return a changed copy. The controller holds
+ * its table behind an atomic reference, so a purchase reads one consistent
+ * table without a lock while an operator swaps in a new one, e.g. for time of
+ * day pricing.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public final class PriceTable {
+
+	private final String[] names;
+	private final int[] costs;
+	private final boolean[] available;
+
+	/**
+	 * Creates a table with every selection available
+	 *
+	 * @param names
+	 *            the name of each selection
+	 * @param costs
+	 *            the price of each selection in cents
+	 */
+	public PriceTable(String[] names, int[] costs) {
+		this(names, costs, allAvailable(names.length));
+	}
+
+	/**
+	 * @param names
+	 *            the name of each selection
+	 * @param costs
+	 *            the price of each selection in cents
+	 * @param available
+	 *            whether each selection is offered for sale
+	 */
+	public PriceTable(String[] names, int[] costs, boolean[] available) {
+		if (names.length != costs.length || names.length != available.length) {
+			throw new IllegalArgumentException("Need a name, cost and availability for each selection");
+		}
+		for (int i = 0; i < costs.length; i++) {
+			if (names[i] == null) {
+				throw new IllegalArgumentException("Selection " + i + " has no name");
+			}
+			if (costs[i] <= 0) {
+				throw new IllegalArgumentException("Cost must be positive: " + costs[i]);
+			}
+		}
+		this.names = names.clone();
+		this.costs = costs.clone();
+		this.available = available.clone();
+	}
+
+	/**
+	 * Creates a table from the names and prices a machine was configured with
+	 *
+	 * @param vendingMachine
+	 *            the configured machine
+	 * @return a table with every selection available
+	 */
+	public static PriceTable fromMachine(VendingMachine vendingMachine) {
+		int selections = vendingMachine.getNumberOfSelectionButtons();
+		String[] names = new String[selections];
+		int[] costs = new int[selections];
+		for (int i = 0; i < selections; i++) {
+			names[i] = vendingMachine.getPopKindName(i);
+			costs[i] = vendingMachine.getPopKindCost(i);
+		}
+		return new PriceTable(names, costs);
+	}
+
+	/**
+	 * @return the number of selections
+	 */
+	public int size() {
+		return costs.length;
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the name of the selection
+	 */
+	public String getName(int rackID) {
+		return names[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the price of the selection in cents
+	 */
+	public int getCost(int rackID) {
+		return costs[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return true if the selection is offered for sale
+	 */
+	public boolean isAvailable(int rackID) {
+		return available[rackID];
+	}
+
+	/**
+	 * @return the highest price in the table
+	 */
+	public int getLargestCost() {
+		int largest = 0;
+		for (int cost : costs) {
+			largest = Math.max(largest, cost);
+		}
+		return largest;
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @param cost
+	 *            the new price in cents
+	 * @return a copy of this table with the price of one selection changed
+	 */
+	public PriceTable withCost(int rackID, int cost) {
+		int[] newCosts = costs.clone();
+		newCosts[rackID] = cost;
+		return new PriceTable(names, newCosts, available);
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @param name
+	 *            the new name
+	 * @return a copy of this table with the name of one selection changed
+	 */
+	public PriceTable withName(int rackID, String name) {
+		String[] newNames = names.clone();
+		newNames[rackID] = name;
+		return new PriceTable(newNames, costs, available);
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @param isAvailable
+	 *            whether the selection is offered for sale
+	 * @return a copy of this table with one selection offered or withdrawn
+	 */
+	public PriceTable withAvailable(int rackID, boolean isAvailable) {
+		boolean[] newAvailable = available.clone();
+		newAvailable[rackID] = isAvailable;
+		return new PriceTable(names, costs, newAvailable);
+	}
+
+	private static boolean[] allAvailable(int size) {
+		boolean[] available = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			available[i] = true;
+		}
+		return available;
+	}
+}
@@ -1,7 +1,5 @@
 package ca.ucalgary.seng300.a1.logic;
 
-import java.util.Observable;
-
 import org.lsmr.vending.hardware.*;
 
 /**Selection Button Listener
@@ -9,10 +7,10 @@ import org.lsmr.vending.hardware.*;
  * @author
  *
  */
-public class SBListener extends Observable implements SelectionButtonListener {
+public class SBListener extends AbstractEventListener implements SelectionButtonListener {
 
 	private String status = "Listening";
-	private String label;
+	private volatile String label;
 	private int rackID;
 
 	/**
@@ -34,8 +32,7 @@ public class SBListener extends Observable implements SelectionButtonListener {
 	 */
 	public void enabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		status = "Enabled";
-		setChanged();
-		notifyObservers();
+		notifyHandler(EventType.BUTTON_ENABLED, rackID, 0);
 	}
 
 	/*
@@ -47,8 +44,7 @@ public class SBListener extends Observable implements SelectionButtonListener {
 	 */
 	public void disabled(AbstractHardware<? extends AbstractHardwareListener> hardware) {
 		status = "Disabled";
-		setChanged();
-		notifyObservers();
+		notifyHandler(EventType.BUTTON_DISABLED, rackID, 0);
 	}
 
 	/*
@@ -60,8 +56,7 @@ public class SBListener extends Observable implements SelectionButtonListener {
 	 */
 	public void pressed(SelectionButton button) {
 		status = "Pressed";
-		setChanged();
-		notifyObservers();
+		notifyHandler(EventType.BUTTON_PRESSED, rackID, 0);
 
 	}
 
@@ -95,4 +90,14 @@ public class SBListener extends Observable implements SelectionButtonListener {
 	public String getLabel() {
 		return label;
 	}
+
+	/**
+	 * Changes the label of the button, e.g. when the selection is renamed
+	 *
+	 * @param label
+	 *            the new label
+	 */
+	public void setLabel(String label) {
+		this.label = label;
+	}
 }
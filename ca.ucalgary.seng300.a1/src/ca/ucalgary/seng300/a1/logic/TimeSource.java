@@ -0,0 +1,24 @@
+package ca.ucalgary.seng300.a1.logic;
+
+/**
+ * Supplies the current time to the parts of the controller that measure rates,
+ * so that they can run on simulated time
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface TimeSource {
+
+	/** The system clock */
+	public static final TimeSource SYSTEM = new TimeSource() {
+		@Override
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+	};
+
+	/**
+	 * @return the current time in milliseconds
+	 */
+	public long currentTimeMillis();
+}
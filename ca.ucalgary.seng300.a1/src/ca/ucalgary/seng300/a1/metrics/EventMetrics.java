@@ -0,0 +1,56 @@
+package ca.ucalgary.seng300.a1.metrics;
+
+import ca.ucalgary.seng300.a1.logic.EventType;
+
+/**
+ * Exposes the metrics of one kind of event through JMX
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class EventMetrics implements EventMetricsMXBean {
+
+	private final MetricsRegistry registry;
+	private final EventType type;
+	private final LatencyHistogram histogram;
+
+	/**
+	 * @param registry
+	 *            the registry the event is recorded in
+	 * @param type
+	 *            the kind of event
+	 */
+	public EventMetrics(MetricsRegistry registry, EventType type) {
+		this.registry = registry;
+		this.type = type;
+		this.histogram = registry.getHistogram(type);
+	}
+
+	public long getCount() {
+		return registry.getCount(type);
+	}
+
+	public double getMeanNanos() {
+		return histogram.getMean();
+	}
+
+	public long getP50Nanos() {
+		return histogram.getValueAtPercentile(50);
+	}
+
+	public long getP99Nanos() {
+		return histogram.getValueAtPercentile(99);
+	}
+
+	public long getP999Nanos() {
+		return histogram.getValueAtPercentile(99.9);
+	}
+
+	public long getMaxNanos() {
+		return histogram.getMax();
+	}
+
+	public void reset() {
+		histogram.reset();
+	}
+}
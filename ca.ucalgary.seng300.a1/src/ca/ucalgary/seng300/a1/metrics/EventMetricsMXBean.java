@@ -0,0 +1,45 @@
+package ca.ucalgary.seng300.a1.metrics;
+
+/**
+ * The metrics of one kind of controller event, as seen through JMX
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface EventMetricsMXBean {
+
+	/**
+	 * @return the number of events handled
+	 */
+	public long getCount();
+
+	/**
+	 * @return the mean time to handle an event, in nanoseconds
+	 */
+	public double getMeanNanos();
+
+	/**
+	 * @return the median time to handle an event, in nanoseconds
+	 */
+	public long getP50Nanos();
+
+	/**
+	 * @return the 99th percentile time to handle an event, in nanoseconds
+	 */
+	public long getP99Nanos();
+
+	/**
+	 * @return the 99.9th percentile time to handle an event, in nanoseconds
+	 */
+	public long getP999Nanos();
+
+	/**
+	 * @return the longest time to handle an event, in nanoseconds
+	 */
+	public long getMaxNanos();
+
+	/**
+	 * Clears the latencies; the count keeps counting
+	 */
+	public void reset();
+}
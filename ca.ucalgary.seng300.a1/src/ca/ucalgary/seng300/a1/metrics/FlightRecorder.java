@@ -0,0 +1,199 @@
+package ca.ucalgary.seng300.a1.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import ca.ucalgary.seng300.a1.logic.EventType;
+
+/**
+ * Keeps the last events a controller handled so that they can be looked at
+ * after something goes wrong. The events are kept in preallocated arrays used
+ * as a ring, so recording never allocates or locks; once the ring is full each
+ * event overwrites the oldest one.
+ *
+ * Events are recorded when they have been handled, with the balance they left,
+ * so an event caused by another one (e.g. a can removed by a button press)
+ * comes before it.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class FlightRecorder {
+
+	private static final EventType[] TYPES = EventType.values();
+
+	private final int mask;
+	private final AtomicLong next = new AtomicLong();
+
+	// one slot per event; published holds the sequence number of the event in
+	// the slot once it has been written, or -1 while it is being written. The
+	// fields are written with ordered stores after the -1 and read with volatile
+	// loads, so a dump that sees the same sequence number before and after
+	// reading them has read one whole event, as in MachineStateStore.
+	private final AtomicLongArray published;
+	private final AtomicLongArray time;
+	private final AtomicIntegerArray type;
+	private final AtomicIntegerArray id;
+	private final AtomicIntegerArray value;
+	private final AtomicIntegerArray balance;
+
+	private volatile File dumpFile;
+
+	/**
+	 * @param capacity
+	 *            the number of events kept, a power of two
+	 */
+	public FlightRecorder(int capacity) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		mask = capacity - 1;
+		published = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			published.set(i, -1);
+		}
+		time = new AtomicLongArray(capacity);
+		type = new AtomicIntegerArray(capacity);
+		id = new AtomicIntegerArray(capacity);
+		value = new AtomicIntegerArray(capacity);
+		balance = new AtomicIntegerArray(capacity);
+	}
+
+	/**
+	 * Records an event
+	 *
+	 * @param eventType
+	 *            the kind of event
+	 * @param eventID
+	 *            the ID of the rack or button the event came from
+	 * @param eventValue
+	 *            the value of the event, e.g. a coin value
+	 * @param newBalance
+	 *            the balance after the event was handled
+	 */
+	public void record(EventType eventType, int eventID, int eventValue, int newBalance) {
+		long sequence = next.getAndIncrement();
+		int slot = (int) sequence & mask;
+		published.set(slot, -1);
+		time.lazySet(slot, System.currentTimeMillis());
+		type.lazySet(slot, eventType.ordinal());
+		id.lazySet(slot, eventID);
+		value.lazySet(slot, eventValue);
+		balance.lazySet(slot, newBalance);
+		published.lazySet(slot, sequence);
+	}
+
+	/**
+	 * @return the number of events recorded, including those overwritten
+	 */
+	public long getRecorded() {
+		return next.get();
+	}
+
+	/**
+	 * @return the number of events kept
+	 */
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Writes the events kept, oldest first, one per line: sequence number, time
+	 * in milliseconds, event type, ID, value and balance. Events that are being
+	 * overwritten while the dump runs are left out.
+	 *
+	 * @param out
+	 *            where to write the events
+	 * @throws IOException
+	 *             if the events cannot be written
+	 */
+	public void dump(Writer out) throws IOException {
+		long end = next.get();
+		long start = Math.max(0, end - getCapacity());
+		out.write("# sequence time type id value balance\n");
+		for (long sequence = start; sequence < end; sequence++) {
+			int slot = (int) sequence & mask;
+			if (published.get(slot) != sequence) {
+				continue;
+			}
+			long eventTime = time.get(slot);
+			int eventType = type.get(slot);
+			int eventID = id.get(slot);
+			int eventValue = value.get(slot);
+			int eventBalance = balance.get(slot);
+			// skip the event if it was overwritten while it was read
+			if (published.get(slot) != sequence) {
+				continue;
+			}
+			out.write(sequence + " " + eventTime + " " + TYPES[eventType].name() + " " + eventID + " " + eventValue
+					+ " " + eventBalance + "\n");
+		}
+	}
+
+	/**
+	 * Writes the events kept to a file, replacing it
+	 *
+	 * @param file
+	 *            the file to write
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void dump(File file) throws IOException {
+		dump(file, null);
+	}
+
+	//writes the events to a file after the exception that caused the dump, if any
+	private void dump(File file, Throwable cause) throws IOException {
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+		try {
+			if (cause != null) {
+				PrintWriter printer = new PrintWriter(out);
+				cause.printStackTrace(printer);
+				printer.println();
+				printer.flush();
+			}
+			dump(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Sets the file that the events are dumped to when the controller throws
+	 *
+	 * @param file
+	 *            the file, or null to not dump on exceptions
+	 */
+	public void setDumpFile(File file) {
+		dumpFile = file;
+	}
+
+	/**
+	 * Dumps the events kept and the exception to the dump file, if one is set.
+	 * Called by the controller when handling an event throws. A failure to
+	 * write the dump is added to the exception as a suppressed exception.
+	 *
+	 * @param cause
+	 *            the exception thrown
+	 */
+	public void dumpOnException(Throwable cause) {
+		File file = dumpFile;
+		if (file == null) {
+			return;
+		}
+		try {
+			dump(file, cause);
+		} catch (IOException e) {
+			cause.addSuppressed(e);
+		}
+	}
+}
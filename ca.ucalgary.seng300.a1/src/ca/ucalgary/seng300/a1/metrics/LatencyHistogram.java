@@ -0,0 +1,133 @@
+package ca.ucalgary.seng300.a1.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds with log-linear buckets, in the style
+ * of HdrHistogram. Values below 64 are counted exactly; above that each power
+ * of two is split into 32 buckets, so a reported value is within about 3% of
+ * the recorded one. Values above about 68 seconds are counted as 68 seconds.
+ *
+ * Recording is two atomic adds and never locks or allocates, so it can be
+ * called from any number of threads. Reads scan the buckets and may miss
+ * values recorded while they run.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+	private static final long MAX_VALUE = (1L << 36) - 1;
+	private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong total = new AtomicLong();
+
+	/**
+	 * Records one latency
+	 *
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		} else if (nanos > MAX_VALUE) {
+			nanos = MAX_VALUE;
+		}
+		counts.getAndIncrement(index(nanos));
+		total.getAndAdd(nanos);
+	}
+
+	//the bucket of a value
+	private static int index(long value) {
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+		if (shift <= 0) {
+			return (int) value;
+		}
+		return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+	}
+
+	//the largest value counted in a bucket
+	private static long highestValue(int index) {
+		if (index < 2 * HALF_SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> (SUB_BUCKET_BITS - 1)) - 1;
+		long lowest = (long) (index - (shift << (SUB_BUCKET_BITS - 1))) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * @return the number of latencies recorded
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the mean latency in nanoseconds, or 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) total.get() / count;
+	}
+
+	/**
+	 * Returns the latency that a percentage of the recorded latencies are at or
+	 * below
+	 *
+	 * @param percentile
+	 *            the percentage, e.g. 99.9
+	 * @return the latency in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return highestValue(i);
+			}
+		}
+		return highestValue(BUCKETS - 1);
+	}
+
+	/**
+	 * @return the largest latency recorded, to the precision of the buckets
+	 */
+	public long getMax() {
+		for (int i = BUCKETS - 1; i >= 0; i--) {
+			if (counts.get(i) != 0) {
+				return highestValue(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Clears the histogram. Values recorded at the same time may be lost.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		total.set(0);
+	}
+}
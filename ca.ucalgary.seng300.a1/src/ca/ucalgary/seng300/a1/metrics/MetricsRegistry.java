@@ -0,0 +1,257 @@
+package ca.ucalgary.seng300.a1.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import ca.ucalgary.seng300.a1.logic.EventType;
+
+/**
+ * Counts and times every kind of event a controller handles. One registry can
+ * be shared by any number of controllers, e.g. a whole fleet.
+ *
+ * Every event is counted, but reading the clock twice costs more than handling
+ * most events, so by default only one event in 16 is timed. The latency
+ * percentiles are just as accurate for a steady stream of events; set the
+ * sample interval to 1 to time every event.
+ *
+ * The metrics can be read directly, through one JMX MBean per event type, or
+ * from a text file that is rewritten periodically.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class MetricsRegistry {
+
+	private static final EventType[] TYPES = EventType.values();
+
+	/** The default number of events per timed event */
+	public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+	private final AtomicLongArray counts = new AtomicLongArray(TYPES.length);
+	private final LatencyHistogram[] histograms = new LatencyHistogram[TYPES.length];
+	private final int sampleMask;
+	private final List<ObjectName> registered = new ArrayList<ObjectName>();
+	private ScheduledExecutorService reporter;
+	private volatile IOException lastReportError;
+
+	public MetricsRegistry() {
+		this(DEFAULT_SAMPLE_INTERVAL);
+	}
+
+	/**
+	 * @param sampleInterval
+	 *            the number of events per timed event, a power of two
+	 */
+	public MetricsRegistry(int sampleInterval) {
+		if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1) {
+			throw new IllegalArgumentException("Sample interval must be a power of two: " + sampleInterval);
+		}
+		sampleMask = sampleInterval - 1;
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Returns the mask a caller applies to its own event counter to decide
+	 * which events to time: an event is timed when the counter and the mask
+	 * are 0
+	 *
+	 * @return the sample interval minus one
+	 */
+	public int getSampleMask() {
+		return sampleMask;
+	}
+
+	/**
+	 * Counts an event
+	 *
+	 * @param type
+	 *            the kind of event
+	 */
+	public void count(EventType type) {
+		counts.getAndIncrement(type.ordinal());
+	}
+
+	/**
+	 * Records the time a sampled event took to handle
+	 *
+	 * @param type
+	 *            the kind of event
+	 * @param nanos
+	 *            the time taken in nanoseconds
+	 */
+	public void recordLatency(EventType type, long nanos) {
+		histograms[type.ordinal()].record(nanos);
+	}
+
+	/**
+	 * @param type
+	 *            the kind of event
+	 * @return the latencies of the sampled events
+	 */
+	public LatencyHistogram getHistogram(EventType type) {
+		return histograms[type.ordinal()];
+	}
+
+	/**
+	 * @param type
+	 *            the kind of event
+	 * @return the number of events of the kind handled
+	 */
+	public long getCount(EventType type) {
+		return counts.get(type.ordinal());
+	}
+
+	/**
+	 * Clears the counts and latencies of every event type
+	 */
+	public void reset() {
+		for (int i = 0; i < histograms.length; i++) {
+			counts.set(i, 0);
+			histograms[i].reset();
+		}
+	}
+
+	/**
+	 * Registers an MBean for every event type with the platform MBean server,
+	 * named ca.ucalgary.seng300.a1:type=ControllerMetrics,name=...,event=...
+	 *
+	 * @param name
+	 *            the name of the machine or fleet the metrics belong to
+	 * @throws JMException
+	 *             if the MBeans cannot be registered, e.g. the name is taken
+	 */
+	public synchronized void registerMBeans(String name) throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (EventType type : TYPES) {
+			ObjectName objectName = new ObjectName("ca.ucalgary.seng300.a1:type=ControllerMetrics,name="
+					+ ObjectName.quote(name) + ",event=" + type.name());
+			server.registerMBean(new EventMetrics(this, type), objectName);
+			registered.add(objectName);
+		}
+	}
+
+	/**
+	 * Unregisters the MBeans registered by {@link #registerMBeans(String)}
+	 *
+	 * @throws JMException
+	 *             if an MBean cannot be unregistered
+	 */
+	public synchronized void unregisterMBeans() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		while (!registered.isEmpty()) {
+			server.unregisterMBean(registered.remove(registered.size() - 1));
+		}
+	}
+
+	/**
+	 * Writes one line per event type that has been seen, with its count and
+	 * the latency percentiles of the sampled events in nanoseconds
+	 *
+	 * @param out
+	 *            where to write the report
+	 * @throws IOException
+	 *             if the report cannot be written
+	 */
+	public void writeReport(Writer out) throws IOException {
+		out.write("# event count mean p50 p99 p99.9 max\n");
+		for (EventType type : TYPES) {
+			LatencyHistogram histogram = histograms[type.ordinal()];
+			long count = counts.get(type.ordinal());
+			if (count == 0) {
+				continue;
+			}
+			out.write(type.name() + " " + count + " " + Math.round(histogram.getMean()) + " "
+					+ histogram.getValueAtPercentile(50) + " " + histogram.getValueAtPercentile(99) + " "
+					+ histogram.getValueAtPercentile(99.9) + " " + histogram.getMax() + "\n");
+		}
+	}
+
+	/**
+	 * Writes the report to a file, replacing it in one step so that a reader
+	 * never sees half a report
+	 *
+	 * @param reportFile
+	 *            the file to write
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void writeReport(File reportFile) throws IOException {
+		File temp = new File(reportFile.getPath() + ".tmp");
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8));
+		try {
+			writeReport(out);
+		} finally {
+			out.close();
+		}
+		Files.move(temp.toPath(), reportFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Rewrites the report file periodically on a background thread until
+	 * {@link #stopReporting()} is called
+	 *
+	 * @param reportFile
+	 *            the file to write
+	 * @param periodMillis
+	 *            the time between reports in milliseconds
+	 */
+	public synchronized void startReporting(final File reportFile, long periodMillis) {
+		stopReporting();
+		reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "metrics-reporter");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		reporter.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				try {
+					writeReport(reportFile);
+				} catch (IOException e) {
+					// try again next period
+					lastReportError = e;
+				}
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops rewriting the report file
+	 */
+	public synchronized void stopReporting() {
+		if (reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+		}
+	}
+
+	/**
+	 * @return the error from the last periodic report that failed, or null
+	 */
+	public IOException getLastReportError() {
+		return lastReportError;
+	}
+}
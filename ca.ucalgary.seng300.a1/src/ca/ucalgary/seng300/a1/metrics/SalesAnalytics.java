@@ -0,0 +1,258 @@
+package ca.ucalgary.seng300.a1.metrics;
+
+import ca.ucalgary.seng300.a1.logic.TimeSource;
+
+/**
+ * Counts the pops sold and the revenue taken by each rack of one machine over
+ * several sliding windows, e.g. the last 5 minutes, hour and day.
+ *
+ * Each window is split into buckets kept in a ring of primitive arrays, with a
+ * running total per rack. A sale is added to the newest bucket and its total;
+ * as time moves on, the buckets that fall out of the window are subtracted
+ * from the totals and reused. A query reads the totals once any buckets that
+ * fell out since the last call are dropped, so its cost does not grow with the
+ * number of sales and it does not allocate. The window covers the current,
+ * partly filled bucket and the full buckets before it, so it is between one
+ * bucket short and the full length of the window.
+ *
+ * Sales are recorded by the controller thread and may be queried from any
+ * thread.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class SalesAnalytics {
+
+	public static final long MINUTE = 60 * 1000;
+	public static final long HOUR = 60 * MINUTE;
+	public static final long DAY = 24 * HOUR;
+
+	/** The windows kept unless others are given: 5 minutes, an hour and a day */
+	public static final long[] DEFAULT_WINDOWS = { 5 * MINUTE, HOUR, DAY };
+	/** The number of buckets in each window unless changed */
+	public static final int DEFAULT_BUCKETS = 60;
+
+	private final int racks;
+	private final TimeSource clock;
+	private final Window[] windows;
+
+	/**
+	 * Keeps the default windows
+	 *
+	 * @param racks
+	 *            the number of racks in the machine
+	 * @param clock
+	 *            the clock sales are timed with
+	 */
+	public SalesAnalytics(int racks, TimeSource clock) {
+		this(racks, clock, DEFAULT_BUCKETS, DEFAULT_WINDOWS);
+	}
+
+	/**
+	 * @param racks
+	 *            the number of racks in the machine
+	 * @param clock
+	 *            the clock sales are timed with
+	 * @param buckets
+	 *            the number of buckets in each window
+	 * @param windowMillis
+	 *            the length of each window in milliseconds, each a multiple of
+	 *            the number of buckets
+	 */
+	public SalesAnalytics(int racks, TimeSource clock, int buckets, long... windowMillis) {
+		if (buckets <= 0) {
+			throw new IllegalArgumentException("Buckets must be positive: " + buckets);
+		}
+		this.racks = racks;
+		this.clock = clock;
+		windows = new Window[windowMillis.length];
+		for (int i = 0; i < windowMillis.length; i++) {
+			if (windowMillis[i] <= 0 || windowMillis[i] % buckets != 0) {
+				throw new IllegalArgumentException(
+						"Window of " + windowMillis[i] + " ms cannot be split into " + buckets + " buckets");
+			}
+			windows[i] = new Window(windowMillis[i] / buckets, buckets, racks);
+		}
+	}
+
+	/**
+	 * Records a pop sold now
+	 *
+	 * @param rack
+	 *            the rack it was sold from
+	 * @param price
+	 *            the price paid
+	 */
+	public void recordSale(int rack, int price) {
+		recordSale(rack, price, clock.currentTimeMillis());
+	}
+
+	/**
+	 * Records a pop sold at a given time. A sale older than a window is left
+	 * out of it.
+	 *
+	 * @param rack
+	 *            the rack it was sold from
+	 * @param price
+	 *            the price paid
+	 * @param time
+	 *            the time of the sale in milliseconds
+	 */
+	public synchronized void recordSale(int rack, int price, long time) {
+		for (Window window : windows) {
+			window.add(rack, price, time);
+		}
+	}
+
+	/**
+	 * @param window
+	 *            the index of the window
+	 * @param rack
+	 *            the rack
+	 * @return the pops sold from the rack in the window
+	 */
+	public synchronized long getUnits(int window, int rack) {
+		Window w = current(window);
+		return w.totalUnits[rack];
+	}
+
+	/**
+	 * @param window
+	 *            the index of the window
+	 * @param rack
+	 *            the rack
+	 * @return the revenue taken by the rack in the window
+	 */
+	public synchronized long getRevenue(int window, int rack) {
+		Window w = current(window);
+		return w.totalRevenue[rack];
+	}
+
+	/**
+	 * @param window
+	 *            the index of the window
+	 * @return the pops sold by the machine in the window
+	 */
+	public synchronized long getMachineUnits(int window) {
+		return sum(current(window).totalUnits);
+	}
+
+	/**
+	 * @param window
+	 *            the index of the window
+	 * @return the revenue taken by the machine in the window
+	 */
+	public synchronized long getMachineRevenue(int window) {
+		return sum(current(window).totalRevenue);
+	}
+
+	/**
+	 * Copies the pops sold and revenue of every rack in a window
+	 *
+	 * @param window
+	 *            the index of the window
+	 * @param units
+	 *            filled with the pops sold by each rack
+	 * @param revenue
+	 *            filled with the revenue taken by each rack
+	 */
+	public synchronized void copy(int window, long[] units, long[] revenue) {
+		Window w = current(window);
+		System.arraycopy(w.totalUnits, 0, units, 0, racks);
+		System.arraycopy(w.totalRevenue, 0, revenue, 0, racks);
+	}
+
+	//moves a window up to the current time, dropping the buckets that fell out
+	private Window current(int window) {
+		Window w = windows[window];
+		w.advance(clock.currentTimeMillis() / w.width);
+		return w;
+	}
+
+	private static long sum(long[] values) {
+		long sum = 0;
+		for (long value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/**
+	 * @return the number of windows kept
+	 */
+	public int getNumberOfWindows() {
+		return windows.length;
+	}
+
+	/**
+	 * @param window
+	 *            the index of the window
+	 * @return the length of the window in milliseconds
+	 */
+	public long getWindowMillis(int window) {
+		return windows[window].width * windows[window].buckets;
+	}
+
+	/**
+	 * @return the number of racks counted
+	 */
+	public int getNumberOfRacks() {
+		return racks;
+	}
+
+	// one window: a ring of buckets, each holding a count per rack, laid out
+	// bucket by bucket in flat arrays
+	private static final class Window {
+		final long width;
+		final int buckets;
+		final int racks;
+		final long[] units;
+		final long[] revenue;
+		final long[] totalUnits;
+		final long[] totalRevenue;
+		// the number of the newest bucket, counting bucket widths from time 0
+		long newest = 0;
+
+		Window(long width, int buckets, int racks) {
+			this.width = width;
+			this.buckets = buckets;
+			this.racks = racks;
+			units = new long[buckets * racks];
+			revenue = new long[buckets * racks];
+			totalUnits = new long[racks];
+			totalRevenue = new long[racks];
+		}
+
+		void add(int rack, int price, long time) {
+			long bucket = time / width;
+			advance(bucket);
+			if (bucket <= newest - buckets) {
+				return;
+			}
+			int slot = (int) (bucket % buckets) * racks + rack;
+			units[slot]++;
+			revenue[slot] += price;
+			totalUnits[rack]++;
+			totalRevenue[rack] += price;
+		}
+
+		// clears the buckets between the newest one and the given one, at most
+		// once around the ring however long it has been
+		void advance(long bucket) {
+			if (bucket <= newest) {
+				return;
+			}
+			long steps = Math.min(bucket - newest, buckets);
+			for (long i = 1; i <= steps; i++) {
+				int base = (int) ((newest + i) % buckets) * racks;
+				for (int rack = 0; rack < racks; rack++) {
+					totalUnits[rack] -= units[base + rack];
+					totalRevenue[rack] -= revenue[base + rack];
+					units[base + rack] = 0;
+					revenue[base + rack] = 0;
+				}
+			}
+			newest = bucket;
+		}
+	}
+}
@@ -0,0 +1,350 @@
+package ca.ucalgary.seng300.a1.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.TimeSource;
+
+/**
+ * Simulates one vending machine and its controller over days of simulated
+ * time. Customers arrive as a Poisson process whose rate follows the hour of
+ * the day; each picks a selection, and if the machine shows it sold out either
+ * picks another one or leaves. Otherwise they insert coins, press the button,
+ * ask for any change and usually open the delivery chute a few seconds later.
+ * A technician visits at a fixed interval to fill the racks, empty the chute
+ * and collect the coins.
+ *
+ * Every random choice comes from one generator seeded by the profile, and the
+ * whole run happens on the calling thread, so the same profile always gives
+ * the same report.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class MachineSimulation {
+
+	private static final long COLLECT_DELAY = 5 * Simulator.SECOND;
+
+	private final SimulationProfile profile;
+	private final Simulator simulator = new Simulator();
+	private final Random random;
+	private final VendingMachine vendingMachine;
+	private final Controller controller;
+	private final String[] names;
+	private final int[] prices;
+	private final Coin[] coins;
+	private final double[] cumulativeWeights;
+	private final double peakDemand;
+
+	// results, indexed by rack
+	private final long[] sales;
+	private final long[] stockOuts;
+	private final long[] lostSales;
+	private final long[] substitutions;
+	private final long[] emptyMillis;
+	private final long[] emptySince;
+	private long customers = 0;
+	private long revenue = 0;
+	private long faults = 0;
+
+	/**
+	 * Builds the machine and fills its racks
+	 *
+	 * @param profile
+	 *            the machine, customers and technician to simulate
+	 */
+	public MachineSimulation(SimulationProfile profile) {
+		this.profile = profile;
+		random = new Random(profile.getSeed());
+		prices = profile.getPrices().clone();
+		if (profile.getProductWeights().length != prices.length) {
+			throw new IllegalArgumentException("Need one product weight for each price");
+		}
+
+		int[] coinKinds = profile.getCoins();
+		coins = new Coin[coinKinds.length];
+		for (int i = 0; i < coinKinds.length; i++) {
+			coins[i] = new Coin(coinKinds[i]);
+		}
+
+		names = new String[prices.length];
+		List<String> nameList = new ArrayList<String>();
+		List<Integer> costList = new ArrayList<Integer>();
+		for (int i = 0; i < prices.length; i++) {
+			names[i] = "pop" + (i + 1);
+			nameList.add(names[i]);
+			costList.add(prices[i]);
+		}
+		vendingMachine = new VendingMachine(coinKinds, prices.length, profile.getCoinRackCapacity(),
+				profile.getPopCanRackCapacity(), profile.getReceptacleCapacity());
+		vendingMachine.configure(nameList, costList);
+		controller = new Controller(vendingMachine, names);
+		// coin rates are measured on the simulated clock
+		controller.setTimeSource(new TimeSource() {
+			@Override
+			public long currentTimeMillis() {
+				return simulator.now();
+			}
+		});
+
+		cumulativeWeights = cumulative(profile.getProductWeights());
+		double peak = 0;
+		for (double demand : profile.getHourlyDemand()) {
+			peak = Math.max(peak, demand);
+		}
+		peakDemand = peak;
+
+		sales = new long[prices.length];
+		stockOuts = new long[prices.length];
+		lostSales = new long[prices.length];
+		substitutions = new long[prices.length];
+		emptyMillis = new long[prices.length];
+		emptySince = new long[prices.length];
+		restock();
+	}
+
+	/**
+	 * Runs the simulation for the number of days in the profile. A simulation
+	 * can only be run once.
+	 *
+	 * @return the sales, stock-outs and lost sales of each rack
+	 */
+	public SimulationReport run() {
+		if (simulator.getActionsRun() > 0) {
+			throw new IllegalStateException("Simulation has already run");
+		}
+		long end = profile.getDays() * Simulator.DAY;
+		scheduleArrival();
+		simulator.schedule(profile.getRestockInterval(), new Restock());
+
+		long start = System.nanoTime();
+		simulator.runUntil(end);
+		long nanos = System.nanoTime() - start;
+
+		// racks still empty at the end count as empty until then
+		for (int rack = 0; rack < prices.length; rack++) {
+			if (controller.getInventory(rack) == 0) {
+				emptyMillis[rack] += end - emptySince[rack];
+			}
+		}
+		return new SimulationReport(profile.getSeed(), profile.getDays(), names, customers, sales, stockOuts,
+				lostSales, substitutions, emptyMillis, revenue, faults, simulator.getActionsRun(), nanos);
+	}
+
+	/**
+	 * @return the controller being simulated
+	 */
+	public Controller getController() {
+		return controller;
+	}
+
+	/**
+	 * Schedules the next customer. Arrivals are drawn at the busiest hour's
+	 * rate and kept in proportion to the demand of the hour they land in, which
+	 * gives a Poisson process whose rate changes through the day.
+	 */
+	private void scheduleArrival() {
+		double peakPerMilli = profile.getCustomersPerHour() * peakDemand / mean(profile.getHourlyDemand())
+				/ Simulator.HOUR;
+		if (peakPerMilli <= 0) {
+			return;
+		}
+		double[] hourlyDemand = profile.getHourlyDemand();
+		long time = simulator.now();
+		while (true) {
+			time += Math.max(1, (long) (-Math.log(1 - random.nextDouble()) / peakPerMilli));
+			int hour = (int) (time % Simulator.DAY / Simulator.HOUR);
+			if (random.nextDouble() * peakDemand < hourlyDemand[hour]) {
+				break;
+			}
+		}
+		simulator.scheduleAt(time, new Arrival());
+	}
+
+	// fills every rack, noting how long the empty ones were empty
+	private void restock() {
+		long now = simulator.now();
+		int capacity = profile.getPopCanRackCapacity();
+		for (int rack = 0; rack < prices.length; rack++) {
+			int missing = capacity - controller.getInventory(rack);
+			if (missing <= 0) {
+				continue;
+			}
+			if (controller.getInventory(rack) == 0 && now > 0) {
+				emptyMillis[rack] += now - emptySince[rack];
+			}
+			PopCan[] cans = new PopCan[missing];
+			for (int i = 0; i < missing; i++) {
+				cans[i] = new PopCan(names[rack]);
+			}
+			vendingMachine.getPopCanRack(rack).load(cans);
+		}
+	}
+
+	/**
+	 * A customer at the machine
+	 */
+	private class Arrival implements SimAction {
+
+		public void run(Simulator simulator) throws DisabledException {
+			scheduleArrival();
+			customers++;
+
+			int wanted = pick(random.nextDouble());
+			int rack = wanted;
+			if (controller.getInventory(wanted) == 0) {
+				rack = random.nextDouble() < profile.getSubstituteProbability() ? substitute(wanted) : -1;
+				if (rack < 0) {
+					lostSales[wanted]++;
+					return;
+				}
+				substitutions[wanted]++;
+			}
+
+			try {
+				pay(prices[rack]);
+				int salesBefore = controller.getSalesCount(rack);
+				int pendingBefore = controller.getPendingDeliveries();
+				vendingMachine.getSelectionButton(rack).press();
+				// a purchase held for a full chute is paid for and delivered later.
+				// The last message may come from something the press set off
+				// afterwards, e.g. the coin slot being disabled, so it is not used.
+				if (controller.getSalesCount(rack) == salesBefore
+						&& controller.getPendingDeliveries() == pendingBefore) {
+					// e.g. the delivery chute is full; the customer leaves
+					lostSales[wanted]++;
+					controller.returnChange();
+					return;
+				}
+				sales[rack]++;
+				revenue += prices[rack];
+				if (controller.getInventory(rack) == 0) {
+					stockOuts[rack]++;
+					emptySince[rack] = simulator.now();
+				}
+				if (controller.getBalance() > 0) {
+					controller.returnChange();
+				}
+			} catch (DisabledException e) {
+				// the coin slot was disabled before the coin storage overflowed;
+				// the customer leaves with the coins already put in
+				lostSales[wanted]++;
+				controller.returnChange();
+				return;
+			} catch (SimulationException e) {
+				// e.g. coin storage is full
+				faults++;
+				lostSales[wanted]++;
+				return;
+			}
+
+			if (random.nextDouble() < profile.getCollectProbability()) {
+				simulator.schedule(COLLECT_DELAY, new Collect());
+			}
+		}
+
+		// inserts coins, largest first, until the price is covered
+		private void pay(int price) throws DisabledException {
+			int owed = price - controller.getBalance();
+			while (owed > 0) {
+				Coin coin = coins[coins.length - 1];
+				for (Coin c : coins) {
+					if (c.getValue() <= owed) {
+						coin = c;
+						break;
+					}
+				}
+				vendingMachine.getCoinSlot().addCoin(coin);
+				owed -= coin.getValue();
+			}
+		}
+
+		// another selection in stock, chosen by popularity, or -1 if none
+		private int substitute(int wanted) {
+			double[] weights = profile.getProductWeights();
+			double total = 0;
+			for (int rack = 0; rack < weights.length; rack++) {
+				if (rack != wanted && controller.getInventory(rack) > 0) {
+					total += weights[rack];
+				}
+			}
+			if (total <= 0) {
+				return -1;
+			}
+			double sample = random.nextDouble() * total;
+			int last = -1;
+			for (int rack = 0; rack < weights.length; rack++) {
+				if (rack != wanted && controller.getInventory(rack) > 0) {
+					last = rack;
+					sample -= weights[rack];
+					if (sample < 0) {
+						return rack;
+					}
+				}
+			}
+			return last;
+		}
+	}
+
+	/**
+	 * A customer opening the delivery chute
+	 */
+	private class Collect implements SimAction {
+
+		public void run(Simulator simulator) {
+			vendingMachine.getDeliveryChute().removeItems();
+		}
+	}
+
+	/**
+	 * A technician visit
+	 */
+	private class Restock implements SimAction {
+
+		public void run(Simulator simulator) {
+			restock();
+			vendingMachine.getDeliveryChute().removeItems();
+			vendingMachine.getCoinReceptacle().unload();
+			simulator.schedule(profile.getRestockInterval(), this);
+		}
+	}
+
+	// the first selection whose cumulative weight reaches the sample
+	private int pick(double sample) {
+		for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+			if (sample < cumulativeWeights[i]) {
+				return i;
+			}
+		}
+		return cumulativeWeights.length - 1;
+	}
+
+	// running totals of the weights, normalised to end at 1
+	private static double[] cumulative(double[] weights) {
+		double[] cumulative = new double[weights.length];
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		double sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i];
+			cumulative[i] = sum / total;
+		}
+		return cumulative;
+	}
+
+	private static double mean(double[] values) {
+		double total = 0;
+		for (double value : values) {
+			total += value;
+		}
+		return total / values.length;
+	}
+}
@@ -0,0 +1,24 @@
+package ca.ucalgary.seng300.a1.sim;
+
+import org.lsmr.vending.hardware.DisabledException;
+
+/**
+ * Something that happens at a point in simulated time
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface SimAction {
+
+	/**
+	 * Called when the simulated clock reaches the time the action was
+	 * scheduled for
+	 *
+	 * @param simulator
+	 *            the simulator, for reading the clock and scheduling more
+	 *            actions
+	 * @throws DisabledException
+	 *             if the action used disabled hardware
+	 */
+	public void run(Simulator simulator) throws DisabledException;
+}
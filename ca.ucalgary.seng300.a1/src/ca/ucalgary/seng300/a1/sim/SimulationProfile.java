@@ -0,0 +1,237 @@
+package ca.ucalgary.seng300.a1.sim;
+
+/**
+ * Describes a simulated machine and the customers and technician who use it:
+ * what it sells, how busy it is through the day, how customers behave when
+ * their selection is sold out and how often it is restocked.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class SimulationProfile {
+
+	private int days = 30;
+	private double customersPerHour = 3;
+	private double[] hourlyDemand = { 0.1, 0.05, 0.05, 0.05, 0.1, 0.2, 0.5, 1, 1.2, 1, 1, 1.5, 2, 1.5, 1, 1, 1.2,
+			1.5, 1.2, 1, 0.8, 0.6, 0.4, 0.2 };
+	private int[] prices = { 200, 200, 250, 250, 300, 300 };
+	private double[] productWeights = { 6, 5, 4, 3, 2, 1 };
+	private int[] coins = { 200, 100, 25, 10, 5 };
+	private int popCanRackCapacity = 15;
+	private int coinRackCapacity = 50;
+	private int receptacleCapacity = 500;
+	private long restockInterval = Simulator.DAY;
+	private double substituteProbability = 0.4;
+	private double collectProbability = 0.98;
+	private long seed = 1;
+
+	/**
+	 * @return the number of days to simulate
+	 */
+	public int getDays() {
+		return days;
+	}
+
+	/**
+	 * @param days
+	 *            the number of days to simulate
+	 */
+	public void setDays(int days) {
+		this.days = days;
+	}
+
+	/**
+	 * @return the mean number of customers an hour over the day
+	 */
+	public double getCustomersPerHour() {
+		return customersPerHour;
+	}
+
+	/**
+	 * @param customersPerHour
+	 *            the mean number of customers an hour over the day
+	 */
+	public void setCustomersPerHour(double customersPerHour) {
+		this.customersPerHour = customersPerHour;
+	}
+
+	/**
+	 * @return how busy each hour of the day is, relative to the others
+	 */
+	public double[] getHourlyDemand() {
+		return hourlyDemand;
+	}
+
+	/**
+	 * @param hourlyDemand
+	 *            how busy each hour of the day is relative to the others, 24
+	 *            values starting at midnight
+	 */
+	public void setHourlyDemand(double... hourlyDemand) {
+		if (hourlyDemand.length != 24) {
+			throw new IllegalArgumentException("Need one demand for each hour of the day");
+		}
+		this.hourlyDemand = hourlyDemand;
+	}
+
+	/**
+	 * @return the price of each selection in cents
+	 */
+	public int[] getPrices() {
+		return prices;
+	}
+
+	/**
+	 * @param prices
+	 *            the price of each selection in cents, one per rack
+	 */
+	public void setPrices(int... prices) {
+		this.prices = prices;
+	}
+
+	/**
+	 * @return the relative popularity of each selection
+	 */
+	public double[] getProductWeights() {
+		return productWeights;
+	}
+
+	/**
+	 * @param productWeights
+	 *            the relative popularity of each selection, one weight per rack
+	 */
+	public void setProductWeights(double... productWeights) {
+		this.productWeights = productWeights;
+	}
+
+	/**
+	 * @return the coins the machine accepts and customers pay with, largest
+	 *         first
+	 */
+	public int[] getCoins() {
+		return coins;
+	}
+
+	/**
+	 * @param coins
+	 *            the coins the machine accepts and customers pay with, largest
+	 *            first
+	 */
+	public void setCoins(int... coins) {
+		this.coins = coins;
+	}
+
+	/**
+	 * @return the number of pops each rack holds
+	 */
+	public int getPopCanRackCapacity() {
+		return popCanRackCapacity;
+	}
+
+	/**
+	 * @param popCanRackCapacity
+	 *            the number of pops each rack holds
+	 */
+	public void setPopCanRackCapacity(int popCanRackCapacity) {
+		this.popCanRackCapacity = popCanRackCapacity;
+	}
+
+	/**
+	 * @return the number of coins each coin rack holds
+	 */
+	public int getCoinRackCapacity() {
+		return coinRackCapacity;
+	}
+
+	/**
+	 * @param coinRackCapacity
+	 *            the number of coins each coin rack holds
+	 */
+	public void setCoinRackCapacity(int coinRackCapacity) {
+		this.coinRackCapacity = coinRackCapacity;
+	}
+
+	/**
+	 * @return the number of coins the receptacle holds, which is also the
+	 *         number of items the delivery chute holds
+	 */
+	public int getReceptacleCapacity() {
+		return receptacleCapacity;
+	}
+
+	/**
+	 * @param receptacleCapacity
+	 *            the number of coins the receptacle holds, which is also the
+	 *            number of items the delivery chute holds
+	 */
+	public void setReceptacleCapacity(int receptacleCapacity) {
+		this.receptacleCapacity = receptacleCapacity;
+	}
+
+	/**
+	 * @return the simulated milliseconds between technician visits
+	 */
+	public long getRestockInterval() {
+		return restockInterval;
+	}
+
+	/**
+	 * @param restockInterval
+	 *            the simulated milliseconds between technician visits, which
+	 *            fill every rack, empty the delivery chute and collect the
+	 *            coins
+	 */
+	public void setRestockInterval(long restockInterval) {
+		if (restockInterval <= 0) {
+			throw new IllegalArgumentException("Restock interval must be positive");
+		}
+		this.restockInterval = restockInterval;
+	}
+
+	/**
+	 * @return the chance a customer whose selection is sold out buys another
+	 *         one instead of leaving
+	 */
+	public double getSubstituteProbability() {
+		return substituteProbability;
+	}
+
+	/**
+	 * @param substituteProbability
+	 *            the chance a customer whose selection is sold out buys another
+	 *            one instead of leaving
+	 */
+	public void setSubstituteProbability(double substituteProbability) {
+		this.substituteProbability = substituteProbability;
+	}
+
+	/**
+	 * @return the chance a customer opens the delivery chute afterwards
+	 */
+	public double getCollectProbability() {
+		return collectProbability;
+	}
+
+	/**
+	 * @param collectProbability
+	 *            the chance a customer opens the delivery chute afterwards
+	 */
+	public void setCollectProbability(double collectProbability) {
+		this.collectProbability = collectProbability;
+	}
+
+	/**
+	 * @return the random seed for arrivals and customer choices
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed
+	 *            the random seed for arrivals and customer choices
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+}
@@ -0,0 +1,198 @@
+package ca.ucalgary.seng300.a1.sim;
+
+import java.util.Arrays;
+
+/**
+ * The results of one simulated machine: sales, stock-outs and lost sales for
+ * each rack, and how long the run took
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class SimulationReport {
+
+	private final long seed;
+	private final int days;
+	private final String[] names;
+	private final long customers;
+	private final long[] sales;
+	private final long[] stockOuts;
+	private final long[] lostSales;
+	private final long[] substitutions;
+	private final long[] emptyMillis;
+	private final long revenue;
+	private final long faults;
+	private final long actions;
+	private final long nanos;
+
+	SimulationReport(long seed, int days, String[] names, long customers, long[] sales, long[] stockOuts,
+			long[] lostSales, long[] substitutions, long[] emptyMillis, long revenue, long faults, long actions,
+			long nanos) {
+		this.seed = seed;
+		this.days = days;
+		this.names = names.clone();
+		this.customers = customers;
+		this.sales = sales.clone();
+		this.stockOuts = stockOuts.clone();
+		this.lostSales = lostSales.clone();
+		this.substitutions = substitutions.clone();
+		this.emptyMillis = emptyMillis.clone();
+		this.revenue = revenue;
+		this.faults = faults;
+		this.actions = actions;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return the seed the simulation ran with
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the number of days simulated
+	 */
+	public int getDays() {
+		return days;
+	}
+
+	/**
+	 * @return the number of racks
+	 */
+	public int getNumberOfRacks() {
+		return sales.length;
+	}
+
+	/**
+	 * @return the number of customers who came to the machine
+	 */
+	public long getCustomers() {
+		return customers;
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of pops sold from the rack
+	 */
+	public long getSales(int rackID) {
+		return sales[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of times the rack sold its last pop
+	 */
+	public long getStockOuts(int rackID) {
+		return stockOuts[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of customers who wanted the rack's selection and
+	 *         left without buying anything
+	 */
+	public long getLostSales(int rackID) {
+		return lostSales[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the number of customers who found the rack's selection sold out
+	 *         and bought another one
+	 */
+	public long getSubstitutions(int rackID) {
+		return substitutions[rackID];
+	}
+
+	/**
+	 * @param rackID
+	 *            the rack
+	 * @return the simulated milliseconds the rack spent empty
+	 */
+	public long getEmptyMillis(int rackID) {
+		return emptyMillis[rackID];
+	}
+
+	/**
+	 * @return the number of pops sold from every rack
+	 */
+	public long getTotalSales() {
+		return sum(sales);
+	}
+
+	/**
+	 * @return the number of customers who left without buying anything
+	 */
+	public long getTotalLostSales() {
+		return sum(lostSales);
+	}
+
+	/**
+	 * @return the money taken in cents
+	 */
+	public long getRevenue() {
+		return revenue;
+	}
+
+	/**
+	 * @return the number of customers stopped by a hardware error
+	 */
+	public long getFaults() {
+		return faults;
+	}
+
+	/**
+	 * @return the number of simulated actions run
+	 */
+	public long getActions() {
+		return actions;
+	}
+
+	/**
+	 * @return the real time the simulation took in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @param other
+	 *            another report
+	 * @return true if both runs had the same outcome, ignoring how long they
+	 *         took
+	 */
+	public boolean sameOutcome(SimulationReport other) {
+		return seed == other.seed && days == other.days && customers == other.customers
+				&& Arrays.equals(sales, other.sales) && Arrays.equals(stockOuts, other.stockOuts)
+				&& Arrays.equals(lostSales, other.lostSales) && Arrays.equals(substitutions, other.substitutions)
+				&& Arrays.equals(emptyMillis, other.emptyMillis) && revenue == other.revenue
+				&& faults == other.faults && actions == other.actions;
+	}
+
+	private static long sum(long[] values) {
+		long total = 0;
+		for (long value : values) {
+			total += value;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("seed %d: %d days, %d customers, %d sold, %d lost, $%.2f in %.1f ms%n", seed,
+				days, customers, getTotalSales(), getTotalLostSales(), revenue / 100.0, nanos / 1e6));
+		report.append(String.format("  %-8s %8s %10s %10s %12s %11s%n", "rack", "sales", "stock-outs", "lost sales",
+				"substitutes", "hours empty"));
+		for (int i = 0; i < sales.length; i++) {
+			report.append(String.format("  %-8s %8d %10d %10d %12d %11.1f%n", names[i], sales[i], stockOuts[i],
+					lostSales[i], substitutions[i], emptyMillis[i] / (double) Simulator.HOUR));
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,112 @@
+package ca.ucalgary.seng300.a1.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a profile with many seeds at once. Each seed is a separate
+ * single-threaded simulation with its own machine, so they share nothing and
+ * each gives the same report it would on its own.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class SimulationRunner {
+
+	private final int threads;
+
+	/**
+	 * Uses one thread per core
+	 */
+	public SimulationRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads
+	 *            the number of simulations to run at once
+	 */
+	public SimulationRunner(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Need at least one thread");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Runs the profile once for each seed
+	 *
+	 * @param profile
+	 *            the profile to simulate; its own seed is ignored and it must
+	 *            not change while running
+	 * @param seeds
+	 *            the seeds
+	 * @return a report for each seed, in the same order
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for the simulations
+	 */
+	public List<SimulationReport> run(SimulationProfile profile, long... seeds) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, seeds.length)));
+		try {
+			List<Future<SimulationReport>> futures = new ArrayList<Future<SimulationReport>>();
+			for (long seed : seeds) {
+				futures.add(executor.submit(new Run(copy(profile, seed))));
+			}
+			List<SimulationReport> reports = new ArrayList<SimulationReport>();
+			for (Future<SimulationReport> future : futures) {
+				try {
+					reports.add(future.get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+			return reports;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// a profile of its own for each simulation, so each has its own seed
+	private static SimulationProfile copy(SimulationProfile profile, long seed) {
+		SimulationProfile copy = new SimulationProfile();
+		copy.setDays(profile.getDays());
+		copy.setCustomersPerHour(profile.getCustomersPerHour());
+		copy.setHourlyDemand(profile.getHourlyDemand().clone());
+		copy.setPrices(profile.getPrices().clone());
+		copy.setProductWeights(profile.getProductWeights().clone());
+		copy.setCoins(profile.getCoins().clone());
+		copy.setPopCanRackCapacity(profile.getPopCanRackCapacity());
+		copy.setCoinRackCapacity(profile.getCoinRackCapacity());
+		copy.setReceptacleCapacity(profile.getReceptacleCapacity());
+		copy.setRestockInterval(profile.getRestockInterval());
+		copy.setSubstituteProbability(profile.getSubstituteProbability());
+		copy.setCollectProbability(profile.getCollectProbability());
+		copy.setSeed(seed);
+		return copy;
+	}
+
+	/**
+	 * One seed's simulation
+	 */
+	private static class Run implements Callable<SimulationReport> {
+
+		private final SimulationProfile profile;
+
+		Run(SimulationProfile profile) {
+			this.profile = profile;
+		}
+
+		public SimulationReport call() {
+			return new MachineSimulation(profile).run();
+		}
+	}
+}
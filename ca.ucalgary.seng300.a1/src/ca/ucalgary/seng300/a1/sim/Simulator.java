@@ -0,0 +1,133 @@
+package ca.ucalgary.seng300.a1.sim;
+
+import java.util.PriorityQueue;
+
+import org.lsmr.vending.hardware.DisabledException;
+
+/**
+ * A discrete-event scheduler with a virtual clock. Actions run one at a time
+ * in order of their scheduled time, and actions scheduled for the same time
+ * run in the order they were scheduled, so a run depends only on what was
+ * scheduled and never on the real clock. The clock jumps straight to the next
+ * action, so a month of simulated time takes as long as its actions do.
+ *
+ * Not thread safe; independent simulations can run on separate threads.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class Simulator {
+
+	public static final long SECOND = 1000;
+	public static final long MINUTE = 60 * SECOND;
+	public static final long HOUR = 60 * MINUTE;
+	public static final long DAY = 24 * HOUR;
+
+	private final PriorityQueue<Scheduled> queue = new PriorityQueue<Scheduled>();
+	private long now = 0;
+	private long sequence = 0;
+	private long actionsRun = 0;
+	private long disabled = 0;
+
+	/**
+	 * @return the simulated time in milliseconds since the start
+	 */
+	public long now() {
+		return now;
+	}
+
+	/**
+	 * Schedules an action after a delay
+	 *
+	 * @param delay
+	 *            the simulated time from now in milliseconds
+	 * @param action
+	 *            the action
+	 */
+	public void schedule(long delay, SimAction action) {
+		scheduleAt(now + Math.max(0, delay), action);
+	}
+
+	/**
+	 * Schedules an action at a time
+	 *
+	 * @param time
+	 *            the simulated time in milliseconds, no earlier than now
+	 * @param action
+	 *            the action
+	 */
+	public void scheduleAt(long time, SimAction action) {
+		if (time < now) {
+			throw new IllegalArgumentException("Cannot schedule in the past: " + time + " < " + now);
+		}
+		queue.add(new Scheduled(time, sequence++, action));
+	}
+
+	/**
+	 * Runs the actions scheduled up to and including a time, then moves the
+	 * clock to that time. Actions scheduled later stay queued.
+	 *
+	 * @param endTime
+	 *            the simulated time to stop at
+	 * @return the number of actions run
+	 */
+	public long runUntil(long endTime) {
+		long before = actionsRun;
+		while (!queue.isEmpty() && queue.peek().time <= endTime) {
+			Scheduled next = queue.poll();
+			now = next.time;
+			actionsRun++;
+			try {
+				next.action.run(this);
+			} catch (DisabledException e) {
+				disabled++;
+			}
+		}
+		now = Math.max(now, endTime);
+		return actionsRun - before;
+	}
+
+	/**
+	 * @return the number of actions run so far
+	 */
+	public long getActionsRun() {
+		return actionsRun;
+	}
+
+	/**
+	 * @return the number of actions stopped by disabled hardware
+	 */
+	public long getDisabledActions() {
+		return disabled;
+	}
+
+	/**
+	 * @return the number of actions waiting to run
+	 */
+	public int getPending() {
+		return queue.size();
+	}
+
+	/**
+	 * An action in the queue, ordered by time and then by when it was
+	 * scheduled
+	 */
+	private static final class Scheduled implements Comparable<Scheduled> {
+		final long time;
+		final long sequence;
+		final SimAction action;
+
+		Scheduled(long time, long sequence, SimAction action) {
+			this.time = time;
+			this.sequence = sequence;
+			this.action = action;
+		}
+
+		public int compareTo(Scheduled other) {
+			if (time != other.time) {
+				return time < other.time ? -1 : 1;
+			}
+			return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+		}
+	}
+}
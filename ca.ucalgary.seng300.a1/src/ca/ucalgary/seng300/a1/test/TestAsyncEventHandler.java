@@ -0,0 +1,132 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.async.AsyncEventHandler;
+import ca.ucalgary.seng300.a1.async.BlockingWaitStrategy;
+import ca.ucalgary.seng300.a1.async.BusySpinWaitStrategy;
+import ca.ucalgary.seng300.a1.async.SleepingWaitStrategy;
+import ca.ucalgary.seng300.a1.async.WaitStrategy;
+import ca.ucalgary.seng300.a1.async.YieldingWaitStrategy;
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestAsyncEventHandler {
+
+	private VendingMachine vendingMachine;
+	private Controller controller;
+	private AsyncEventHandler async;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() {
+		vendingMachine = new VendingMachine(new int[] { 5, 10, 25, 100, 200 }, 2, 2000, 10, 2000);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList("pop1", "pop2")),
+				new ArrayList<Integer>(Arrays.asList(200, 250)));
+		controller = new Controller(vendingMachine, new String[] { "pop1", "pop2" });
+		vendingMachine.getPopCanRack(0).load(new PopCan("pop1"), new PopCan("pop1"));
+	}
+
+	/**
+	 * Stops the controller thread after every test
+	 * @throws InterruptedException
+	 */
+	@After
+	public void tearDown() throws InterruptedException {
+		if (async != null) {
+			async.stop();
+		}
+	}
+
+	/**
+	 * Tests that coins and a purchase give the same result with each wait
+	 * strategy as when the controller is called directly
+	 * @throws Exception
+	 */
+	@Test
+	public void testPurchaseWithEachStrategy() throws Exception {
+		WaitStrategy[] strategies = { new BusySpinWaitStrategy(), new YieldingWaitStrategy(),
+				new SleepingWaitStrategy(1000), new BlockingWaitStrategy() };
+		for (WaitStrategy strategy : strategies) {
+			setup();
+			async = new AsyncEventHandler(controller, 64, strategy, 16);
+			async.start();
+			vendingMachine.getCoinSlot().addCoin(new Coin(100));
+			vendingMachine.getCoinSlot().addCoin(new Coin(100));
+			vendingMachine.getCoinSlot().addCoin(new Coin(25));
+			async.awaitIdle();
+			assertEquals(225, controller.getBalance());
+
+			vendingMachine.getSelectionButton(0).press();
+			async.awaitIdle();
+			assertEquals(25, controller.getBalance());
+			assertEquals(1, controller.getInventory(0));
+			assertEquals(MessageCode.CAN_REMOVED, controller.getLastMessageCode());
+			async.stop();
+			assertEquals(0, async.getErrors());
+		}
+	}
+
+	/**
+	 * Tests that no event is lost when the hardware fills the ring faster than
+	 * the controller empties it
+	 * @throws Exception
+	 */
+	@Test
+	public void testFullRing() throws Exception {
+		async = new AsyncEventHandler(controller, 4, new YieldingWaitStrategy(), 2);
+		async.start();
+		Coin nickel = new Coin(5);
+		for (int i = 0; i < 1000; i++) {
+			vendingMachine.getCoinSlot().addCoin(nickel);
+		}
+		async.awaitIdle();
+		assertEquals(5000, controller.getBalance());
+		assertEquals(1000, async.getPublished());
+		assertEquals(1000, async.getHandled());
+	}
+
+	/**
+	 * Tests that stopping hands the listeners back to the controller
+	 * @throws Exception
+	 */
+	@Test
+	public void testStop() throws Exception {
+		async = new AsyncEventHandler(controller, 8, new BlockingWaitStrategy(), 8);
+		async.start();
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		async.stop();
+		assertEquals(100, controller.getBalance());
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		assertEquals(200, controller.getBalance());
+		assertEquals(1, async.getPublished());
+		assertTrue(async.getBatches() >= 1);
+	}
+
+	/**
+	 * Tests that the capacity must be a power of two
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCapacityPowerOfTwo() {
+		new AsyncEventHandler(controller, 12, new BusySpinWaitStrategy(), 1);
+	}
+}
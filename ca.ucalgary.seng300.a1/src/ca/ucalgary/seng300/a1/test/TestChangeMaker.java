@@ -0,0 +1,140 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ca.ucalgary.seng300.a1.change.ChangeMaker;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestChangeMaker {
+
+	/**
+	 * Tests that the fewest coins are used when the largest coin first is not
+	 * the best choice
+	 */
+	@Test
+	public void testNonGreedyDenominations() {
+		ChangeMaker changeMaker = new ChangeMaker(new int[] { 1, 3, 4 }, 10);
+		for (int i = 0; i < 3; i++) {
+			changeMaker.setCount(i, 10);
+		}
+		int[] plan = new int[3];
+		assertTrue(changeMaker.makeChange(6, plan));
+		assertArrayEquals(new int[] { 0, 2, 0 }, plan);
+	}
+
+	/**
+	 * Tests that change is only made from the coins in the racks
+	 */
+	@Test
+	public void testLimitedCoins() {
+		ChangeMaker changeMaker = new ChangeMaker(new int[] { 1, 3, 4 }, 10);
+		changeMaker.setCount(0, 2);
+		changeMaker.setCount(1, 1);
+		changeMaker.setCount(2, 1);
+		int[] plan = new int[3];
+		assertTrue(changeMaker.makeChange(6, plan));
+		assertArrayEquals(new int[] { 2, 0, 1 }, plan);
+
+		changeMaker.setDisabled(2, true);
+		assertFalse(changeMaker.makeChange(6, plan));
+		assertArrayEquals(new int[] { 0, 0, 0 }, plan);
+	}
+
+	/**
+	 * Tests that an empty rack is not used and that a refilled one is
+	 */
+	@Test
+	public void testRackEmptiedAndRefilled() {
+		ChangeMaker changeMaker = new ChangeMaker(new int[] { 25, 10, 5 }, 100);
+		changeMaker.setCount(0, 1);
+		changeMaker.setCount(1, 1);
+		int[] plan = new int[3];
+		assertFalse(changeMaker.makeChange(40, plan));
+
+		changeMaker.add(2, 1);
+		assertTrue(changeMaker.makeChange(40, plan));
+		assertArrayEquals(new int[] { 1, 1, 1 }, plan);
+
+		changeMaker.add(0, -1);
+		assertFalse(changeMaker.makeChange(40, plan));
+		assertTrue(changeMaker.makeChange(15, plan));
+		assertArrayEquals(new int[] { 0, 1, 1 }, plan);
+	}
+
+	/**
+	 * Tests amounts larger than the tables were first built for
+	 */
+	@Test
+	public void testAmountAboveTableLimit() {
+		ChangeMaker changeMaker = new ChangeMaker(new int[] { 200, 100, 25 }, 10);
+		changeMaker.setCount(0, 10);
+		changeMaker.setCount(1, 10);
+		changeMaker.setCount(2, 10);
+		int[] plan = new int[3];
+		assertTrue(changeMaker.makeChange(525, plan));
+		assertArrayEquals(new int[] { 2, 1, 1 }, plan);
+	}
+
+	/**
+	 * Compares the change made against a search of every combination of coins,
+	 * for random rack contents
+	 */
+	@Test
+	public void testAgainstExhaustiveSearch() {
+		int[] denominations = { 1, 7, 10, 25 };
+		ChangeMaker changeMaker = new ChangeMaker(denominations, 50);
+		Random random = new Random(300);
+		int[] plan = new int[denominations.length];
+		int[] counts = new int[denominations.length];
+		for (int trial = 0; trial < 500; trial++) {
+			for (int i = 0; i < denominations.length; i++) {
+				counts[i] = random.nextInt(4);
+				changeMaker.setCount(i, counts[i]);
+			}
+			int amount = random.nextInt(80);
+			int expected = fewestCoins(denominations, counts, 0, amount);
+
+			boolean made = changeMaker.makeChange(amount, plan);
+			assertEquals(expected != Integer.MAX_VALUE, made);
+			if (made) {
+				int coins = 0;
+				int value = 0;
+				for (int i = 0; i < denominations.length; i++) {
+					assertTrue(plan[i] <= counts[i]);
+					coins += plan[i];
+					value += plan[i] * denominations[i];
+				}
+				assertEquals(amount, value);
+				assertEquals(expected, coins);
+			}
+		}
+	}
+
+	//the fewest coins that make an amount from the racks, trying every combination
+	private static int fewestCoins(int[] denominations, int[] counts, int rack, int amount) {
+		if (amount == 0) {
+			return 0;
+		}
+		if (rack == denominations.length) {
+			return Integer.MAX_VALUE;
+		}
+		int best = Integer.MAX_VALUE;
+		for (int n = 0; n <= counts[rack] && n * denominations[rack] <= amount; n++) {
+			int rest = fewestCoins(denominations, counts, rack + 1, amount - n * denominations[rack]);
+			if (rest != Integer.MAX_VALUE) {
+				best = Math.min(best, rest + n);
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,102 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.ucalgary.seng300.a1.logic.CoinStorage;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestCoinStorage {
+
+	private CoinStorage storage;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() {
+		storage = new CoinStorage(new int[] { 25, 100 }, new int[] { 20, 10 }, 10);
+	}
+
+	/**
+	 * Tests that the receptacle and racks are counted per denomination, with
+	 * coins waiting in the receptacle taking space in their rack
+	 */
+	@Test
+	public void testFillLevels() {
+		storage.setRackCount(1, 4);
+		storage.coinEntered(100, 0);
+		storage.coinEntered(100, 0);
+		storage.coinEntered(25, 0);
+		storage.coinEntered(5, 0);
+
+		assertEquals(4, storage.getReceptacleSize());
+		assertEquals(6, storage.getReceptacleSpace());
+		assertEquals(2, storage.getReceptacleCount(1));
+		assertEquals(4, storage.getRackSpace(1));
+		assertEquals(19, storage.getRackSpace(0));
+
+		storage.receptacleEmptied();
+		storage.addToRack(1, 2);
+		assertEquals(10, storage.getReceptacleSpace());
+		assertEquals(4, storage.getRackSpace(1));
+	}
+
+	/**
+	 * Tests that there is no forecast until there is a rate, and that a steady
+	 * rate forecasts the time for the space left
+	 */
+	@Test
+	public void testSteadyRate() {
+		assertEquals(CoinStorage.NO_FORECAST, storage.getTimeToFull(0));
+		storage.coinEntered(25, 0);
+		assertEquals(CoinStorage.NO_FORECAST, storage.getTimeToFull(0));
+
+		for (int i = 1; i < 4; i++) {
+			storage.coinEntered(25, i * 1000);
+		}
+		assertEquals(3600, storage.getCoinsPerHour(3000), 0.001);
+		assertEquals(6000, storage.getReceptacleTimeToFull(3000));
+		assertEquals(16000, storage.getRackTimeToFull(0, 3000));
+		assertEquals(CoinStorage.NO_FORECAST, storage.getRackTimeToFull(1, 3000));
+		assertEquals(6000, storage.getTimeToFull(3000));
+	}
+
+	/**
+	 * Tests that a burst shortens the forecast and a quiet spell lengthens it
+	 */
+	@Test
+	public void testRateChanges() {
+		for (int i = 0; i < 4; i++) {
+			storage.coinEntered(100, i * 10000);
+		}
+		long steady = storage.getReceptacleTimeToFull(30000);
+		storage.coinEntered(100, 30100);
+		storage.coinEntered(100, 30200);
+		long burst = storage.getReceptacleTimeToFull(30200);
+		assertEquals(4 * (0.64 * 10000 + 0.16 * 100 + 0.2 * 100), burst, 1);
+		assertEquals(true, burst < steady);
+
+		// an hour without coins is slower than the average
+		assertEquals(4 * 3600000L, storage.getReceptacleTimeToFull(30200 + 3600000));
+	}
+
+	/**
+	 * Tests that a full receptacle or a rack that storing would overflow needs
+	 * emptying now
+	 */
+	@Test
+	public void testFull() {
+		storage.setRackCount(1, 9);
+		storage.coinEntered(100, 0);
+		storage.coinEntered(100, 1000);
+		assertEquals(-1, storage.getRackSpace(1));
+		assertEquals(0, storage.getRackTimeToFull(1, 1000));
+		assertEquals(0, storage.getTimeToFull(1000));
+	}
+}
@@ -1,6 +1,9 @@
 package ca.ucalgary.seng300.a1.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,6 +16,9 @@ import org.lsmr.vending.*;
 import org.lsmr.vending.hardware.*;
 
 import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.PriceTable;
+import ca.ucalgary.seng300.a1.metrics.MetricsRegistry;
 
 /**
  * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
@@ -107,23 +113,74 @@ public class TestController {
 		}
 	}
 
-	/**Tests coin capacities exceeded
+	/**Tests coin capacities exceeded. Coins that do not fit in the receptacle
+	 * are returned through the delivery chute, and the coin slot is disabled
+	 * before a coin has nowhere to go.
 	 * @throws DisabledException
 	 */
-	@Test (expected = SimulationException.class)
+	@Test (expected = DisabledException.class)
 	public void testValidCoinCapacityExeeded() throws DisabledException, SimulationException {
 		assertEquals(0, controller.getBalance()); //starting balance should be 0
 
 		int amountInserted = 0;
 		for( int i = 1 ; i < (coinRackCapacity * 3) ; i++) {
+			if (i > receptacleCapacity * 2) {
+				assertTrue(controller.isCoinStorageFull());
+			}
 			addCoin(100);
-			amountInserted += 100;
-			if (i <= 200) {
-				assertEquals(amountInserted, controller.getBalance()); //check that vending machine reports balances correctly
+			if (i <= receptacleCapacity) {
+				amountInserted += 100;
 			}
+			assertEquals(amountInserted, controller.getBalance()); //check that vending machine reports balances correctly
 		}
 	}
 
+	/**Tests that the coin slot disabled for a full receptacle and chute is
+	 * enabled again once the receptacle has been emptied
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testCoinSlotEnabledAfterReceptacleEmptied() throws DisabledException {
+		vendingMachine = new VendingMachine(validCoins, popCanNames.size(), coinRackCapacity,
+				popCanRackCapacity, 1);
+		vendingMachine.configure(popCanNames, popCanCosts);
+		controller = new Controller(vendingMachine, names);
+
+		addCoin(100);
+		assertFalse(vendingMachine.getCoinSlot().isDisabled());
+		addCoin(100);
+		assertTrue(vendingMachine.getCoinSlot().isDisabled());
+		assertEquals(1, controller.getCoinStorage().getReceptacleSize());
+		assertEquals(100, controller.getBalance());
+
+		vendingMachine.getCoinReceptacle().unload();
+		assertFalse(vendingMachine.getCoinSlot().isDisabled());
+		assertFalse(controller.isCoinStorageFull());
+		assertEquals(0, controller.getCoinStorage().getReceptacleSize());
+		addCoin(100);
+		assertEquals(200, controller.getBalance());
+	}
+
+	/**Tests that a coin slot disabled by the technician stays disabled when the
+	 * coin storage is emptied, and that a reserve disables the slot early
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testCoinStorageReserve() throws DisabledException {
+		controller.setCoinStorageReserve(receptacleCapacity * 2 - 2);
+		addCoin(100);
+		assertFalse(vendingMachine.getCoinSlot().isDisabled());
+		addCoin(100);
+		assertTrue(controller.isCoinStorageFull());
+
+		vendingMachine.getCoinReceptacle().unload();
+		assertFalse(vendingMachine.getCoinSlot().isDisabled());
+
+		vendingMachine.getCoinSlot().disable();
+		vendingMachine.getCoinReceptacle().unload();
+		assertTrue(vendingMachine.getCoinSlot().isDisabled());
+	}
+
 	// test to see that exception is thrown if adding a coin while disabled
 	@Test(expected = DisabledException.class)
 	public void testSlotDisabledAddCoin() throws DisabledException {
@@ -204,6 +261,39 @@ public class TestController {
 	}
 
 
+	/**
+	 * Testing that the controller counts the pops in each rack from the rack events
+	 * @throws DisabledException
+	 * @throws CapacityExceededException
+	 */
+	@Test
+	public void testInventory() throws DisabledException, CapacityExceededException {
+		for (int i = 0; i < popCanNames.size(); i++) {
+			assertEquals(popCanRackCapacity, controller.getInventory(i));
+		}
+
+		addCoin(200);
+		pushButton(0);
+		assertEquals(popCanRackCapacity - 1, controller.getInventory(0));
+
+		vendingMachine.getPopCanRack(1).unload();
+		assertEquals(0, controller.getInventory(1));
+		vendingMachine.getPopCanRack(1).acceptPopCan(new PopCan(names[1]));
+		assertEquals(1, controller.getInventory(1));
+		assertEquals(vendingMachine.getPopCanRack(2).size(), controller.getInventory(2));
+	}
+
+	/**
+	 * Testing that a controller attached to racks that are already loaded starts
+	 * with the right counts
+	 */
+	@Test
+	public void testInventoryOfPreloadedRacks() {
+		Controller second = new Controller(vendingMachine, names);
+		assertEquals(popCanRackCapacity, second.getInventory(2));
+		assertEquals(popCanNames.size(), second.getNumberOfRacks());
+	}
+
 	/**
 	 * Testing if the machine if it doesn't dispense pop when the popCanRack is disabled
 	 * and also leaves the balance unchanged.
@@ -313,11 +403,107 @@ public class TestController {
 			}
 		}
 
+		// the second coin has nowhere to go but the chute, which fills it
+		addCoin(200);
+		addCoin(200);
+		assertEquals("Chute Full", controller.getDCLastAction());
+		assertEquals(1, controller.getChuteOccupancy());
+
+		// the purchase is paid for and held until the chute is emptied
+		pushButton(0);
+		assertEquals(0, controller.getBalance());
+		assertEquals(1, controller.getPendingDeliveries());
+		assertEquals("Delivery pending", controller.getLastMessage());
+	}
+
+	/**
+	 *  Testing that a purchase held because of a full chute leaves the rack
+	 *  alone, and that the pop is delivered once the chute has been emptied
+	 *  @throws DisabledException
+	 *  @throws CapacityExceededException
+	 */
+	@Test
+	public void testPurchaseAfterChuteEmptied() throws DisabledException, CapacityExceededException {
+		vendingMachine = new VendingMachine(validCoins, popCanNames.size(), coinRackCapacity,
+				popCanRackCapacity, 1);
+		vendingMachine.configure(popCanNames, popCanCosts);
+		controller = new Controller(vendingMachine, names);
+		for(int j = 0; j < popCanRackCapacity; j++) {
+			loadPopCan(0, names[0]);
+		}
+
+		addCoin(200);
+		addCoin(200);
+		pushButton(0);
+		assertEquals("Delivery pending", controller.getLastMessage());
+		assertEquals(0, controller.getBalance());
+		assertEquals(popCanRackCapacity, vendingMachine.getPopCanRack(0).size());
+
+		vendingMachine.getDeliveryChute().removeItems();
+		assertEquals(0, controller.getPendingDeliveries());
+		assertEquals(popCanRackCapacity - 1, vendingMachine.getPopCanRack(0).size());
+		assertEquals(1, controller.getSalesCount(0));
+		assertEquals(1, controller.getChuteOccupancy());
+		assertEquals(0, controller.getBalance());
+	}
+
+	/**
+	 *  Testing that held purchases are delivered in order as the chute is
+	 *  emptied, and that purchases beyond the limit are refused
+	 *  @throws DisabledException
+	 *  @throws CapacityExceededException
+	 */
+	@Test
+	public void testPendingDeliveryLimit() throws DisabledException, CapacityExceededException {
+		vendingMachine = new VendingMachine(validCoins, popCanNames.size(), coinRackCapacity,
+				popCanRackCapacity, 1);
+		vendingMachine.configure(popCanNames, popCanCosts);
+		controller = new Controller(vendingMachine, names);
+		controller.setPendingDeliveryLimit(2);
+		controller.setPriceTable(controller.getPriceTable().withCost(0, 50));
+		controller.restockAll();
+
+		// the first pop fills the chute and the next two are held
+		addCoin(200);
+		pushButton(0);
+		pushButton(0);
+		pushButton(0);
+		pushButton(0);
+		assertEquals("Delivery chute is full", controller.getLastMessage());
+		assertEquals(2, controller.getPendingDeliveries());
+		assertEquals(50, controller.getBalance());
+
+		// one can fits each time the chute is emptied
+		vendingMachine.getDeliveryChute().removeItems();
+		assertEquals(1, controller.getPendingDeliveries());
+		vendingMachine.getDeliveryChute().removeItems();
+		assertEquals(0, controller.getPendingDeliveries());
+		assertEquals(popCanRackCapacity - 3, vendingMachine.getPopCanRack(0).size());
+	}
+
+	/**
+	 *  Testing that a held purchase is refunded if its rack is disabled before
+	 *  the chute is emptied
+	 *  @throws DisabledException
+	 */
+	@Test
+	public void testPendingDeliveryRefunded() throws DisabledException {
+		vendingMachine = new VendingMachine(validCoins, popCanNames.size(), coinRackCapacity,
+				popCanRackCapacity, 1);
+		vendingMachine.configure(popCanNames, popCanCosts);
+		controller = new Controller(vendingMachine, names);
+		controller.restockAll();
+
 		addCoin(200);
 		addCoin(200);
 		pushButton(0);
+		assertEquals(0, controller.getBalance());
+		vendingMachine.getPopCanRack(0).disable();
+		vendingMachine.getDeliveryChute().removeItems();
+
 		assertEquals(200, controller.getBalance());
-		assertEquals("Chute Full", controller.getDCLastAction());
+		assertEquals(0, controller.getPendingDeliveries());
+		assertEquals("Rack 0 is disabled", controller.getLastMessage());
 	}
 
 
@@ -352,6 +538,193 @@ public class TestController {
 
 
 
+	/**
+	 * Testing that the balance left after a purchase is returned as the fewest
+	 * coins in the coin racks
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testReturnChange() throws DisabledException {
+		vendingMachine.getCoinRackForCoinKind(100).load(new Coin(100), new Coin(100));
+		vendingMachine.getCoinRackForCoinKind(25).load(new Coin(25), new Coin(25), new Coin(25));
+		addCoin(200);
+		addCoin(200);
+		pushButton(1);
+		assertEquals(150, controller.getBalance());
+
+		assertEquals(150, controller.returnChange());
+		assertEquals(0, controller.getBalance());
+		assertEquals("Change returned", controller.getLastMessage());
+		assertEquals(1, vendingMachine.getCoinRackForCoinKind(100).size());
+		assertEquals(1, vendingMachine.getCoinRackForCoinKind(25).size());
+	}
+
+	/**
+	 * Testing that the balance is kept when the coin racks cannot make it up
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testReturnChangeNotPossible() throws DisabledException {
+		vendingMachine.getCoinRackForCoinKind(100).load(new Coin(100));
+		addCoin(25);
+		assertEquals(0, controller.returnChange());
+		assertEquals(25, controller.getBalance());
+		assertEquals("Unable to make change", controller.getLastMessage());
+	}
+
+	/**
+	 * Testing that a new price table takes effect on the next press without
+	 * rebuilding the controller
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testPriceTableSwap() throws DisabledException {
+		PriceTable table = controller.getPriceTable();
+		assertEquals(200, table.getCost(0));
+		controller.setPriceTable(table.withCost(0, 100).withName(0, "pop1 special"));
+
+		addCoin(100);
+		pushButton(0);
+		assertEquals(0, controller.getBalance());
+		assertEquals(9, vendingMachine.getPopCanRack(0).size());
+		assertEquals("pop1 special", controller.getPriceTable().getName(0));
+		// the original table is unchanged
+		assertEquals(200, table.getCost(0));
+	}
+
+	/**
+	 * Testing that a selection withdrawn from sale is refused
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSelectionNotAvailable() throws DisabledException {
+		controller.setPriceTable(controller.getPriceTable().withAvailable(1, false));
+		addCoin(200);
+		addCoin(100);
+		pushButton(1);
+		assertEquals(300, controller.getBalance());
+		assertEquals("Rack 1 is not available", controller.getLastMessage());
+		assertEquals(10, vendingMachine.getPopCanRack(1).size());
+	}
+
+	/**
+	 * Testing that a change based on an old table does not overwrite a newer one
+	 */
+	@Test
+	public void testPriceTableCompareAndSet() {
+		PriceTable original = controller.getPriceTable();
+		assertTrue(controller.compareAndSetPriceTable(original, original.withCost(0, 150)));
+		assertFalse(controller.compareAndSetPriceTable(original, original.withCost(1, 150)));
+		assertEquals(150, controller.getPriceTable().getCost(0));
+		assertEquals(250, controller.getPriceTable().getCost(1));
+	}
+
+	/**
+	 * Testing that a table for a different number of selections is refused
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testPriceTableWrongSize() {
+		controller.setPriceTable(new PriceTable(new String[] { "pop1" }, new int[] { 100 }));
+	}
+
+	/**
+	 * Testing that a restock fills each rack with one event
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testRestockAll() throws DisabledException {
+		addCoin(200);
+		pushButton(0);
+		addCoin(200);
+		addCoin(100);
+		pushButton(2);
+		MetricsRegistry metrics = new MetricsRegistry(1);
+		controller.setMetrics(metrics);
+
+		assertEquals(2, controller.restockAll());
+		assertEquals(10, controller.getInventory(0));
+		assertEquals(10, controller.getInventory(2));
+		assertEquals(10, vendingMachine.getPopCanRack(0).size());
+		assertEquals(2, metrics.getCount(EventType.CANS_LOADED));
+		assertEquals(0, controller.restock(1));
+	}
+
+	/**
+	 * Testing that a restock loads a separate can into each slot
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testRestockDistinctCans() throws DisabledException {
+		vendingMachine.getPopCanRack(0).unload();
+		assertEquals(10, controller.restock(0));
+
+		addCoin(200);
+		pushButton(0);
+		addCoin(200);
+		pushButton(0);
+		Deliverable[] delivered = vendingMachine.getDeliveryChute().removeItems();
+		assertEquals(2, delivered.length);
+		assertNotSame(delivered[0], delivered[1]);
+	}
+
+	/**
+	 * Testing that cans added one at a time during a restock are handled as
+	 * one load per rack
+	 * @throws DisabledException
+	 * @throws CapacityExceededException
+	 */
+	@Test
+	public void testCoalescedRestock() throws DisabledException, CapacityExceededException {
+		vendingMachine.getPopCanRack(0).unload();
+		vendingMachine.getPopCanRack(1).unload();
+		MetricsRegistry metrics = new MetricsRegistry(1);
+		controller.setMetrics(metrics);
+
+		controller.beginRestock();
+		for (int i = 0; i < 4; i++) {
+			vendingMachine.getPopCanRack(0).acceptPopCan(new PopCan("pop1"));
+		}
+		vendingMachine.getPopCanRack(1).acceptPopCan(new PopCan("pop2"));
+		assertEquals(0, controller.getInventory(0));
+		controller.endRestock();
+
+		assertEquals(4, controller.getInventory(0));
+		assertEquals(1, controller.getInventory(1));
+		assertEquals(0, metrics.getCount(EventType.CAN_ADDED));
+		assertEquals(2, metrics.getCount(EventType.CANS_LOADED));
+
+		// cans added after the restock are handled one by one again
+		vendingMachine.getPopCanRack(1).acceptPopCan(new PopCan("pop2"));
+		assertEquals(2, controller.getInventory(1));
+		assertEquals(1, metrics.getCount(EventType.CAN_ADDED));
+	}
+
+	/**
+	 * Testing that a purchase during a restock counts the cans added to the
+	 * rack so far
+	 * @throws DisabledException
+	 * @throws CapacityExceededException
+	 */
+	@Test
+	public void testPurchaseDuringRestock() throws DisabledException, CapacityExceededException {
+		vendingMachine.getPopCanRack(0).unload();
+		controller.beginRestock();
+		vendingMachine.getPopCanRack(0).acceptPopCan(new PopCan("pop1"));
+		vendingMachine.getPopCanRack(0).acceptPopCan(new PopCan("pop1"));
+
+		addCoin(200);
+		pushButton(0);
+		assertEquals(0, controller.getBalance());
+		assertEquals(1, controller.getInventory(0));
+		assertEquals(1, vendingMachine.getDeliveryChute().removeItems().length);
+
+		// cans added after the purchase are still coalesced until the end
+		vendingMachine.getPopCanRack(0).acceptPopCan(new PopCan("pop1"));
+		assertEquals(1, controller.getInventory(0));
+		controller.endRestock();
+		assertEquals(2, controller.getInventory(0));
+	}
+
 	//method for automatically entering coins
 	public void addCoin(int value) throws DisabledException {
 		vendingMachine.getCoinSlot().addCoin(new Coin(value));
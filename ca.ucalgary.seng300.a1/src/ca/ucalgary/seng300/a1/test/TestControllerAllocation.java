@@ -0,0 +1,225 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.*;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.CRecListener;
+import ca.ucalgary.seng300.a1.logic.CSListener;
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.HardwareEventHandler;
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+import ca.ucalgary.seng300.a1.logic.SBListener;
+
+/**
+ * Checks that the controller does not allocate while handling coin and
+ * selection events once it has warmed up. The events are announced by
+ * listeners wired to the controller as the controller wires its own, so they
+ * take the same path as events from the hardware.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestControllerAllocation {
+
+	private static final int WARMUP = 20000;
+	private static final int TRANSACTIONS = 10000;
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+	private Integer[] costs = {200, 250, 300};
+
+	private final Coin nickel = new Coin(5);
+	private final Coin invalidCoin = new Coin(15);
+	private final Coin toonie = new Coin(200);
+	private final PopCan pop = new PopCan("pop1");
+
+	private VendingMachine vendingMachine;
+	private Controller controller;
+	private CSListener coinSlotListener = new CSListener();
+	private CRecListener receptacleListener = new CRecListener();
+	private SBListener[] buttonListeners;
+	private com.sun.management.ThreadMXBean threadBean;
+
+	/** Setup before every test
+	 *
+	 */
+	@Before
+	public void setup() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threadBean = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		vendingMachine = createMachine();
+		controller = new Controller(vendingMachine, names);
+		coinSlotListener.setHandler(controller);
+		receptacleListener.setHandler(controller);
+		buttonListeners = new SBListener[names.length];
+		for (int i = 0; i < names.length; i++) {
+			buttonListeners[i] = new SBListener(i, names[i]);
+			buttonListeners[i].setHandler(controller);
+		}
+	}
+
+	/**
+	 * Coin slot events: accepted and rejected coins, the slot being disabled
+	 * and enabled again, and the coins being stored
+	 */
+	@Test
+	public void testCoinEventsDoNotAllocate() {
+		final CoinSlot slot = vendingMachine.getCoinSlot();
+		final CoinReceptacle receptacle = vendingMachine.getCoinReceptacle();
+
+		long allocated = measure(new Runnable() {
+			public void run() {
+				coinSlotListener.validCoinInserted(slot, nickel);
+				coinSlotListener.coinRejected(slot, invalidCoin);
+				coinSlotListener.disabled(slot);
+				coinSlotListener.enabled(slot);
+				receptacleListener.coinsRemoved(receptacle);
+			}
+		});
+
+		assertEquals(0, allocated);
+		assertEquals(5 * (WARMUP + TRANSACTIONS), controller.getBalance());
+	}
+
+	/**
+	 * Presses that do not dispense: not enough money and a disabled button
+	 */
+	@Test
+	public void testRefusedSelectionsDoNotAllocate() {
+		vendingMachine.getSelectionButton(2).disable();
+		final SelectionButton button1 = vendingMachine.getSelectionButton(1);
+		final SelectionButton button2 = vendingMachine.getSelectionButton(2);
+
+		long allocated = measure(new Runnable() {
+			public void run() {
+				buttonListeners[1].pressed(button1);
+				buttonListeners[2].pressed(button2);
+			}
+		});
+
+		assertEquals(0, allocated);
+		assertEquals(MessageCode.BUTTON_DISABLED, controller.getLastMessageCode());
+		assertEquals("Button 2 is disabled", controller.getLastMessage());
+	}
+
+	/**
+	 * A sale: a coin, then a press that dispenses a pop through the hardware.
+	 * The hardware allocates to move the pop and the events it announces come
+	 * back through the controller's own listeners, so the sale must allocate
+	 * what the same hardware allocates when the pop is dispensed and the events
+	 * are dropped.
+	 */
+	@Test
+	public void testSaleDoesNotAllocate() {
+		final CoinSlot slot = vendingMachine.getCoinSlot();
+		final SelectionButton button0 = vendingMachine.getSelectionButton(0);
+
+		long allocated = measure(new Runnable() {
+			public void run() {
+				coinSlotListener.validCoinInserted(slot, toonie);
+				buttonListeners[0].pressed(button0);
+				restore(vendingMachine);
+			}
+		});
+
+		final VendingMachine bareMachine = createMachine();
+		new Controller(bareMachine, names).setEventHandler(new HardwareEventHandler() {
+			public void handleEvent(EventType type, int id, int value) {
+			}
+		});
+		long hardware = measure(new Runnable() {
+			public void run() {
+				try {
+					bareMachine.getPopCanRack(0).dispensePopCan();
+				} catch (DisabledException | EmptyException | CapacityExceededException e) {
+					throw new RuntimeException(e);
+				}
+				restore(bareMachine);
+			}
+		});
+
+		// an object per sale would add at least 16 bytes a sale, so allow only
+		// the odd allocation made once, e.g. while the code is recompiled
+		assertTrue(allocated - hardware + " bytes allocated", allocated - hardware < TRANSACTIONS);
+		assertEquals(WARMUP + TRANSACTIONS, controller.getSalesCount(0));
+		assertEquals(0, controller.getBalance());
+	}
+
+	/**
+	 * Takes the pop out of the chute and puts it back in its rack, so the
+	 * machine is as it was before the sale
+	 *
+	 * @param machine
+	 *            the machine
+	 */
+	private void restore(VendingMachine machine) {
+		machine.getDeliveryChute().removeItems();
+		try {
+			machine.getPopCanRack(0).acceptPopCan(pop);
+		} catch (DisabledException | CapacityExceededException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Warms up a transaction and then measures the bytes it allocates
+	 *
+	 * @param transaction
+	 *            the events to send to the controller
+	 * @return the bytes allocated over all measured transactions
+	 */
+	private long measure(Runnable transaction) {
+		for (int i = 0; i < WARMUP; i++) {
+			transaction.run();
+		}
+
+		// reading the counter may allocate, so measure that first
+		long before = allocatedBytes();
+		long overhead = allocatedBytes() - before;
+
+		long start = allocatedBytes();
+		for (int i = 0; i < TRANSACTIONS; i++) {
+			transaction.run();
+		}
+		return allocatedBytes() - start - overhead;
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread so far
+	 */
+	private long allocatedBytes() {
+		return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * @return a configured machine with full racks
+	 */
+	private VendingMachine createMachine() {
+		VendingMachine machine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+		machine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(costs)));
+		for (int i = 0; i < names.length; i++) {
+			for (int j = 0; j < 10; j++) {
+				machine.getPopCanRack(i).load(new PopCan(names[i]));
+			}
+		}
+		return machine;
+	}
+}
@@ -0,0 +1,233 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.ControllerSnapshot;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+import ca.ucalgary.seng300.a1.logic.PCRListener;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestControllerSnapshot {
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+	private Integer[] costs = {200, 250, 300};
+
+	private VendingMachine vendingMachine;
+	private Controller controller;
+
+	/** Setup before every test
+	 *
+	 */
+	@Before
+	public void setup() {
+		vendingMachine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(costs)));
+		controller = new Controller(vendingMachine, names);
+		controller.restockAll();
+	}
+
+	/**
+	 * Tests that a snapshot holds the state of the controller and does not
+	 * change with it
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSnapshotValues() throws DisabledException {
+		ControllerSnapshot before = controller.getSnapshot();
+		assertEquals(0, before.getBalance());
+		assertNull(before.getChuteLastAction());
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getSelectionButton(1).press();
+		vendingMachine.getSelectionButton(2).disable();
+		vendingMachine.getDeliveryChute().disable();
+
+		ControllerSnapshot after = controller.getSnapshot();
+		assertEquals(50, after.getBalance());
+		assertEquals(250, after.getRevenue());
+		assertEquals(controller.getLastMessageCode(), after.getLastMessageCode());
+		assertEquals(controller.getLastMessage(), after.getLastMessage());
+		assertEquals("Disabled", after.getChuteLastAction());
+		assertTrue(after.isChuteDisabled());
+		assertFalse(after.isChuteFull());
+		assertEquals(1, after.getChuteOccupancy());
+		assertEquals(3, after.getNumberOfRacks());
+		assertEquals(10, after.getInventory(0));
+		assertEquals(9, after.getInventory(1));
+		assertFalse(after.isButtonDisabled(1));
+		assertTrue(after.isButtonDisabled(2));
+
+		assertEquals(0, before.getBalance());
+		assertEquals(10, before.getInventory(1));
+	}
+
+	/**
+	 * Tests that a snapshot asked for part way through a purchase neither waits
+	 * for the purchase nor shows it half done, e.g. the credit spent and the
+	 * revenue not yet counted, but gives the state from before it
+	 * @throws Exception
+	 */
+	@Test
+	public void testSnapshotDuringEventDoesNotWait() throws Exception {
+		final ControllerSnapshot[] taken = new ControllerSnapshot[1];
+		final Thread[] reader = new Thread[1];
+		final boolean[] waited = new boolean[1];
+		// registered after the controller, so it hears of the can after it does
+		vendingMachine.getPopCanRack(0).register(new PCRListener(0, "pop1") {
+			@Override
+			public void popCanRemoved(PopCanRack popCanRack, PopCan popCan) {
+				reader[0] = new Thread(new Runnable() {
+					public void run() {
+						taken[0] = controller.getSnapshot();
+					}
+				});
+				reader[0].start();
+				try {
+					reader[0].join(10000);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				waited[0] = reader[0].isAlive();
+			}
+		});
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		ControllerSnapshot beforePurchase = controller.getSnapshot();
+		vendingMachine.getSelectionButton(0).press();
+		reader[0].join();
+
+		assertFalse(waited[0]);
+		assertSame(beforePurchase, taken[0]);
+		assertEquals(200, taken[0].getBalance());
+		assertEquals(0, taken[0].getRevenue());
+		assertEquals(MessageCode.ACCEPTED, taken[0].getLastMessageCode());
+
+		ControllerSnapshot afterPurchase = controller.getSnapshot();
+		assertEquals(0, afterPurchase.getBalance());
+		assertEquals(200, afterPurchase.getRevenue());
+	}
+
+	/**
+	 * Tests that snapshots taken on another thread while the machine sells never
+	 * show a purchase half done, e.g. the balance debited but the message still
+	 * about the coin
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testSnapshotsAgreeWhileSelling() throws InterruptedException {
+		final int purchases = 20000;
+		final Coin coin = new Coin(200);
+		Thread customer = new Thread(new Runnable() {
+			public void run() {
+				try {
+					for (int i = 0; i < purchases; i++) {
+						vendingMachine.getCoinSlot().addCoin(coin);
+						vendingMachine.getSelectionButton(0).press();
+						vendingMachine.getDeliveryChute().removeItems();
+						if (controller.getInventory(0) == 0) {
+							controller.restock(0);
+						}
+						if (i % 100 == 99) {
+							vendingMachine.getCoinReceptacle().unload();
+						}
+					}
+				} catch (DisabledException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		customer.start();
+
+		int snapshots = 0;
+		while (customer.isAlive()) {
+			ControllerSnapshot snapshot = controller.getSnapshot();
+			// 200 and the coin message, or spent and the message from the purchase
+			assertEquals(snapshot.getBalance() == 200, snapshot.getLastMessageCode() == MessageCode.ACCEPTED);
+			// the pop is taken out when the door closes
+			String chuteAction = snapshot.getChuteLastAction();
+			assertEquals(snapshot.getChuteOccupancy() == 0, chuteAction == null || chuteAction.equals("Door Closed"));
+			snapshots++;
+		}
+		customer.join();
+
+		assertTrue(snapshots > 0);
+		assertEquals(200L * purchases, controller.getSnapshot().getRevenue());
+	}
+
+	/**
+	 * Tests that snapshots taken while several threads buy at once agree with
+	 * themselves and are not held up for good by the stream of events
+	 * @throws InterruptedException
+	 */
+	@Test(timeout = 60000)
+	public void testSnapshotsAgreeWithManyWriters() throws InterruptedException {
+		final int writers = 4;
+		final int purchases = 500;
+		final int cans = writers * purchases;
+		vendingMachine = new VendingMachine(validCoins, 1, 200, cans, cans);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList("pop1")),
+				new ArrayList<Integer>(Arrays.asList(200)));
+		final Controller controller = new Controller(vendingMachine, new String[] {"pop1"});
+		controller.restockAll();
+
+		Thread[] threads = new Thread[writers];
+		for (int i = 0; i < writers; i++) {
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					for (int j = 0; j < purchases; j++) {
+						controller.handleEvent(EventType.COIN_ACCEPTED, 0, 200);
+						controller.handleEvent(EventType.BUTTON_PRESSED, 0, 0);
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		long paid = 0;
+		int snapshots = 0;
+		boolean writing = true;
+		while (writing) {
+			writing = false;
+			for (Thread thread : threads) {
+				writing |= thread.isAlive();
+			}
+			ControllerSnapshot snapshot = controller.getSnapshot();
+			int sold = cans - snapshot.getInventory(0);
+			// each sale takes a pop, puts it in the chute and counts its price
+			assertEquals(200L * sold, snapshot.getRevenue());
+			assertEquals(sold, snapshot.getChuteOccupancy());
+			// coins are never lost between the balance and the revenue
+			assertTrue(snapshot.getBalance() + snapshot.getRevenue() >= paid);
+			paid = snapshot.getBalance() + snapshot.getRevenue();
+			snapshots++;
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(snapshots > 0);
+		assertEquals(200L * cans, paid);
+	}
+}
@@ -0,0 +1,192 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import org.lsmr.vending.hardware.VendingMachine;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.CreditBalance;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+
+/**
+ * Stress tests for the credit balance with coin and purchase events arriving
+ * from several threads at once
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestCreditBalance {
+
+	private static final int THREADS = 8;
+	private static final int EVENTS_PER_THREAD = 500000;
+	private static final int PRICE = 250;
+	private static final int[] COINS = {5, 10, 25, 100, 200};
+
+	/**Tests basic credit and debit
+	 *
+	 */
+	@Test
+	public void testCreditAndDebit() {
+		CreditBalance balance = new CreditBalance();
+		balance.credit(200);
+		assertFalse(balance.tryDebit(250));
+		assertEquals(200, balance.get());
+		balance.credit(100);
+		assertTrue(balance.tryDebit(250));
+		assertEquals(50, balance.get());
+	}
+
+	/**
+	 * Threads insert coins and buy pops at the same time. Every coin credited
+	 * must either still be in the balance or have paid for a pop.
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testNoCreditLostUnderConcurrentEvents() throws InterruptedException {
+		final CreditBalance balance = new CreditBalance();
+		final AtomicLong credited = new AtomicLong();
+		final AtomicLong purchases = new AtomicLong();
+
+		runConcurrently(new Runnable() {
+			public void run() {
+				long threadCredited = 0;
+				long threadPurchases = 0;
+				for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+					if (i % 3 == 2) {
+						if (balance.tryDebit(PRICE)) {
+							threadPurchases++;
+						}
+					} else {
+						int coin = COINS[i % COINS.length];
+						balance.credit(coin);
+						threadCredited += coin;
+					}
+				}
+				credited.addAndGet(threadCredited);
+				purchases.addAndGet(threadPurchases);
+			}
+		});
+
+		assertEquals(credited.get() - purchases.get() * PRICE, balance.get());
+		assertTrue(balance.get() >= 0);
+	}
+
+	/**
+	 * Many threads race to spend the same credit. Exactly as many purchases as
+	 * were paid for must succeed.
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testNoDoubleSpend() throws InterruptedException {
+		final int paidFor = 100000;
+		final CreditBalance balance = new CreditBalance();
+		balance.credit(paidFor * PRICE);
+		final AtomicLong purchases = new AtomicLong();
+
+		runConcurrently(new Runnable() {
+			public void run() {
+				long threadPurchases = 0;
+				while (balance.tryDebit(PRICE)) {
+					threadPurchases++;
+				}
+				purchases.addAndGet(threadPurchases);
+			}
+		});
+
+		assertEquals(paidFor, purchases.get());
+		assertEquals(0, balance.get());
+	}
+
+	/**
+	 * Coin events from several driver threads reach the same controller
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testControllerCoinEventsFromManyThreads() throws InterruptedException {
+		String[] names = {"pop1", "pop2"};
+		VendingMachine vendingMachine = new VendingMachine(COINS, names.length, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(PRICE, PRICE)));
+		final Controller controller = new Controller(vendingMachine, names);
+
+		runConcurrently(new Runnable() {
+			public void run() {
+				for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+					controller.handleEvent(EventType.COIN_ACCEPTED, 0, 5);
+				}
+			}
+		});
+
+		assertEquals(THREADS * EVENTS_PER_THREAD * 5, controller.getBalance());
+		// every event was one whole update, and none is left open
+		MachineStateStore store = controller.getStateStore();
+		int stamp = store.startRead(controller.getStateSlot());
+		assertEquals(2 * THREADS * EVENTS_PER_THREAD, stamp);
+		assertTrue(store.validate(controller.getStateSlot(), stamp));
+	}
+
+	/**
+	 * Tests that purchases made from many threads at once are each counted once
+	 * in the revenue, sales and chute
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testControllerPurchasesFromManyThreads() throws InterruptedException {
+		String[] names = {"pop1"};
+		final int cans = THREADS * 100;
+		VendingMachine vendingMachine = new VendingMachine(COINS, names.length, 200, cans, cans);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(PRICE)));
+		final Controller controller = new Controller(vendingMachine, names);
+		controller.restockAll();
+		controller.handleEvent(EventType.COIN_ACCEPTED, 0, PRICE * cans);
+
+		runConcurrently(new Runnable() {
+			public void run() {
+				for (int i = 0; i < cans / THREADS; i++) {
+					controller.handleEvent(EventType.BUTTON_PRESSED, 0, 0);
+				}
+			}
+		});
+
+		assertEquals(0, controller.getBalance());
+		assertEquals((long) PRICE * cans, controller.getRevenue());
+		assertEquals(cans, controller.getSalesCount(0));
+		assertEquals(0, controller.getInventory(0));
+		assertEquals(cans, controller.getChuteOccupancy());
+		assertTrue(controller.getStateStore().startRead(controller.getStateSlot()) % 2 == 0);
+	}
+
+	//runs the task on all threads, starting them together
+	private void runConcurrently(final Runnable task) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			threads[i] = new Thread(new Runnable() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					task.run();
+				}
+			});
+			threads[i].start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+}
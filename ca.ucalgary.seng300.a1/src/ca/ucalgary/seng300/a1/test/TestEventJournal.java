@@ -0,0 +1,298 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.lsmr.vending.*;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.journal.EventJournal;
+import ca.ucalgary.seng300.a1.journal.JournalReader;
+import ca.ucalgary.seng300.a1.journal.StateSnapshot;
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestEventJournal {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+	private Integer[] costs = {200, 250, 300};
+
+	private File journalFile;
+	private EventJournal journal;
+	private VendingMachine vendingMachine;
+	private Controller controller;
+
+	/** Setup before every test
+	 * @throws IOException
+	 */
+	@Before
+	public void setup() throws IOException {
+		journalFile = new File(folder.getRoot(), "controller.journal");
+		journal = new EventJournal(journalFile, 4, 8);
+		vendingMachine = createMachine();
+		controller = new Controller(vendingMachine, names);
+		controller.setJournal(journal);
+	}
+
+	/**Closes the journal
+	 * @throws IOException
+	 */
+	@After
+	public void cleanup() throws IOException {
+		journal.close();
+	}
+
+	/**
+	 * Tests that coins, dispenses and failures are journaled
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testEventsJournaled() throws DisabledException {
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getSelectionButton(1).press();
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getSelectionButton(1).press();
+		vendingMachine.getCoinSlot().addCoin(new Coin(15));
+
+		final ArrayList<String> records = new ArrayList<String>();
+		journal.replay(new JournalReader() {
+			public void record(int kind, int id, int value, int balance) {
+				records.add(kind + "," + id + "," + value + "," + balance);
+			}
+		});
+
+		assertEquals(Arrays.asList("1,0,200,200", "3,1," + MessageCode.NOT_ENOUGH_MONEY + ",200", "1,0,100,300",
+				"2,1,250,50"), records);
+	}
+
+	/**
+	 * Tests that a new controller rebuilds its state from the journal after a
+	 * restart, and keeps appending to it
+	 * @throws DisabledException
+	 * @throws IOException
+	 */
+	@Test
+	public void testRecoverAfterRestart() throws DisabledException, IOException {
+		// more records than the initial capacity so the file has to grow
+		for (int i = 0; i < 3; i++) {
+			vendingMachine.getCoinSlot().addCoin(new Coin(200));
+			vendingMachine.getSelectionButton(0).press();
+		}
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getCoinSlot().addCoin(new Coin(25));
+		vendingMachine.getSelectionButton(2).disable();
+		vendingMachine.getSelectionButton(2).press();
+		journal.close();
+
+		// restart with fresh hardware and controller
+		journal = new EventJournal(journalFile, 4, 8);
+		VendingMachine restarted = createMachine();
+		Controller recovered = new Controller(restarted, names);
+		recovered.recover(journal);
+
+		assertEquals(125, recovered.getBalance());
+		assertEquals(3, recovered.getSalesCount(0));
+		assertEquals("Button 2 is disabled", recovered.getLastMessage());
+		assertEquals(9, journal.size());
+
+		restarted.getCoinSlot().addCoin(new Coin(100));
+		assertEquals(225, recovered.getBalance());
+		assertEquals(10, journal.size());
+	}
+
+	/**
+	 * Tests that a selection refused as not available is recovered with its
+	 * rack in the message
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testRecoverNotAvailable() throws DisabledException {
+		controller.setPriceTable(controller.getPriceTable().withAvailable(2, false));
+		vendingMachine.getSelectionButton(2).press();
+
+		Controller recovered = new Controller(createMachine(), names);
+		recovered.recover(journal);
+		assertEquals("Rack 2 is not available", recovered.getLastMessage());
+	}
+
+	/**
+	 * Tests that a purchase held for a full chute when the process died is
+	 * refunded on recovery, as the queue is gone
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testRecoverRefundsHeldPurchase() throws DisabledException {
+		controller.handleEvent(EventType.CHUTE_FULL, 0, 0);
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getSelectionButton(1).press();
+		assertEquals(50, controller.getBalance());
+		assertEquals(1, controller.getPendingDeliveries());
+
+		Controller recovered = new Controller(createMachine(), names);
+		recovered.recover(journal);
+		assertEquals(300, recovered.getBalance());
+		assertEquals(0, recovered.getSalesCount(1));
+	}
+
+	/**
+	 * Tests that purchases refunded by one recovery are not refunded again by
+	 * the next, after the machine has sold more in between
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testRecoverTwice() throws DisabledException {
+		controller.handleEvent(EventType.CHUTE_FULL, 0, 0);
+		for (int i = 0; i < 3; i++) {
+			vendingMachine.getCoinSlot().addCoin(new Coin(200));
+			vendingMachine.getSelectionButton(0).press();
+		}
+		assertEquals(3, controller.getPendingDeliveries());
+
+		VendingMachine restarted = createMachine();
+		Controller recovered = new Controller(restarted, names);
+		recovered.recover(journal);
+		assertEquals(600, recovered.getBalance());
+		restarted.getSelectionButton(0).press();
+		assertEquals(400, recovered.getBalance());
+
+		Controller recoveredAgain = new Controller(createMachine(), names);
+		recoveredAgain.recover(journal);
+		assertEquals(400, recoveredAgain.getBalance());
+		assertEquals(1, recoveredAgain.getSalesCount(0));
+
+		// one refund for each held purchase
+		final int[] refunds = new int[1];
+		journal.replay(new JournalReader() {
+			public void record(int kind, int id, int value, int balance) {
+				if (kind == EventJournal.REFUND) {
+					assertEquals(0, id);
+					assertEquals(200, value);
+					refunds[0]++;
+				}
+			}
+		});
+		assertEquals(3, refunds[0]);
+	}
+
+	/**
+	 * Tests that the controller writes a snapshot and truncates the journal
+	 * every few records
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testPeriodicCheckpoint() throws DisabledException {
+		File snapshotFile = new File(folder.getRoot(), "controller.snapshot");
+		controller.setCheckpoint(snapshotFile, 5);
+
+		for (int i = 0; i < 6; i++) {
+			vendingMachine.getCoinSlot().addCoin(new Coin(5));
+		}
+
+		assertTrue(snapshotFile.exists());
+		assertEquals(1, journal.size());
+		assertEquals(6, journal.getSequence());
+	}
+
+	/**
+	 * Tests a warm restart from a snapshot and the journal tail written after it
+	 * @throws DisabledException
+	 * @throws IOException
+	 */
+	@Test
+	public void testRecoverFromSnapshot() throws DisabledException, IOException {
+		File snapshotFile = new File(folder.getRoot(), "controller.snapshot");
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getSelectionButton(0).press();
+		vendingMachine.getSelectionButton(1).disable();
+		controller.checkpoint(snapshotFile);
+		assertEquals(0, journal.size());
+
+		// journal tail after the snapshot
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getSelectionButton(0).press();
+		journal.close();
+
+		journal = new EventJournal(journalFile, 4, 8);
+		VendingMachine restarted = createMachine();
+		Controller recovered = new Controller(restarted, names);
+		recovered.recover(StateSnapshot.read(snapshotFile), journal);
+
+		assertEquals(100, recovered.getBalance());
+		assertEquals(2, recovered.getSalesCount(0));
+		assertEquals(8, restarted.getPopCanRack(0).size());
+		assertEquals(10, restarted.getPopCanRack(1).size());
+		assertTrue(restarted.getSelectionButton(1).isDisabled());
+		assertFalse(restarted.getSelectionButton(0).isDisabled());
+		assertEquals("Item Delivered", recovered.getDCLastAction());
+		assertEquals("Can Removed", recovered.getLastMessage());
+	}
+
+	/**
+	 * Tests that records already in a snapshot are not applied twice when the
+	 * process died before the journal was truncated
+	 * @throws DisabledException
+	 * @throws IOException
+	 */
+	@Test
+	public void testCrashBeforeTruncate() throws DisabledException, IOException {
+		File snapshotFile = new File(folder.getRoot(), "controller.snapshot");
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getSelectionButton(0).press();
+		controller.createSnapshot().write(snapshotFile);
+		vendingMachine.getCoinSlot().addCoin(new Coin(25));
+		journal.close();
+
+		journal = new EventJournal(journalFile, 4, 8);
+		Controller recovered = new Controller(createMachine(), names);
+		recovered.recover(StateSnapshot.read(snapshotFile), journal);
+
+		assertEquals(25, recovered.getBalance());
+		assertEquals(1, recovered.getSalesCount(0));
+	}
+
+	/**
+	 * Tests that opening a file that is not a journal fails
+	 * @throws IOException
+	 */
+	@Test(expected = IOException.class)
+	public void testNotAJournal() throws IOException {
+		File other = folder.newFile("other");
+		java.nio.file.Files.write(other.toPath(), new byte[64]);
+		new EventJournal(other, 4, 8);
+	}
+
+	//creates a loaded vending machine
+	private VendingMachine createMachine() {
+		VendingMachine machine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+		machine.configure(new ArrayList<String>(Arrays.asList(names)), new ArrayList<Integer>(Arrays.asList(costs)));
+		for (int i = 0; i < names.length; i++) {
+			for (int j = 0; j < 10; j++) {
+				machine.getPopCanRack(i).load(new PopCan(names[i]));
+			}
+		}
+		return machine;
+	}
+}
@@ -0,0 +1,467 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.*;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.fleet.FleetHost;
+import ca.ucalgary.seng300.a1.fleet.FleetMachine;
+import ca.ucalgary.seng300.a1.fleet.FleetTotals;
+import ca.ucalgary.seng300.a1.fleet.MachineTask;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+import ca.ucalgary.seng300.a1.logic.PriceTable;
+import ca.ucalgary.seng300.a1.timer.Timeout;
+import ca.ucalgary.seng300.a1.timer.TimeoutTask;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestFleetHost {
+
+	private static final int MACHINES = 100;
+	private static final int LOOPS = 4;
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+	private Integer[] costs = {200, 250, 300};
+
+	private FleetHost fleet;
+
+	/** Setup before every test
+	 *
+	 */
+	@Before
+	public void setupFleet() {
+		// the loops share one state store
+		fleet = new FleetHost(LOOPS, new MachineStateStore(MACHINES, names.length));
+		for (int i = 0; i < MACHINES; i++) {
+			VendingMachine vendingMachine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+			vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+					new ArrayList<Integer>(Arrays.asList(costs)));
+			for (int rack = 0; rack < names.length; rack++) {
+				for (int j = 0; j < 10; j++) {
+					vendingMachine.getPopCanRack(rack).load(new PopCan(names[rack]));
+				}
+			}
+			fleet.addMachine(vendingMachine, names);
+		}
+		fleet.start();
+	}
+
+	/**Stops the event loops
+	 *
+	 */
+	@After
+	public void cleanup() {
+		fleet.shutdown();
+	}
+
+	/**
+	 * Tests that coins submitted from several threads all reach their machine
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testCoinsReachEveryMachine() throws InterruptedException {
+		Thread[] customers = new Thread[4];
+		for (int t = 0; t < customers.length; t++) {
+			customers[t] = new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < MACHINES; i++) {
+						fleet.execute(i, new MachineTask() {
+							public void run(FleetMachine machine) throws DisabledException {
+								machine.getVendingMachine().getCoinSlot().addCoin(new Coin(25));
+							}
+						});
+					}
+				}
+			});
+			customers[t].start();
+		}
+		for (Thread customer : customers) {
+			customer.join();
+		}
+		fleet.awaitQuiescence();
+
+		for (int i = 0; i < MACHINES; i++) {
+			assertEquals(100, fleet.getMachine(i).getController().getBalance());
+		}
+		assertEquals(0, fleet.getFaults());
+	}
+
+	/**
+	 * Tests that every task for a machine runs on the loop that owns it
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testMachineOwnedByOneLoop() throws InterruptedException {
+		final Thread[] ranOn = new Thread[MACHINES];
+		final boolean[] movedLoop = new boolean[MACHINES];
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < MACHINES; i++) {
+				fleet.execute(i, new MachineTask() {
+					public void run(FleetMachine machine) {
+						Thread current = Thread.currentThread();
+						if (ranOn[machine.getID()] == null) {
+							ranOn[machine.getID()] = current;
+						} else if (ranOn[machine.getID()] != current) {
+							movedLoop[machine.getID()] = true;
+						}
+					}
+				});
+			}
+		}
+		fleet.awaitQuiescence();
+
+		for (int i = 0; i < MACHINES; i++) {
+			assertSame(fleet.getMachine(i).getOwner().getThread(), ranOn[i]);
+			assertFalse(movedLoop[i]);
+		}
+	}
+
+	/**
+	 * Tests a purchase through the fleet
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testPurchase() throws InterruptedException {
+		fleet.execute(7, new MachineTask() {
+			public void run(FleetMachine machine) throws DisabledException {
+				machine.getVendingMachine().getCoinSlot().addCoin(new Coin(200));
+				machine.getVendingMachine().getCoinSlot().addCoin(new Coin(100));
+				machine.getVendingMachine().getSelectionButton(0).press();
+			}
+		});
+		fleet.awaitQuiescence();
+
+		assertEquals(100, fleet.getMachine(7).getController().getBalance());
+		assertEquals("Item Delivered", fleet.getMachine(7).getController().getDCLastAction());
+	}
+
+	/**
+	 * Tests that a price change reaches every machine while the fleet runs
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testFleetPriceChange() throws InterruptedException {
+		fleet.setPriceTable(new PriceTable(names, new int[] { 100, 250, 300 }));
+		for (int i = 0; i < MACHINES; i++) {
+			fleet.execute(i, new MachineTask() {
+				public void run(FleetMachine machine) throws DisabledException {
+					machine.getVendingMachine().getCoinSlot().addCoin(new Coin(200));
+					machine.getVendingMachine().getSelectionButton(0).press();
+				}
+			});
+		}
+		fleet.awaitQuiescence();
+
+		for (int i = 0; i < MACHINES; i++) {
+			assertEquals(100, fleet.getMachine(i).getController().getBalance());
+		}
+	}
+
+	/**
+	 * Tests that a price change renames each machine's listeners with one task
+	 * on the loop that owns it
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testFleetPriceChangeRelabelsOnLoop() throws InterruptedException {
+		long before = 0;
+		for (int i = 0; i < LOOPS; i++) {
+			before += fleet.getLoop(i).getCompleted();
+		}
+		PriceTable table = new PriceTable(new String[] { "cola", "lime", "root" }, new int[] { 100, 250, 300 });
+		fleet.setPriceTable(table);
+		for (int i = 0; i < MACHINES; i++) {
+			assertSame(table, fleet.getMachine(i).getController().getPriceTable());
+		}
+		fleet.awaitQuiescence();
+
+		long after = 0;
+		for (int i = 0; i < LOOPS; i++) {
+			after += fleet.getLoop(i).getCompleted();
+		}
+		assertEquals(MACHINES, after - before);
+		assertEquals(0, fleet.getFaults());
+	}
+
+	/**
+	 * Tests that a restock sweep refills what the fleet sold
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testRestockSweep() throws InterruptedException {
+		for (int i = 0; i < MACHINES; i += 2) {
+			fleet.execute(i, new MachineTask() {
+				public void run(FleetMachine machine) throws DisabledException {
+					machine.getVendingMachine().getCoinSlot().addCoin(new Coin(200));
+					machine.getVendingMachine().getSelectionButton(0).press();
+				}
+			});
+		}
+		fleet.awaitQuiescence();
+
+		assertEquals(MACHINES / 2, fleet.restockAll());
+		for (int i = 0; i < MACHINES; i++) {
+			assertEquals(10, fleet.getMachine(i).getController().getInventory(0));
+		}
+	}
+
+	/**
+	 * Tests the fleet totals
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testRollup() throws InterruptedException {
+		fleet.execute(7, new MachineTask() {
+			public void run(FleetMachine machine) throws DisabledException {
+				machine.getVendingMachine().getCoinSlot().addCoin(new Coin(200));
+				machine.getVendingMachine().getCoinSlot().addCoin(new Coin(100));
+				machine.getVendingMachine().getSelectionButton(0).press();
+			}
+		});
+		fleet.execute(8, new MachineTask() {
+			public void run(FleetMachine machine) throws DisabledException {
+				for (int i = 0; i < 13; i++) {
+					machine.getVendingMachine().getCoinSlot().addCoin(new Coin(200));
+				}
+				for (int i = 0; i < 10; i++) {
+					machine.getVendingMachine().getSelectionButton(1).press();
+				}
+			}
+		});
+		fleet.execute(9, new MachineTask() {
+			public void run(FleetMachine machine) {
+				machine.getVendingMachine().getSelectionButton(2).disable();
+			}
+		});
+		fleet.awaitQuiescence();
+
+		FleetTotals totals = fleet.rollup();
+		assertEquals(MACHINES, totals.getMachines());
+		assertEquals(200 + 2500, totals.getRevenue());
+		assertEquals(100 + 100, totals.getCredit());
+		assertEquals(1, totals.getEmptyRacks());
+		assertEquals(1, totals.getDisabledButtons());
+		assertEquals(0, totals.getFullChutes());
+		assertEquals(0, totals.getRetries());
+	}
+
+	/**
+	 * Tests that totals taken while a large fleet is selling never catch a
+	 * machine part way through a purchase
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testRollupWhileRunning() throws InterruptedException {
+		final int machines = 3000;
+		final int credit = 50;
+		FleetHost busyFleet = new FleetHost(LOOPS, new MachineStateStore(machines, 1));
+		for (int i = 0; i < machines; i++) {
+			VendingMachine vendingMachine = new VendingMachine(validCoins, 1, 200, 10, 200);
+			vendingMachine.configure(new ArrayList<String>(Arrays.asList("pop1")),
+					new ArrayList<Integer>(Arrays.asList(5)));
+			busyFleet.addMachine(vendingMachine, new String[] { "pop1" });
+		}
+		busyFleet.start();
+		try {
+			busyFleet.restockAll();
+			for (int i = 0; i < machines; i++) {
+				busyFleet.execute(i, new MachineTask() {
+					public void run(FleetMachine machine) throws DisabledException {
+						for (int coin = 0; coin < credit / 5; coin++) {
+							machine.getVendingMachine().getCoinSlot().addCoin(new Coin(5));
+						}
+					}
+				});
+			}
+			busyFleet.awaitQuiescence();
+
+			MachineTask purchase = new MachineTask() {
+				public void run(FleetMachine machine) {
+					machine.getVendingMachine().getSelectionButton(0).press();
+				}
+			};
+			for (int round = 0; round < 10; round++) {
+				for (int i = 0; i < machines; i++) {
+					busyFleet.execute(i, purchase);
+				}
+			}
+
+			// each purchase moves money from credit to revenue in one event
+			ForkJoinPool pool = new ForkJoinPool(2);
+			FleetTotals totals;
+			do {
+				totals = busyFleet.rollup(pool);
+				assertEquals(machines, totals.getMachines());
+				assertEquals((long) machines * credit, totals.getRevenue() + totals.getCredit());
+			} while (totals.getRevenue() < (long) machines * credit);
+			pool.shutdown();
+
+			busyFleet.awaitQuiescence();
+			totals = busyFleet.rollup();
+			assertEquals(0, totals.getCredit());
+			assertEquals(machines, totals.getEmptyRacks());
+		} finally {
+			busyFleet.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that a rack disabled after a fault is enabled again by a delayed
+	 * task on the machine's loop
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testScheduledTask() throws InterruptedException {
+		fleet.execute(5, new MachineTask() {
+			public void run(FleetMachine machine) {
+				machine.getVendingMachine().getPopCanRack(1).disable();
+			}
+		});
+		fleet.schedule(5, new MachineTask() {
+			public void run(FleetMachine machine) {
+				machine.getVendingMachine().getPopCanRack(1).enable();
+			}
+		}, 50);
+		fleet.awaitQuiescence();
+		assertTrue(fleet.getStateStore().isRackDisabled(5, 1));
+
+		awaitState(new Condition() {
+			public boolean holds() {
+				return !fleet.getStateStore().isRackDisabled(5, 1);
+			}
+		});
+	}
+
+	/**
+	 * Tests that credit left in machines of the fleet is returned once the
+	 * session times out
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testSessionTimeout() throws InterruptedException {
+		fleet.setSessionTimeout(100);
+		for (int i = 0; i < MACHINES; i++) {
+			fleet.execute(i, new MachineTask() {
+				public void run(FleetMachine machine) throws DisabledException {
+					machine.getVendingMachine().getCoinRackForCoinKind(25).load(new Coin(25));
+					machine.getVendingMachine().getCoinSlot().addCoin(new Coin(25));
+				}
+			});
+		}
+		fleet.awaitQuiescence();
+
+		awaitState(new Condition() {
+			public boolean holds() {
+				return fleet.rollup().getCredit() == 0;
+			}
+		});
+		for (int i = 0; i < MACHINES; i++) {
+			assertEquals(1, fleet.getMachine(i).getVendingMachine().getDeliveryChute().size());
+		}
+	}
+
+	/**
+	 * Tests that a task that throws is counted as a fault and the loop goes on
+	 * to run the next task
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testFailingTaskKeepsLoopRunning() throws InterruptedException {
+		fleet.execute(3, new MachineTask() {
+			public void run(FleetMachine machine) {
+				throw new IllegalStateException("broken task");
+			}
+		});
+		fleet.execute(3, new MachineTask() {
+			public void run(FleetMachine machine) throws DisabledException {
+				machine.getVendingMachine().getCoinSlot().addCoin(new Coin(25));
+			}
+		});
+		fleet.awaitQuiescence();
+
+		assertEquals(25, fleet.getMachine(3).getController().getBalance());
+		assertEquals(1, fleet.getFaults());
+		assertEquals("broken task", fleet.getMachine(3).getOwner().getLastFailure().getMessage());
+		assertTrue(fleet.getMachine(3).getOwner().isAlive());
+	}
+
+	/**
+	 * Tests that a timeout that throws is counted as a fault and the loop goes
+	 * on to run the later timeouts
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testFailingTimeoutKeepsLoopRunning() throws InterruptedException {
+		fleet.execute(4, new MachineTask() {
+			public void run(FleetMachine machine) {
+				machine.getOwner().getTimingWheel().schedule(new TimeoutTask() {
+					public void expired(Timeout timeout) {
+						throw new IllegalStateException("broken timeout");
+					}
+				}, 10);
+			}
+		});
+		fleet.schedule(4, new MachineTask() {
+			public void run(FleetMachine machine) {
+				machine.getVendingMachine().getPopCanRack(1).disable();
+			}
+		}, 50);
+
+		awaitState(new Condition() {
+			public boolean holds() {
+				return fleet.getStateStore().isRackDisabled(4, 1);
+			}
+		});
+		assertEquals(1, fleet.getFaults());
+		assertEquals("broken timeout", fleet.getMachine(4).getOwner().getLastFailure().getMessage());
+		assertTrue(fleet.getMachine(4).getOwner().isAlive());
+	}
+
+	/**
+	 * Tests that waiting for tasks that can never run fails rather than waiting
+	 * for good
+	 * @throws InterruptedException
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testAwaitBeforeStart() throws InterruptedException {
+		FleetHost idleFleet = new FleetHost(1, new MachineStateStore(1, names.length));
+		VendingMachine vendingMachine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(costs)));
+		idleFleet.addMachine(vendingMachine, names);
+		idleFleet.execute(0, new MachineTask() {
+			public void run(FleetMachine machine) {
+			}
+		});
+		idleFleet.awaitQuiescence();
+	}
+
+	//a state the fleet reaches in its own time
+	private interface Condition {
+		boolean holds();
+	}
+
+	//waits up to 10 seconds for a condition to hold
+	private void awaitState(Condition condition) throws InterruptedException {
+		long giveUp = System.currentTimeMillis() + 10000;
+		while (!condition.holds()) {
+			assertTrue("Timed out", System.currentTimeMillis() < giveUp);
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.metrics.FlightRecorder;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestFlightRecorder {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private VendingMachine vendingMachine;
+	private Controller controller;
+	private FlightRecorder recorder;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() {
+		vendingMachine = new VendingMachine(new int[] { 5, 10, 25, 100, 200 }, 2, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList("pop1", "pop2")),
+				new ArrayList<Integer>(Arrays.asList(200, 250)));
+		controller = new Controller(vendingMachine, new String[] { "pop1", "pop2" });
+		vendingMachine.getPopCanRack(0).load(new PopCan("pop1"));
+		recorder = new FlightRecorder(4);
+		controller.setFlightRecorder(recorder);
+	}
+
+	/**
+	 * Tests that the events are dumped oldest first with the balance each one
+	 * left
+	 * @throws IOException
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testDump() throws IOException, DisabledException {
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+
+		List<String[]> events = dump();
+		assertEquals(2, events.size());
+		assertEquals("COIN_ACCEPTED", events.get(0)[2]);
+		assertEquals("100", events.get(0)[5]);
+		assertEquals("200", events.get(1)[5]);
+	}
+
+	/**
+	 * Tests that only the last events are kept once the ring is full
+	 * @throws IOException
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testOldestOverwritten() throws IOException, DisabledException {
+		for (int i = 0; i < 3; i++) {
+			vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		}
+		// can removed, rack empty and item delivered all come before the press
+		vendingMachine.getSelectionButton(0).press();
+		assertEquals(7, recorder.getRecorded());
+
+		List<String[]> events = dump();
+		assertEquals(4, events.size());
+		assertEquals("3", events.get(0)[0]);
+		assertEquals("BUTTON_PRESSED", events.get(3)[2]);
+		assertEquals("0", events.get(3)[3]);
+		assertEquals("100", events.get(3)[5]);
+	}
+
+	/**
+	 * Tests that the events are dumped to the dump file when handling an event
+	 * throws, including the event that threw
+	 * @throws IOException
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testDumpOnException() throws IOException, DisabledException {
+		File dumpFile = new File(folder.getRoot(), "recorder.txt");
+		recorder.setDumpFile(dumpFile);
+		vendingMachine.getCoinSlot().addCoin(new Coin(25));
+		try {
+			controller.handleEvent(EventType.CAN_ADDED, 7, 1);
+			fail();
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// no such rack
+		}
+
+		String dump = new String(Files.readAllBytes(dumpFile.toPath()), StandardCharsets.UTF_8);
+		assertTrue(dump.startsWith(ArrayIndexOutOfBoundsException.class.getName()));
+		assertTrue(dump.contains("\n0 "));
+		assertTrue(dump.endsWith(" CAN_ADDED 7 1 25\n"));
+	}
+
+	//dumps the recorder and splits each event into its fields
+	private List<String[]> dump() throws IOException {
+		StringWriter out = new StringWriter();
+		recorder.dump(out);
+		List<String[]> events = new ArrayList<String[]>();
+		for (String line : out.toString().split("\n")) {
+			if (!line.startsWith("#")) {
+				events.add(line.split(" "));
+			}
+		}
+		return events;
+	}
+}
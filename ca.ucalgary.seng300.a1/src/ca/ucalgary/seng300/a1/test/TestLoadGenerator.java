@@ -0,0 +1,134 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.*;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.fleet.FleetHost;
+import ca.ucalgary.seng300.a1.load.LoadGenerator;
+import ca.ucalgary.seng300.a1.load.LoadProfile;
+import ca.ucalgary.seng300.a1.load.LoadReport;
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestLoadGenerator {
+
+	private static final int MACHINES = 10;
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+	private Integer[] costs = {200, 250, 300};
+
+	private FleetHost fleet;
+
+	/** Setup before every test
+	 *
+	 */
+	@Before
+	public void setupFleet() {
+		fleet = new FleetHost(2);
+		for (int i = 0; i < MACHINES; i++) {
+			VendingMachine vendingMachine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+			vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+					new ArrayList<Integer>(Arrays.asList(costs)));
+			for (int rack = 0; rack < names.length; rack++) {
+				for (int j = 0; j < 10; j++) {
+					vendingMachine.getPopCanRack(rack).load(new PopCan(names[rack]));
+				}
+			}
+			fleet.addMachine(vendingMachine, names);
+		}
+		fleet.start();
+	}
+
+	/**Stops the event loops
+	 *
+	 */
+	@After
+	public void cleanup() {
+		fleet.shutdown();
+	}
+
+	/**
+	 * Every customer is accounted for as a purchase, a refusal or a fault
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testEveryCustomerReported() throws InterruptedException {
+		LoadProfile profile = new LoadProfile();
+		profile.setCustomers(2000);
+		profile.setArrivalsPerSecond(200000);
+		profile.setProductWeights(5, 3, 2);
+
+		LoadReport report = new LoadGenerator(profile).run(fleet);
+
+		assertEquals(2000, report.getTransactions());
+		assertEquals(2000, report.getPurchases() + report.getTotalFailures() + report.getFaults());
+		assertTrue(report.getLatencyPercentile(50) <= report.getLatencyPercentile(99));
+	}
+
+	/**
+	 * With 30 pops per machine and customers who always pay, purchases stop once
+	 * the racks run empty
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testEmptyRacksReported() throws InterruptedException {
+		LoadProfile profile = new LoadProfile();
+		profile.setCustomers(1000);
+		profile.setArrivalsPerSecond(200000);
+		profile.setProductWeights(1, 1, 1);
+		profile.setPayInFullProbability(1);
+		profile.setCollectProbability(1);
+
+		LoadReport report = new LoadGenerator(profile).run(fleet);
+
+		assertEquals(MACHINES * names.length * 10, report.getPurchases());
+		assertTrue(report.getFailures(MessageCode.RACK_IS_EMPTY) > 0);
+	}
+
+	/**
+	 * A purchase is reported as one even when the sale fills the coin storage
+	 * and the coin slot is disabled straight after it
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testPurchaseThatDisablesCoinSlot() throws InterruptedException {
+		FleetHost fullFleet = new FleetHost(1);
+		// room for one coin in the receptacle and one pop in the chute
+		VendingMachine vendingMachine = new VendingMachine(validCoins, names.length, 200, 10, 1);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(costs)));
+		fullFleet.addMachine(vendingMachine, names);
+		fullFleet.start();
+		try {
+			fullFleet.restockAll();
+
+			LoadProfile profile = new LoadProfile();
+			profile.setCustomers(1);
+			profile.setProductWeights(1, 0, 0);
+			profile.setPayInFullProbability(1);
+			profile.setCollectProbability(0);
+
+			LoadReport report = new LoadGenerator(profile).run(fullFleet);
+
+			assertTrue(fullFleet.getMachine(0).getController().isCoinStorageFull());
+			assertEquals(1, report.getPurchases());
+			assertEquals(0, report.getTotalFailures());
+		} finally {
+			fullFleet.shutdown();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.MachineStateStore;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestMachineStateStore {
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+
+	private MachineStateStore store;
+	private VendingMachine[] vendingMachines = new VendingMachine[2];
+	private Controller[] controllers = new Controller[2];
+
+	/** Setup before every test
+	 *
+	 */
+	@Before
+	public void setup() {
+		store = new MachineStateStore(2, names.length);
+		for (int i = 0; i < 2; i++) {
+			vendingMachines[i] = newMachine(names.length);
+			controllers[i] = new Controller(vendingMachines[i], names, store);
+			controllers[i].restockAll();
+		}
+	}
+
+	/**
+	 * Tests that controllers sharing a store keep their state apart, in the
+	 * slots the store gave them
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSlotsKeptApart() throws DisabledException {
+		assertSame(store, controllers[1].getStateStore());
+		assertEquals(1, controllers[1].getStateSlot());
+		assertEquals(2, store.getAllocated());
+
+		vendingMachines[1].getCoinSlot().addCoin(new Coin(200));
+		vendingMachines[1].getCoinSlot().addCoin(new Coin(100));
+		vendingMachines[1].getSelectionButton(2).press();
+		vendingMachines[1].getSelectionButton(0).disable();
+		vendingMachines[1].getPopCanRack(1).disable();
+		vendingMachines[1].getDeliveryChute().disable();
+
+		assertEquals(0, store.getBalance(0));
+		assertEquals(0, store.getBalance(1));
+		assertEquals(10, store.getInventory(0, 2));
+		assertEquals(9, store.getInventory(1, 2));
+		assertEquals(9, controllers[1].getInventory(2));
+		assertEquals(0, store.getSalesCount(0, 2));
+		assertEquals(1, store.getSalesCount(1, 2));
+		assertEquals(1, store.getChuteOccupancy(1));
+		assertTrue(store.isButtonDisabled(1, 0));
+		assertFalse(store.isRackDisabled(1, 0));
+		assertTrue(store.isRackDisabled(1, 1));
+		assertTrue(store.isChuteDisabled(1));
+		assertFalse(store.isButtonDisabled(0, 0));
+		assertFalse(store.isRackDisabled(0, 1));
+		assertFalse(store.isChuteDisabled(0));
+
+		vendingMachines[1].getSelectionButton(0).enable();
+		assertFalse(store.isButtonDisabled(1, 0));
+		assertTrue(store.isRackDisabled(1, 1));
+	}
+
+	/**
+	 * Tests that a snapshot taken from the store restores into a controller
+	 * with a store of its own
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSnapshot() throws DisabledException {
+		vendingMachines[0].getCoinSlot().addCoin(new Coin(200));
+		vendingMachines[0].getSelectionButton(0).press();
+		vendingMachines[0].getCoinSlot().addCoin(new Coin(25));
+
+		Controller restored = new Controller(newMachine(names.length), names);
+		restored.restore(controllers[0].createSnapshot());
+		assertEquals(25, restored.getBalance());
+		assertEquals(9, restored.getInventory(0));
+		assertEquals(1, restored.getSalesCount(0));
+	}
+
+	/**
+	 * Tests that a full store refuses another machine
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testStoreFull() {
+		new Controller(newMachine(names.length), names, store);
+	}
+
+	/**
+	 * Tests that a machine with a different number of racks is refused
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRacksMismatch() {
+		new Controller(newMachine(2), new String[] { "pop1", "pop2" }, new MachineStateStore(1, names.length));
+	}
+
+	//builds a machine with the given number of racks
+	private VendingMachine newMachine(int racks) {
+		VendingMachine vendingMachine = new VendingMachine(validCoins, racks, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names).subList(0, racks)),
+				new ArrayList<Integer>(Arrays.asList(200, 250, 300).subList(0, racks)));
+		return vendingMachine;
+	}
+}
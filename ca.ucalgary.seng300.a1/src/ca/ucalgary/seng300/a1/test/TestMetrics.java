@@ -0,0 +1,175 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.metrics.LatencyHistogram;
+import ca.ucalgary.seng300.a1.metrics.MetricsRegistry;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestMetrics {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private VendingMachine vendingMachine;
+	private Controller controller;
+	private MetricsRegistry metrics;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() {
+		vendingMachine = new VendingMachine(new int[] { 5, 10, 25, 100, 200 }, 2, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList("pop1", "pop2")),
+				new ArrayList<Integer>(Arrays.asList(200, 250)));
+		controller = new Controller(vendingMachine, new String[] { "pop1", "pop2" });
+		vendingMachine.getPopCanRack(0).load(new PopCan("pop1"), new PopCan("pop1"));
+		metrics = new MetricsRegistry(1);
+		controller.setMetrics(metrics);
+	}
+
+	/**
+	 * Tests that percentiles are reported to within the precision of the
+	 * buckets
+	 */
+	@Test
+	public void testHistogramPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10000; i++) {
+			histogram.record(i * 100L);
+		}
+		assertEquals(10000, histogram.getCount());
+		assertEquals(500050, histogram.getMean(), 1);
+		assertWithin(500000, histogram.getValueAtPercentile(50));
+		assertWithin(990000, histogram.getValueAtPercentile(99));
+		assertWithin(1000000, histogram.getMax());
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+
+		// small values are exact
+		histogram.record(7);
+		assertEquals(7, histogram.getValueAtPercentile(50));
+	}
+
+	//checks a value is within the 3% precision of the histogram
+	private static void assertWithin(long expected, long actual) {
+		assertTrue("expected about " + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.03);
+	}
+
+	/**
+	 * Tests that every event handled by the controller is counted
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testEventsCounted() throws DisabledException {
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		vendingMachine.getCoinSlot().addCoin(new Coin(3));
+		vendingMachine.getSelectionButton(0).press();
+		vendingMachine.getSelectionButton(1).press();
+
+		assertEquals(2, metrics.getCount(EventType.COIN_ACCEPTED));
+		assertEquals(1, metrics.getCount(EventType.COIN_REJECTED));
+		assertEquals(2, metrics.getCount(EventType.BUTTON_PRESSED));
+		assertEquals(1, metrics.getCount(EventType.CAN_REMOVED));
+		// the rejected coin and the pop
+		assertEquals(2, metrics.getCount(EventType.ITEM_DELIVERED));
+		assertEquals(0, metrics.getCount(EventType.RACK_EMPTY));
+		assertTrue(metrics.getHistogram(EventType.BUTTON_PRESSED).getMax() > 0);
+
+		assertEquals(2, metrics.getHistogram(EventType.COIN_ACCEPTED).getCount());
+
+		controller.setMetrics(null);
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		assertEquals(2, metrics.getCount(EventType.COIN_ACCEPTED));
+	}
+
+	/**
+	 * Tests that every event is counted but only a sample is timed
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSampledLatency() throws DisabledException {
+		metrics = new MetricsRegistry(4);
+		controller.setMetrics(metrics);
+		for (int i = 0; i < 20; i++) {
+			vendingMachine.getCoinSlot().addCoin(new Coin(5));
+		}
+		assertEquals(20, metrics.getCount(EventType.COIN_ACCEPTED));
+		assertEquals(5, metrics.getHistogram(EventType.COIN_ACCEPTED).getCount());
+	}
+
+	/**
+	 * Tests that the metrics can be read through JMX
+	 * @throws Exception
+	 */
+	@Test
+	public void testMBeans() throws Exception {
+		metrics.registerMBeans("test machine");
+		try {
+			vendingMachine.getCoinSlot().addCoin(new Coin(100));
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("ca.ucalgary.seng300.a1:type=ControllerMetrics,name="
+					+ ObjectName.quote("test machine") + ",event=COIN_ACCEPTED");
+			assertEquals(1L, server.getAttribute(name, "Count"));
+			assertEquals(metrics.getHistogram(EventType.COIN_ACCEPTED).getMax(), server.getAttribute(name, "MaxNanos"));
+		} finally {
+			metrics.unregisterMBeans();
+		}
+		assertTrue(ManagementFactory.getPlatformMBeanServer()
+				.queryNames(new ObjectName("ca.ucalgary.seng300.a1:type=ControllerMetrics,*"), null).isEmpty());
+	}
+
+	/**
+	 * Tests that the report file is written periodically with a line for each
+	 * event seen
+	 * @throws Exception
+	 */
+	@Test
+	public void testPeriodicReport() throws Exception {
+		File report = new File(folder.getRoot(), "metrics.txt");
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		metrics.startReporting(report, 10);
+		try {
+			long deadline = System.currentTimeMillis() + 5000;
+			while (!report.exists() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+		} finally {
+			metrics.stopReporting();
+		}
+
+		List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(1).startsWith("COIN_ACCEPTED 1 "));
+	}
+}
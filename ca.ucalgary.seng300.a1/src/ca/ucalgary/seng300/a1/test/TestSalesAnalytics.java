@@ -0,0 +1,145 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.TimeSource;
+import ca.ucalgary.seng300.a1.metrics.SalesAnalytics;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestSalesAnalytics {
+
+	private long now = 0;
+	private TimeSource clock = new TimeSource() {
+		@Override
+		public long currentTimeMillis() {
+			return now;
+		}
+	};
+	private SalesAnalytics sales;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() {
+		// a minute in 6 buckets and an hour in 6 buckets
+		sales = new SalesAnalytics(3, clock, 6, SalesAnalytics.MINUTE, SalesAnalytics.HOUR);
+	}
+
+	/**
+	 * Tests that sales are counted per rack and per machine in every window
+	 */
+	@Test
+	public void testCounts() {
+		sales.recordSale(0, 200);
+		sales.recordSale(0, 200);
+		now = 5000;
+		sales.recordSale(2, 300);
+
+		for (int window = 0; window < 2; window++) {
+			assertEquals(2, sales.getUnits(window, 0));
+			assertEquals(400, sales.getRevenue(window, 0));
+			assertEquals(0, sales.getUnits(window, 1));
+			assertEquals(1, sales.getUnits(window, 2));
+			assertEquals(3, sales.getMachineUnits(window));
+			assertEquals(700, sales.getMachineRevenue(window));
+		}
+
+		long[] units = new long[3];
+		long[] revenue = new long[3];
+		sales.copy(1, units, revenue);
+		assertEquals(2, units[0]);
+		assertEquals(300, revenue[2]);
+	}
+
+	/**
+	 * Tests that sales leave each window a bucket at a time as it slides past
+	 * them, and that a long quiet spell empties it
+	 */
+	@Test
+	public void testSliding() {
+		sales.recordSale(1, 100);
+		now = 30000;
+		sales.recordSale(1, 100);
+
+		now = 59999;
+		assertEquals(2, sales.getUnits(0, 1));
+		now = 60000;
+		assertEquals(1, sales.getUnits(0, 1));
+		assertEquals(2, sales.getUnits(1, 1));
+		now = 90000;
+		assertEquals(0, sales.getMachineUnits(0));
+
+		now = 10 * SalesAnalytics.HOUR;
+		assertEquals(0, sales.getMachineRevenue(1));
+		sales.recordSale(1, 100);
+		assertEquals(1, sales.getUnits(0, 1));
+		assertEquals(1, sales.getUnits(1, 1));
+	}
+
+	/**
+	 * Tests that a late sale is counted only in the windows it still falls in
+	 */
+	@Test
+	public void testLateSale() {
+		now = 2 * SalesAnalytics.MINUTE;
+		sales.recordSale(0, 100, 0);
+		assertEquals(0, sales.getUnits(0, 0));
+		assertEquals(1, sales.getUnits(1, 0));
+	}
+
+	/**
+	 * Tests that windows that do not split evenly are refused
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnevenWindow() {
+		new SalesAnalytics(3, clock, 7, SalesAnalytics.MINUTE);
+	}
+
+	/**
+	 * Tests that the controller counts pops dispensed, including a purchase
+	 * held for a full chute once it is delivered
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testControllerSales() throws DisabledException {
+		String[] names = { "pop1", "pop2", "pop3" };
+		VendingMachine vendingMachine = new VendingMachine(new int[] { 5, 10, 25, 100, 200 }, 3, 10, 10, 1);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(200, 250, 300)));
+		Controller controller = new Controller(vendingMachine, names);
+		controller.restockAll();
+		controller.setSalesAnalytics(sales);
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getSelectionButton(0).press();
+		assertEquals(1, sales.getUnits(0, 0));
+
+		// the chute is full, so the next pop waits until it is emptied
+		vendingMachine.getCoinReceptacle().unload();
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		now = 10000;
+		vendingMachine.getSelectionButton(0).press();
+		assertEquals(1, sales.getUnits(0, 0));
+		vendingMachine.getDeliveryChute().removeItems();
+		assertEquals(2, sales.getUnits(0, 0));
+		assertEquals(400, sales.getMachineRevenue(1));
+
+		controller.setSalesAnalytics(null);
+		assertNull(controller.getSalesAnalytics());
+	}
+}
@@ -0,0 +1,145 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.ucalgary.seng300.a1.sim.MachineSimulation;
+import ca.ucalgary.seng300.a1.sim.SimAction;
+import ca.ucalgary.seng300.a1.sim.SimulationProfile;
+import ca.ucalgary.seng300.a1.sim.SimulationReport;
+import ca.ucalgary.seng300.a1.sim.SimulationRunner;
+import ca.ucalgary.seng300.a1.sim.Simulator;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestSimulation {
+
+	private SimulationProfile profile;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() {
+		profile = new SimulationProfile();
+		profile.setDays(7);
+		profile.setCustomersPerHour(10);
+		profile.setPopCanRackCapacity(10);
+		profile.setRestockInterval(2 * Simulator.DAY);
+	}
+
+	/**
+	 * Tests that actions run in time order, and in the order they were
+	 * scheduled when at the same time
+	 */
+	@Test
+	public void testSchedulerOrder() {
+		final List<String> ran = new ArrayList<String>();
+		Simulator simulator = new Simulator();
+		simulator.schedule(20, new Named("c", ran));
+		simulator.schedule(10, new Named("a", ran));
+		simulator.schedule(10, new Named("b", ran));
+		simulator.schedule(30, new SimAction() {
+			public void run(Simulator simulator) {
+				ran.add("d@" + simulator.now());
+				simulator.schedule(0, new Named("e", ran));
+			}
+		});
+		simulator.schedule(100, new Named("late", ran));
+
+		assertEquals(5, simulator.runUntil(50));
+		assertEquals("[a, b, c, d@30, e]", ran.toString());
+		assertEquals(50, simulator.now());
+		assertEquals(1, simulator.getPending());
+	}
+
+	/**
+	 * Tests that the same seed gives the same outcome and a different seed a
+	 * different one
+	 */
+	@Test
+	public void testDeterministic() {
+		SimulationReport first = new MachineSimulation(profile).run();
+		SimulationReport second = new MachineSimulation(profile).run();
+		assertTrue(first.sameOutcome(second));
+
+		profile.setSeed(2);
+		assertFalse(first.sameOutcome(new MachineSimulation(profile).run()));
+	}
+
+	/**
+	 * Tests that every customer is counted as a sale or a lost sale, and that
+	 * racks run out between visits
+	 */
+	@Test
+	public void testSalesAndStockOuts() {
+		SimulationReport report = new MachineSimulation(profile).run();
+		assertEquals(report.getCustomers(), report.getTotalSales() + report.getTotalLostSales());
+		assertTrue(report.getCustomers() > 1000);
+		assertTrue(report.getStockOuts(0) > 0);
+		assertTrue(report.getLostSales(0) > 0);
+		assertTrue(report.getEmptyMillis(0) > 0);
+		// the most popular rack sells no more than a restock a visit
+		assertTrue(report.getSales(0) <= 10 * 4);
+		assertEquals(0, report.getFaults());
+
+		profile.setRestockInterval(10 * Simulator.MINUTE);
+		report = new MachineSimulation(profile).run();
+		assertEquals(0, report.getTotalLostSales());
+	}
+
+	/**
+	 * Tests that customers who find the coin slot disabled because the coin
+	 * storage is full are counted as lost sales and take their coins back
+	 */
+	@Test
+	public void testCoinStorageFull() {
+		profile.setReceptacleCapacity(20);
+		SimulationReport report = new MachineSimulation(profile).run();
+		assertEquals(report.getCustomers(), report.getTotalSales() + report.getTotalLostSales());
+		assertTrue(report.getTotalLostSales() > report.getTotalSales());
+		assertEquals(0, report.getFaults());
+	}
+
+	/**
+	 * Tests that seeds run in parallel give the same reports as run one at a
+	 * time
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testParallelSeeds() throws InterruptedException {
+		List<SimulationReport> reports = new SimulationRunner(3).run(profile, 1, 2, 3, 4);
+		assertEquals(4, reports.size());
+		for (int i = 0; i < 4; i++) {
+			profile.setSeed(i + 1);
+			assertTrue(reports.get(i).sameOutcome(new MachineSimulation(profile).run()));
+		}
+	}
+
+	/**
+	 * Records its name when run
+	 */
+	private static class Named implements SimAction {
+
+		private final String name;
+		private final List<String> ran;
+
+		Named(String name, List<String> ran) {
+			this.name = name;
+			this.ran = ran;
+		}
+
+		public void run(Simulator simulator) {
+			ran.add(name);
+		}
+	}
+}
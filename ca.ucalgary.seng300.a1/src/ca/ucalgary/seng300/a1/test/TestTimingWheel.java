@@ -0,0 +1,273 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.MessageCode;
+import ca.ucalgary.seng300.a1.timer.Timeout;
+import ca.ucalgary.seng300.a1.timer.TimeoutTask;
+import ca.ucalgary.seng300.a1.timer.TimingWheel;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestTimingWheel {
+
+	private static final long TICK = 10;
+	private static final long SESSION = 30000;
+
+	private int[] validCoins = {5, 10, 25, 100, 200};
+	private String[] names = {"pop1","pop2","pop3"};
+	private Integer[] costs = {200, 250, 300};
+
+	private TimingWheel wheel;
+	// the time each timeout in a test expired, by the index in its task
+	private long[] expiredAt;
+	private long now;
+
+	/** Setup before every test
+	 *
+	 */
+	@Before
+	public void setup() {
+		now = 1000;
+		wheel = new TimingWheel(TICK, now);
+	}
+
+	/**
+	 * Tests that a timeout runs on the first advance after its delay, and not
+	 * before
+	 */
+	@Test
+	public void testExpiresAfterDelay() {
+		expiredAt = new long[1];
+		wheel.schedule(recordTo(0), 25);
+		assertEquals(1, wheel.size());
+
+		now += 29;
+		assertEquals(0, wheel.advance(now));
+		assertEquals(0, expiredAt[0]);
+		now += 1;
+		assertEquals(1, wheel.advance(now));
+		assertEquals(1030, expiredAt[0]);
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Tests that a timeout put off or cancelled does not run early or at all
+	 */
+	@Test
+	public void testRescheduleAndCancel() {
+		expiredAt = new long[2];
+		Timeout session = wheel.schedule(recordTo(0), 50);
+		Timeout fault = wheel.schedule(recordTo(1), 50);
+
+		advance(now + 40);
+		wheel.schedule(session, 50);
+		assertTrue(fault.cancel());
+		assertFalse(fault.cancel());
+		assertFalse(fault.isPending());
+		assertEquals(1, wheel.size());
+
+		// was due at 1050, now 50 ms after 1040
+		advance(now + 40);
+		assertEquals(0, expiredAt[0]);
+		advance(now + 10);
+		assertEquals(1090, expiredAt[0]);
+		assertEquals(0, expiredAt[1]);
+		assertFalse(session.isPending());
+	}
+
+	/**
+	 * Tests that timeouts spread over every level of the wheel, and past its
+	 * reach, each run on the first advance on or after their deadline
+	 */
+	@Test
+	public void testLevels() {
+		Random random = new Random(24);
+		long[] delays = { 1, 10, 630, 640, 650, 40950, 40960, 2621430, 2621440, 167772150, 167772160, 400000000 };
+		int count = 2000;
+		expiredAt = new long[count];
+		long[] deadline = new long[count];
+		for (int i = 0; i < count; i++) {
+			long delay = i < delays.length ? delays[i] : (long) (Math.pow(random.nextDouble(), 4) * 400000000L);
+			wheel.schedule(recordTo(i), delay);
+			deadline[i] = now + Math.max(TICK, (delay + TICK - 1) / TICK * TICK);
+		}
+
+		long previous = now;
+		while (wheel.size() > 0) {
+			// big steps most of the time, short ones near the start
+			previous = now;
+			advance(now + 1 + random.nextInt(now < 10000 ? 20 : 200000));
+			for (int i = 0; i < count; i++) {
+				if (expiredAt[i] == now) {
+					assertTrue("timeout " + i + " ran early", deadline[i] <= now);
+					assertTrue("timeout " + i + " ran late", deadline[i] > previous);
+				}
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			assertTrue("timeout " + i + " did not run", expiredAt[i] > 0);
+		}
+	}
+
+	/**
+	 * Tests that a timeout can schedule itself again as it runs
+	 */
+	@Test
+	public void testRepeating() {
+		final int[] runs = new int[1];
+		wheel.schedule(new TimeoutTask() {
+			public void expired(Timeout timeout) {
+				if (++runs[0] < 5) {
+					wheel.schedule(timeout, 100);
+				}
+			}
+		}, 100);
+
+		assertEquals(1, wheel.advance(now + 100));
+		assertEquals(1, wheel.advance(now + 250));
+		assertEquals(3, wheel.advance(now + 1000));
+		assertEquals(5, runs[0]);
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Tests that a timeout that throws does not hold up the others due at the
+	 * same time
+	 */
+	@Test
+	public void testFailingTimeout() {
+		expiredAt = new long[2];
+		wheel.schedule(recordTo(0), 50);
+		wheel.schedule(new TimeoutTask() {
+			public void expired(Timeout timeout) {
+				throw new IllegalStateException("broken timeout");
+			}
+		}, 50);
+		wheel.schedule(recordTo(1), 50);
+
+		boolean thrown = false;
+		try {
+			advance(now + 50);
+		} catch (IllegalStateException e) {
+			thrown = true;
+		}
+		assertTrue(thrown);
+
+		advance(now);
+		assertEquals(1050, expiredAt[0]);
+		assertEquals(1050, expiredAt[1]);
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Tests that credit left in a machine is returned once it has gone unused
+	 * for the session timeout, measured from the last coin or press
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSessionExpires() throws DisabledException {
+		VendingMachine vendingMachine = newMachine();
+		Controller controller = new Controller(vendingMachine, names);
+		controller.setSessionTimeout(wheel, SESSION);
+		vendingMachine.getCoinRackForCoinKind(100).load(new Coin(100));
+		vendingMachine.getCoinRackForCoinKind(25).load(new Coin(25));
+		assertFalse(controller.isSessionPending());
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(100));
+		assertTrue(controller.isSessionPending());
+		advance(now + SESSION - TICK);
+		vendingMachine.getCoinSlot().addCoin(new Coin(25));
+		advance(now + SESSION - TICK);
+		// not enough for a pop, but the customer is still there
+		vendingMachine.getSelectionButton(0).press();
+		advance(now + SESSION - TICK);
+		assertEquals(125, controller.getBalance());
+
+		advance(now + TICK);
+		assertEquals(0, controller.getBalance());
+		assertEquals(MessageCode.CHANGE_RETURNED, controller.getLastMessageCode());
+		assertFalse(controller.isSessionPending());
+	}
+
+	/**
+	 * Tests that the timeout stops once the credit is spent
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSessionEndsWithPurchase() throws DisabledException {
+		VendingMachine vendingMachine = newMachine();
+		Controller controller = new Controller(vendingMachine, names);
+		controller.setSessionTimeout(wheel, SESSION);
+		controller.restockAll();
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(200));
+		vendingMachine.getSelectionButton(0).press();
+		assertFalse(controller.isSessionPending());
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Tests that credit that cannot be returned is kept, and returned on a later
+	 * timeout once there is change
+	 * @throws DisabledException
+	 */
+	@Test
+	public void testSessionWaitsForChange() throws DisabledException {
+		VendingMachine vendingMachine = newMachine();
+		Controller controller = new Controller(vendingMachine, names);
+		controller.setSessionTimeout(wheel, SESSION);
+
+		vendingMachine.getCoinSlot().addCoin(new Coin(10));
+		advance(now + SESSION);
+		assertEquals(10, controller.getBalance());
+		assertEquals(MessageCode.NO_CHANGE, controller.getLastMessageCode());
+		assertTrue(controller.isSessionPending());
+
+		vendingMachine.getCoinRackForCoinKind(10).load(new Coin(10));
+		advance(now + SESSION);
+		assertEquals(0, controller.getBalance());
+
+		controller.setSessionTimeout(null, 0);
+		vendingMachine.getCoinSlot().addCoin(new Coin(10));
+		assertFalse(controller.isSessionPending());
+	}
+
+	//advances the wheel to a time
+	private void advance(long time) {
+		now = time;
+		wheel.advance(now);
+	}
+
+	//a task that records the time it ran
+	private TimeoutTask recordTo(final int index) {
+		return new TimeoutTask() {
+			public void expired(Timeout timeout) {
+				expiredAt[index] = now;
+			}
+		};
+	}
+
+	//builds a machine with empty racks
+	private VendingMachine newMachine() {
+		VendingMachine vendingMachine = new VendingMachine(validCoins, names.length, 200, 10, 200);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(costs)));
+		return vendingMachine;
+	}
+}
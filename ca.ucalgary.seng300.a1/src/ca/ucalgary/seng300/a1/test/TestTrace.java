@@ -0,0 +1,166 @@
+package ca.ucalgary.seng300.a1.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.journal.StateSnapshot;
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.trace.ReplayResult;
+import ca.ucalgary.seng300.a1.trace.TraceReplayer;
+
+/**
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TestTrace {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String[] names = { "pop1", "pop2", "pop3" };
+	private VendingMachine vendingMachine;
+	private Controller controller;
+	private File traceFile;
+
+	/**
+	 * Setup before every test
+	 */
+	@Before
+	public void setup() throws IOException {
+		vendingMachine = new VendingMachine(new int[] { 5, 10, 25, 100, 200 }, 3, 20, 10, 4);
+		vendingMachine.configure(new ArrayList<String>(Arrays.asList(names)),
+				new ArrayList<Integer>(Arrays.asList(200, 250, 300)));
+		controller = new Controller(vendingMachine, names);
+		vendingMachine.getPopCanRack(0).load(new PopCan("pop1"), new PopCan("pop1"));
+		vendingMachine.getCoinRackForCoinKind(25).load(new Coin(25), new Coin(25));
+		traceFile = folder.newFile("controller.trace");
+	}
+
+	/**
+	 * Tests that a session with purchases, refusals, loading, change and a full
+	 * chute replays to the same state and events
+	 * @throws Exception
+	 */
+	@Test
+	public void testReplayMatches() throws Exception {
+		controller.startTrace(traceFile);
+
+		addCoin(200);
+		addCoin(100);
+		addCoin(3);
+		press(0);
+		press(1);
+		addCoin(200);
+		press(0);
+		addCoin(200);
+		press(0);
+		assertEquals("Rack 0 is empty", controller.getLastMessage());
+
+		addCoin(7);
+		assertEquals("Chute Full", controller.getDCLastAction());
+		vendingMachine.getPopCanRack(2).load(new PopCan("pop3"));
+		press(2);
+		assertEquals("Delivery pending", controller.getLastMessage());
+		vendingMachine.getSelectionButton(1).disable();
+		press(1);
+		// the held purchase is refunded when the chute is emptied
+		vendingMachine.getPopCanRack(2).disable();
+		vendingMachine.getDeliveryChute().removeItems();
+
+		vendingMachine.getCoinRackForCoinKind(100).load(new Coin(100));
+		vendingMachine.getCoinRackForCoinKind(200).load(new Coin(200));
+		assertEquals(300, controller.returnChange());
+		vendingMachine.getPopCanRack(1).acceptPopCan(new PopCan("pop2"));
+		vendingMachine.getPopCanRack(2).unload();
+
+		controller.stopTrace();
+
+		ReplayResult result = new TraceReplayer(traceFile).replay();
+		assertTrue(result.toString(), result.matches());
+		assertEquals(controller.getBalance(), result.getBalance());
+		assertEquals(controller.getLastMessage(), result.getLastMessage());
+		assertTrue(result.getStimuli() < result.getRecords());
+		assertTrue(result.getEventsPerSecond() > 0);
+	}
+
+	/**
+	 * Tests that tracing can start after the machine has taken money
+	 * @throws Exception
+	 */
+	@Test
+	public void testTraceStartedWithCredit() throws Exception {
+		addCoin(100);
+		addCoin(100);
+		controller.startTrace(traceFile);
+		press(0);
+		controller.stopTrace();
+
+		ReplayResult result = new TraceReplayer(traceFile).replay();
+		assertTrue(result.toString(), result.matches());
+		assertEquals(0, result.getBalance());
+	}
+
+	/**
+	 * Tests that a replay that ends in a different state is reported
+	 * @throws Exception
+	 */
+	@Test
+	public void testMismatchReported() throws Exception {
+		controller.startTrace(traceFile);
+		addCoin(100);
+		// not an event, so the replay does not see it
+		controller.restore(controller.createSnapshot());
+		addCoin(100);
+		press(0);
+		controller.stopTrace();
+
+		ReplayResult result = new TraceReplayer(traceFile).replay();
+		assertTrue(result.matches());
+
+		controller.startTrace(traceFile);
+		addCoin(100);
+		controller.restore(new StateSnapshot(0, 0, 0, "", null, false, false,
+				new int[] { 1, 0, 0 }, new int[3], new boolean[3], new boolean[3]));
+		controller.stopTrace();
+
+		result = new TraceReplayer(traceFile).replay();
+		assertFalse(result.matches());
+		assertTrue(result.getMismatch().startsWith("balance 100"));
+	}
+
+	/**
+	 * Tests that a file that is not a trace is rejected
+	 * @throws IOException
+	 */
+	@Test(expected = IOException.class)
+	public void testNotATrace() throws IOException {
+		Files.write(traceFile.toPath(), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		new TraceReplayer(traceFile);
+	}
+
+	//inserts a coin
+	private void addCoin(int value) throws DisabledException {
+		vendingMachine.getCoinSlot().addCoin(new Coin(value));
+	}
+
+	//presses a button
+	private void press(int index) {
+		vendingMachine.getSelectionButton(index).press();
+	}
+}
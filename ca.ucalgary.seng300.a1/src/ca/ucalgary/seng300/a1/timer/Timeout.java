@@ -0,0 +1,62 @@
+package ca.ucalgary.seng300.a1.timer;
+
+/**
+ * A task waiting in a {@link TimingWheel}. A timeout can be scheduled, cancelled
+ * and scheduled again any number of times, so something that is put off again
+ * and again, e.g. a session that is extended on every coin, reuses one
+ * timeout and does not allocate.
+ *
+ * The timeout is also the entry in the wheel's list of timeouts for a slot, so
+ * it can be taken out of the wheel without searching for it.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class Timeout {
+
+	private final TimeoutTask task;
+
+	// the wheel it is waiting in, the tick it is due on and its place in the
+	// wheel, or no wheel when it is not scheduled
+	TimingWheel wheel;
+	long deadline;
+	int bucket;
+	Timeout previous;
+	Timeout next;
+
+	/**
+	 * @param task
+	 *            the action to run when the timeout expires
+	 */
+	public Timeout(TimeoutTask task) {
+		this.task = task;
+	}
+
+	/**
+	 * @return the action run when the timeout expires
+	 */
+	public TimeoutTask getTask() {
+		return task;
+	}
+
+	/**
+	 * @return true if the timeout is waiting in a wheel
+	 */
+	public boolean isPending() {
+		return wheel != null;
+	}
+
+	/**
+	 * Takes the timeout out of its wheel, if it is waiting in one. Must be
+	 * called on the thread that advances the wheel.
+	 *
+	 * @return true if the timeout was waiting
+	 */
+	public boolean cancel() {
+		if (wheel == null) {
+			return false;
+		}
+		wheel.remove(this);
+		return true;
+	}
+}
@@ -0,0 +1,19 @@
+package ca.ucalgary.seng300.a1.timer;
+
+/**
+ * An action run by a {@link TimingWheel} when a timeout expires
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public interface TimeoutTask {
+
+	/**
+	 * Runs the action on the thread that advances the wheel. The timeout may
+	 * be scheduled again from here.
+	 *
+	 * @param timeout
+	 *            the timeout that expired
+	 */
+	public void expired(Timeout timeout);
+}
@@ -0,0 +1,232 @@
+package ca.ucalgary.seng300.a1.timer;
+
+/**
+ * Runs tasks after a delay for many machines at once, e.g. refunding credit
+ * left in a machine that nobody has used for a while.
+ *
+ * Time is counted in ticks of a fixed length. The wheel has four levels of 64
+ * slots. The first level holds the timeouts due in the next 64 ticks, one
+ * slot per tick; each level above holds timeouts 64 times further out, one
+ * slot per 64 slots of the level below. When the first level has gone round
+ * once, the next slot of the level above is emptied into the levels below,
+ * and so on up. Each slot is a linked list that the timeouts are themselves
+ * the entries of, so scheduling or cancelling a timeout is a constant amount
+ * of work however many are waiting, and a timeout is only moved as many times
+ * as there are levels. Timeouts further out than the wheel reaches wait in the
+ * top level and are moved again until they are due.
+ *
+ * A timeout runs on the first call to {@link #advance(long)} on or after the
+ * tick it is due, so it may run up to a tick late, and delays are measured from
+ * the time the wheel was last advanced to. The wheel is not thread safe; it is
+ * meant to be owned by one thread, e.g. an event loop, which schedules and
+ * runs the timeouts for the machines it owns.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TimingWheel {
+
+	/** The tick length used unless another is given, in milliseconds */
+	public static final long DEFAULT_TICK_MILLIS = 10;
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	// the most ticks ahead a timeout can be placed without being moved again
+	private static final long REACH = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+	private final long tickMillis;
+	// the first timeout in each slot, level by level
+	private final Timeout[] slots = new Timeout[LEVELS * SLOTS];
+	// the last tick run
+	private long currentTick;
+	private int size = 0;
+
+	/**
+	 * @param tickMillis
+	 *            the length of a tick in milliseconds
+	 * @param nowMillis
+	 *            the current time in milliseconds
+	 */
+	public TimingWheel(long tickMillis, long nowMillis) {
+		if (tickMillis <= 0) {
+			throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+		}
+		this.tickMillis = tickMillis;
+		currentTick = nowMillis / tickMillis;
+	}
+
+	/**
+	 * Creates a timeout and schedules it
+	 *
+	 * @param task
+	 *            the action to run
+	 * @param delayMillis
+	 *            the delay in milliseconds
+	 * @return the timeout, which may be cancelled or scheduled again
+	 */
+	public Timeout schedule(TimeoutTask task, long delayMillis) {
+		Timeout timeout = new Timeout(task);
+		schedule(timeout, delayMillis);
+		return timeout;
+	}
+
+	/**
+	 * Schedules a timeout, putting it off if it is already waiting
+	 *
+	 * @param timeout
+	 *            the timeout
+	 * @param delayMillis
+	 *            the delay in milliseconds, rounded up to whole ticks; a delay of
+	 *            0 runs on the next tick
+	 */
+	public void schedule(Timeout timeout, long delayMillis) {
+		if (delayMillis < 0) {
+			throw new IllegalArgumentException("Delay cannot be negative: " + delayMillis);
+		}
+		if (timeout.wheel != null) {
+			timeout.wheel.remove(timeout);
+		}
+		long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+		timeout.deadline = currentTick + ticks;
+		timeout.wheel = this;
+		size++;
+		place(timeout);
+	}
+
+	/**
+	 * Cancels a timeout if it is waiting
+	 *
+	 * @param timeout
+	 *            the timeout
+	 * @return true if the timeout was waiting
+	 */
+	public boolean cancel(Timeout timeout) {
+		return timeout.cancel();
+	}
+
+	/**
+	 * Runs the timeouts due up to a time, tick by tick. If a timeout's task
+	 * throws, the exception is passed on and the timeouts still due run on the
+	 * next call.
+	 *
+	 * @param nowMillis
+	 *            the current time in milliseconds
+	 * @return the number of timeouts run
+	 */
+	public int advance(long nowMillis) {
+		long target = nowMillis / tickMillis;
+		int expired = 0;
+		if (size > 0) {
+			// left in the current slot if a task threw on the last call
+			expired += expire((int) (currentTick & SLOT_MASK));
+		}
+		while (currentTick < target) {
+			if (size == 0) {
+				// nothing to move or run on the way
+				currentTick = target;
+				break;
+			}
+			currentTick++;
+			cascade();
+			expired += expire((int) (currentTick & SLOT_MASK));
+		}
+		return expired;
+	}
+
+	//moves the timeouts from the slot of each level that has come round into
+	//the levels below
+	private void cascade() {
+		for (int level = 1; level < LEVELS; level++) {
+			int shift = SLOT_BITS * level;
+			// a level only moves on when every level below has gone round
+			if ((currentTick & ((1L << shift) - 1)) != 0) {
+				return;
+			}
+			int bucket = level * SLOTS + (int) ((currentTick >>> shift) & SLOT_MASK);
+			Timeout timeout = slots[bucket];
+			slots[bucket] = null;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				place(timeout);
+				timeout = next;
+			}
+		}
+	}
+
+	//runs the timeouts in a slot of the first level
+	private int expire(int bucket) {
+		int expired = 0;
+		Timeout timeout;
+		while ((timeout = slots[bucket]) != null) {
+			remove(timeout);
+			if (timeout.deadline > currentTick) {
+				// beyond the reach of the wheel when placed
+				timeout.wheel = this;
+				size++;
+				place(timeout);
+				continue;
+			}
+			expired++;
+			timeout.getTask().expired(timeout);
+		}
+		return expired;
+	}
+
+	//puts a timeout in the slot for its deadline
+	private void place(Timeout timeout) {
+		long deadline = Math.min(timeout.deadline, currentTick + REACH);
+		long ticks = deadline - currentTick;
+		int level = 0;
+		while (level < LEVELS - 1 && ticks >= 1L << (SLOT_BITS * (level + 1))) {
+			level++;
+		}
+		int bucket = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+		timeout.bucket = bucket;
+		timeout.previous = null;
+		timeout.next = slots[bucket];
+		if (timeout.next != null) {
+			timeout.next.previous = timeout;
+		}
+		slots[bucket] = timeout;
+	}
+
+	//takes a timeout out of its slot
+	void remove(Timeout timeout) {
+		if (timeout.previous == null) {
+			slots[timeout.bucket] = timeout.next;
+		} else {
+			timeout.previous.next = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.previous = timeout.previous;
+		}
+		timeout.previous = null;
+		timeout.next = null;
+		timeout.wheel = null;
+		size--;
+	}
+
+	/**
+	 * @return the number of timeouts waiting
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the length of a tick in milliseconds
+	 */
+	public long getTickMillis() {
+		return tickMillis;
+	}
+
+	/**
+	 * @return the time the wheel was last advanced to, in milliseconds, rounded
+	 *         down to a tick
+	 */
+	public long getCurrentMillis() {
+		return currentTick * tickMillis;
+	}
+}
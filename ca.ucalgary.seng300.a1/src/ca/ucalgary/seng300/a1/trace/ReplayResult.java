@@ -0,0 +1,139 @@
+package ca.ucalgary.seng300.a1.trace;
+
+import ca.ucalgary.seng300.a1.logic.EventType;
+
+/**
+ * The outcome of replaying a trace: how fast it ran and whether the replayed
+ * controller matched the traced one
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class ReplayResult {
+
+	private static final EventType[] TYPES = EventType.values();
+
+	private final int records;
+	private final int stimuli;
+	private final long nanos;
+	private final long[] expectedCounts;
+	private final long[] actualCounts;
+	private final int expectedBalance;
+	private final int actualBalance;
+	private final int expectedMessageCode;
+	private final int actualMessageCode;
+	private final String expectedMessage;
+	private final String actualMessage;
+	private final String expectedChuteAction;
+	private final String actualChuteAction;
+
+	ReplayResult(int records, int stimuli, long nanos, long[] expectedCounts, long[] actualCounts,
+			int expectedBalance, int actualBalance, int expectedMessageCode, int actualMessageCode,
+			String expectedMessage, String actualMessage, String expectedChuteAction, String actualChuteAction) {
+		this.records = records;
+		this.stimuli = stimuli;
+		this.nanos = nanos;
+		this.expectedCounts = expectedCounts;
+		this.actualCounts = actualCounts;
+		this.expectedBalance = expectedBalance;
+		this.actualBalance = actualBalance;
+		this.expectedMessageCode = expectedMessageCode;
+		this.actualMessageCode = actualMessageCode;
+		this.expectedMessage = expectedMessage;
+		this.actualMessage = actualMessage;
+		this.expectedChuteAction = expectedChuteAction;
+		this.actualChuteAction = actualChuteAction;
+	}
+
+	/**
+	 * @return true if the replayed controller handled the same number of events
+	 *         of each type and ended with the same balance and messages
+	 */
+	public boolean matches() {
+		return getMismatch() == null;
+	}
+
+	/**
+	 * @return a description of the first difference between the traced and
+	 *         replayed controllers, or null if they match
+	 */
+	public String getMismatch() {
+		if (expectedBalance != actualBalance) {
+			return "balance " + actualBalance + ", expected " + expectedBalance;
+		}
+		if (expectedMessageCode != actualMessageCode || !expectedMessage.equals(actualMessage)) {
+			return "last message \"" + actualMessage + "\", expected \"" + expectedMessage + "\"";
+		}
+		if (expectedChuteAction == null ? actualChuteAction != null : !expectedChuteAction.equals(actualChuteAction)) {
+			return "chute action " + actualChuteAction + ", expected " + expectedChuteAction;
+		}
+		for (EventType type : TYPES) {
+			int i = type.ordinal();
+			if (expectedCounts[i] != actualCounts[i]) {
+				return actualCounts[i] + " " + type + " events, expected " + expectedCounts[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the number of records in the trace
+	 */
+	public int getRecords() {
+		return records;
+	}
+
+	/**
+	 * @return the number of actions from outside the controller that were
+	 *         replayed
+	 */
+	public int getStimuli() {
+		return stimuli;
+	}
+
+	/**
+	 * @return the number of events the replayed controller handled
+	 */
+	public long getEvents() {
+		long events = 0;
+		for (long count : actualCounts) {
+			events += count;
+		}
+		return events;
+	}
+
+	/**
+	 * @return the time the replay took in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return the events handled per second during the replay
+	 */
+	public double getEventsPerSecond() {
+		return nanos == 0 ? 0 : getEvents() * 1e9 / nanos;
+	}
+
+	/**
+	 * @return the balance the replayed controller ended with
+	 */
+	public int getBalance() {
+		return actualBalance;
+	}
+
+	/**
+	 * @return the last message of the replayed controller
+	 */
+	public String getLastMessage() {
+		return actualMessage;
+	}
+
+	@Override
+	public String toString() {
+		String mismatch = getMismatch();
+		return String.format("%d actions, %d events in %.1f ms (%.0f events/s), %s", stimuli, getEvents(),
+				nanos / 1e6, getEventsPerSecond(), mismatch == null ? "matches the trace" : "MISMATCH: " + mismatch);
+	}
+}
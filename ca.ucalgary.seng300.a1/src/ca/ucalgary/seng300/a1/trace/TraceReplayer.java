@@ -0,0 +1,317 @@
+package ca.ucalgary.seng300.a1.trace;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.lsmr.vending.Coin;
+import org.lsmr.vending.PopCan;
+import org.lsmr.vending.hardware.*;
+
+import ca.ucalgary.seng300.a1.journal.StateSnapshot;
+import ca.ucalgary.seng300.a1.logic.Controller;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.PriceTable;
+import ca.ucalgary.seng300.a1.metrics.MetricsRegistry;
+
+/**
+ * Replays a trace written by {@link TraceWriter} against a new vending machine
+ * and controller as fast as possible, then checks that the controller ends up
+ * in the same state and handled the same events as the one that was traced.
+ *
+ * Only the events that came from outside the controller are replayed, by
+ * acting on the hardware the way the customer or technician did; the hardware
+ * and controller cause the rest again. The trace does not record what was in
+ * the delivery chute when tracing started, the denominations in the coin
+ * receptacle, whether its coins were stored or returned when it was emptied,
+ * or changes made through
+ * {@link Controller#restore(StateSnapshot)} or
+ * {@link Controller#setPriceTable(PriceTable)} while tracing, so a trace that
+ * depends on those will not match.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TraceReplayer {
+
+	private static final EventType[] TYPES = EventType.values();
+
+	// the trace
+	private final int[] coinKinds;
+	private final String[] names;
+	private final List<Integer> costs = new ArrayList<Integer>();
+	private final boolean[] available;
+	private final int coinRackCapacity;
+	private final int popCanRackCapacity;
+	private final int receptacleCapacity;
+	private final StateSnapshot state;
+	private final int[] coinRackSize;
+	private final boolean[] coinRackDisabled;
+	private final int receptacleSize;
+	private final int records;
+	private final byte[] type;
+	private final byte[] depth;
+	private final int[] id;
+	private final int[] value;
+	private final long[] expectedCounts = new long[TYPES.length];
+	private final int expectedBalance;
+	private final int expectedMessageCode;
+	private final String expectedMessage;
+	private final String expectedChuteAction;
+
+	/**
+	 * Reads a trace into memory
+	 *
+	 * @param traceFile
+	 *            the trace
+	 * @throws IOException
+	 *             if the file cannot be read or is not a complete trace
+	 */
+	public TraceReplayer(File traceFile) throws IOException {
+		byte[] bytes = Files.readAllBytes(traceFile.toPath());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		if (in.readInt() != TraceWriter.MAGIC || in.readInt() != TraceWriter.VERSION) {
+			throw new IOException("Not a controller trace: " + traceFile);
+		}
+
+		coinKinds = new int[in.readInt()];
+		for (int i = 0; i < coinKinds.length; i++) {
+			coinKinds[i] = in.readInt();
+		}
+		names = new String[in.readInt()];
+		available = new boolean[names.length];
+		coinRackCapacity = in.readInt();
+		popCanRackCapacity = in.readInt();
+		receptacleCapacity = in.readInt();
+		for (int i = 0; i < names.length; i++) {
+			names[i] = in.readUTF();
+			costs.add(in.readInt());
+			available[i] = in.readBoolean();
+		}
+
+		state = StateSnapshot.readFrom(in);
+		coinRackSize = new int[coinKinds.length];
+		coinRackDisabled = new boolean[coinKinds.length];
+		for (int i = 0; i < coinKinds.length; i++) {
+			coinRackSize[i] = in.readInt();
+			coinRackDisabled[i] = in.readBoolean();
+		}
+		receptacleSize = in.readInt();
+
+		// read the records into arrays so the replay does not wait on the parsing
+		int maxRecords = in.available() / TraceWriter.RECORD_SIZE;
+		type = new byte[maxRecords];
+		depth = new byte[maxRecords];
+		id = new int[maxRecords];
+		value = new int[maxRecords];
+		int count = 0;
+		while (true) {
+			byte recordType = in.readByte();
+			if (recordType == TraceWriter.END) {
+				in.skipBytes(TraceWriter.RECORD_SIZE - 1);
+				break;
+			}
+			type[count] = recordType;
+			depth[count] = in.readByte();
+			id[count] = in.readInt();
+			value[count] = in.readInt();
+			if (recordType >= 0) {
+				expectedCounts[recordType]++;
+			}
+			count++;
+		}
+		records = count;
+
+		expectedBalance = in.readInt();
+		expectedMessageCode = in.readInt();
+		expectedMessage = in.readUTF();
+		boolean hasChuteAction = in.readBoolean();
+		String chuteAction = in.readUTF();
+		expectedChuteAction = hasChuteAction ? chuteAction : null;
+	}
+
+	/**
+	 * @return the number of records in the trace
+	 */
+	public int getRecords() {
+		return records;
+	}
+
+	/**
+	 * Replays the trace against a new machine
+	 *
+	 * @return the outcome of the replay
+	 */
+	public ReplayResult replay() {
+		VendingMachine vendingMachine = new VendingMachine(coinKinds, names.length, coinRackCapacity,
+				popCanRackCapacity, receptacleCapacity);
+		List<String> nameList = new ArrayList<String>();
+		for (String name : names) {
+			nameList.add(name);
+		}
+		vendingMachine.configure(nameList, costs);
+		Controller controller = new Controller(vendingMachine, names);
+		int[] costArray = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			costArray[i] = costs.get(i);
+		}
+		controller.setPriceTable(new PriceTable(names, costArray, available));
+
+		for (int i = 0; i < coinKinds.length; i++) {
+			CoinRack rack = vendingMachine.getCoinRack(i);
+			rack.load(coins(coinKinds[i], coinRackSize[i]));
+			if (coinRackDisabled[i]) {
+				rack.disable();
+			}
+		}
+		// only the number of coins in the receptacle matters until they are stored
+		vendingMachine.getCoinReceptacle().load(coins(coinKinds[0], receptacleSize));
+		controller.restore(state);
+
+		// count every event without timing them
+		MetricsRegistry counts = new MetricsRegistry(1 << 30);
+		controller.setMetrics(counts);
+
+		int stimuli = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < records; i++) {
+			if (depth[i] == 0 && apply(vendingMachine, controller, i)) {
+				stimuli++;
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		controller.setMetrics(null);
+
+		long[] actualCounts = new long[TYPES.length];
+		for (EventType eventType : TYPES) {
+			actualCounts[eventType.ordinal()] = counts.getCount(eventType);
+		}
+		return new ReplayResult(records, stimuli, nanos, expectedCounts, actualCounts, expectedBalance,
+				controller.getBalance(), expectedMessageCode, controller.getLastMessageCode(), expectedMessage,
+				controller.getLastMessage(), expectedChuteAction, controller.getDCLastAction());
+	}
+
+	/**
+	 * Repeats an action from outside the controller. Events the hardware causes
+	 * on its own, e.g. the chute filling up, are skipped.
+	 *
+	 * @return true if the record was an action
+	 */
+	private boolean apply(VendingMachine vendingMachine, Controller controller, int record) {
+		if (type[record] == TraceWriter.RETURN_CHANGE) {
+			controller.returnChange();
+			return true;
+		}
+
+		int rackID = id[record];
+		try {
+			switch (TYPES[type[record]]) {
+			case COIN_SLOT_ENABLED:
+				vendingMachine.getCoinSlot().enable();
+				return true;
+			case COIN_SLOT_DISABLED:
+				vendingMachine.getCoinSlot().disable();
+				return true;
+			case COIN_ACCEPTED:
+			case COIN_REJECTED:
+				vendingMachine.getCoinSlot().addCoin(new Coin(value[record]));
+				return true;
+
+			case BUTTON_ENABLED:
+				vendingMachine.getSelectionButton(rackID).enable();
+				return true;
+			case BUTTON_DISABLED:
+				vendingMachine.getSelectionButton(rackID).disable();
+				return true;
+			case BUTTON_PRESSED:
+				vendingMachine.getSelectionButton(rackID).press();
+				return true;
+
+			case RACK_ENABLED:
+				vendingMachine.getPopCanRack(rackID).enable();
+				return true;
+			case RACK_DISABLED:
+				vendingMachine.getPopCanRack(rackID).disable();
+				return true;
+			case CAN_ADDED:
+				vendingMachine.getPopCanRack(rackID).acceptPopCan(new PopCan(names[rackID]));
+				return true;
+			case CAN_REMOVED:
+				vendingMachine.getPopCanRack(rackID).dispensePopCan();
+				return true;
+			case CANS_LOADED:
+				PopCan[] cans = new PopCan[value[record]];
+				for (int i = 0; i < cans.length; i++) {
+					cans[i] = new PopCan(names[rackID]);
+				}
+				vendingMachine.getPopCanRack(rackID).load(cans);
+				return true;
+			case CANS_UNLOADED:
+				vendingMachine.getPopCanRack(rackID).unload();
+				return true;
+
+			case CHUTE_ENABLED:
+				vendingMachine.getDeliveryChute().enable();
+				return true;
+			case CHUTE_DISABLED:
+				vendingMachine.getDeliveryChute().disable();
+				return true;
+			case DOOR_OPENED:
+				vendingMachine.getDeliveryChute().removeItems();
+				return true;
+
+			case COIN_RACK_ENABLED:
+				vendingMachine.getCoinRack(rackID).enable();
+				return true;
+			case COIN_RACK_DISABLED:
+				vendingMachine.getCoinRack(rackID).disable();
+				return true;
+			case COIN_ADDED:
+				vendingMachine.getCoinRack(rackID).acceptCoin(new Coin(coinKinds[rackID]));
+				return true;
+			case COIN_REMOVED:
+				vendingMachine.getCoinRack(rackID).releaseCoin();
+				return true;
+			case COINS_LOADED:
+				vendingMachine.getCoinRack(rackID).load(coins(coinKinds[rackID], value[record]));
+				return true;
+			case COINS_UNLOADED:
+				vendingMachine.getCoinRack(rackID).unload();
+				return true;
+
+			case RECEPTACLE_LOADED:
+				vendingMachine.getCoinReceptacle().load(new Coin(value[record]));
+				return true;
+			case RECEPTACLE_UNLOADED:
+				vendingMachine.getCoinReceptacle().unload();
+				return true;
+
+			default:
+				return false;
+			}
+		} catch (DisabledException e) {
+			// the traced action failed the same way
+			return true;
+		} catch (CapacityExceededException e) {
+			return true;
+		} catch (EmptyException e) {
+			return true;
+		} catch (SimulationException e) {
+			// the replay has gone differently, which the result will show
+			return true;
+		}
+	}
+
+	//makes coins of one kind
+	private static Coin[] coins(int kind, int count) {
+		Coin[] coins = new Coin[count];
+		for (int i = 0; i < count; i++) {
+			coins[i] = new Coin(kind);
+		}
+		return coins;
+	}
+}
@@ -0,0 +1,204 @@
+package ca.ucalgary.seng300.a1.trace;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.lsmr.vending.hardware.VendingMachine;
+
+import ca.ucalgary.seng300.a1.journal.StateSnapshot;
+import ca.ucalgary.seng300.a1.logic.EventType;
+import ca.ucalgary.seng300.a1.logic.PriceTable;
+
+/**
+ * Records every event a controller handles to a compact binary trace file,
+ * so that the traffic can be replayed later with {@link TraceReplayer}.
+ *
+ * The file starts with the configuration of the machine and its state when
+ * tracing started, followed by one 10 byte record per event: the event type,
+ * how deeply the event is nested inside other events, the ID and the value.
+ * Events with a depth of 0 came from outside the controller, e.g. a coin
+ * inserted; the rest were caused by the controller, e.g. a can removed by a
+ * purchase. The file ends with the controller state when tracing stopped.
+ *
+ * Records are written through a buffer so that tracing rarely touches the
+ * disk. A write error does not stop the controller; it is thrown by
+ * {@link #close(int, int, String, String)}.
+ *
+ * @authors Brian Hoang, Jaskaran Sidhu, Jason De Boer
+ *
+ */
+public class TraceWriter {
+
+	static final int MAGIC = 0x54524345;
+	static final int VERSION = 3;
+	static final int RECORD_SIZE = 10;
+
+	/** The record type of a request to return change */
+	static final byte RETURN_CHANGE = -1;
+	/** The record type that ends the records */
+	static final byte END = -2;
+
+	private final FileOutputStream file;
+	private final byte[] buffer = new byte[64 * 1024];
+	private int position = 0;
+	private long events = 0;
+	private IOException error;
+
+	/**
+	 * Creates a trace file and writes the configuration and state of a machine
+	 * to it
+	 *
+	 * @param traceFile
+	 *            the file to write, replaced if it exists
+	 * @param vendingMachine
+	 *            the machine being traced
+	 * @param prices
+	 *            the names and prices the controller is using
+	 * @param state
+	 *            the controller state when tracing starts
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public TraceWriter(File traceFile, VendingMachine vendingMachine, PriceTable prices, StateSnapshot state) throws IOException {
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(header);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		int coinRacks = vendingMachine.getNumberOfCoinRacks();
+		out.writeInt(coinRacks);
+		for (int i = 0; i < coinRacks; i++) {
+			out.writeInt(vendingMachine.getCoinKindForCoinRack(i));
+		}
+		int selections = vendingMachine.getNumberOfSelectionButtons();
+		out.writeInt(selections);
+		out.writeInt(vendingMachine.getCoinRack(0).getCapacity());
+		out.writeInt(vendingMachine.getPopCanRack(0).getCapacity());
+		// the machine builds its delivery chute with the receptacle capacity
+		out.writeInt(vendingMachine.getDeliveryChute().getCapacity());
+		for (int i = 0; i < selections; i++) {
+			out.writeUTF(prices.getName(i));
+			out.writeInt(prices.getCost(i));
+			out.writeBoolean(prices.isAvailable(i));
+		}
+
+		state.writeTo(out);
+		for (int i = 0; i < coinRacks; i++) {
+			out.writeInt(vendingMachine.getCoinRack(i).size());
+			out.writeBoolean(vendingMachine.getCoinRack(i).isDisabled());
+		}
+		out.writeInt(vendingMachine.getCoinReceptacle().size());
+		out.flush();
+
+		file = new FileOutputStream(traceFile);
+		try {
+			header.writeTo(file);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Records an event
+	 *
+	 * @param type
+	 *            the kind of event
+	 * @param depth
+	 *            the number of events the event is nested in
+	 * @param id
+	 *            the ID of the hardware the event came from
+	 * @param value
+	 *            the value of the event
+	 */
+	public void event(EventType type, int depth, int id, int value) {
+		record((byte) type.ordinal(), depth, id, value);
+		events++;
+	}
+
+	/**
+	 * Records a request to return change
+	 *
+	 * @param depth
+	 *            the number of events the request is nested in
+	 */
+	public void returnChange(int depth) {
+		record(RETURN_CHANGE, depth, 0, 0);
+	}
+
+	private void record(byte type, int depth, int id, int value) {
+		if (position + RECORD_SIZE > buffer.length) {
+			flush();
+		}
+		byte[] b = buffer;
+		int p = position;
+		b[p] = type;
+		b[p + 1] = (byte) Math.min(depth, Byte.MAX_VALUE);
+		b[p + 2] = (byte) (id >>> 24);
+		b[p + 3] = (byte) (id >>> 16);
+		b[p + 4] = (byte) (id >>> 8);
+		b[p + 5] = (byte) id;
+		b[p + 6] = (byte) (value >>> 24);
+		b[p + 7] = (byte) (value >>> 16);
+		b[p + 8] = (byte) (value >>> 8);
+		b[p + 9] = (byte) value;
+		position = p + RECORD_SIZE;
+	}
+
+	//writes the buffer to the file, keeping the first error
+	private void flush() {
+		if (error == null) {
+			try {
+				file.write(buffer, 0, position);
+			} catch (IOException e) {
+				error = e;
+			}
+		}
+		position = 0;
+	}
+
+	/**
+	 * @return the number of events recorded
+	 */
+	public long getEvents() {
+		return events;
+	}
+
+	/**
+	 * Writes the controller state when tracing stopped and closes the file
+	 *
+	 * @param balance
+	 *            the credit entered
+	 * @param lastMessageCode
+	 *            the code of the last message
+	 * @param lastMessage
+	 *            the text of the last message
+	 * @param chuteLastAction
+	 *            the last delivery chute action, may be null
+	 * @throws IOException
+	 *             if writing the trace failed at any point
+	 */
+	public void close(int balance, int lastMessageCode, String lastMessage, String chuteLastAction)
+			throws IOException {
+		try {
+			record(END, 0, 0, 0);
+			flush();
+			if (error != null) {
+				throw error;
+			}
+			DataOutputStream out = new DataOutputStream(file);
+			out.writeInt(balance);
+			out.writeInt(lastMessageCode);
+			out.writeUTF(lastMessage);
+			out.writeBoolean(chuteLastAction != null);
+			out.writeUTF(chuteLastAction == null ? "" : chuteLastAction);
+			out.writeLong(events);
+			out.flush();
+		} finally {
+			file.close();
+		}
+	}
+}